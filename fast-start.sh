@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Fast-start build and launch of the backend: the context is processed ahead of time for the "fast-start"
+# profile (mvn -Pfast-start) and the classes startup loads are kept in an AppCDS archive.
+#
+#   ./fast-start.sh build          package, unpack into target/fast-start and record the CDS archive
+#   ./fast-start.sh run [args...]  start from target/fast-start (building it first if needed);
+#                                  args go to the application, e.g. --server.port=8081
+#
+# The ahead-of-time build is made for the fast-start profile alone; rebuild after changing code or profiles.
+set -euo pipefail
+cd "$(dirname "$0")"
+
+OUT=target/fast-start
+JAR=target/home-care-plants-backend-0.0.1-SNAPSHOT.jar
+MAIN=com.homecare.HomeCarePlantsApplication
+
+build() {
+    mvn -B -q -Pfast-start -DskipTests package
+    rm -rf "$OUT"
+    mkdir -p "$OUT/unpacked"
+    (cd "$OUT/unpacked" && jar xf "../../../$JAR")
+    # CDS only archives classes loaded from jars, so the application classes go back into a plain jar
+    jar cf "$OUT/app.jar" -C "$OUT/unpacked/BOOT-INF/classes" .
+    mv "$OUT/unpacked/BOOT-INF/lib" "$OUT/lib"
+    rm -rf "$OUT/unpacked"
+    {
+        printf '%s' "$OUT/app.jar"
+        for lib in $(ls "$OUT/lib" | sort); do
+            printf ':%s' "$OUT/lib/$lib"
+        done
+    } > "$OUT/classpath.txt"
+
+    # Training run: refresh the context against a throwaway database, exit, and archive the loaded classes
+    java -XX:ArchiveClassesAtExit="$OUT/app.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+        -cp "$(cat "$OUT/classpath.txt")" "$MAIN" --spring.profiles.active=fast-start \
+        --spring.datasource.url=jdbc:h2:mem:cds-training --server.port=0 > "$OUT/training.log" 2>&1
+    echo "Fast-start build ready in $OUT"
+}
+
+run() {
+    if [ ! -f "$OUT/app.jsa" ]; then
+        build
+    fi
+    exec java -XX:SharedArchiveFile="$OUT/app.jsa" -Dspring.aot.enabled=true \
+        -cp "$(cat "$OUT/classpath.txt")" "$MAIN" --spring.profiles.active=fast-start "$@"
+}
+
+case "${1:-run}" in
+    build) build ;;
+    run) shift || true; run "$@" ;;
+    *) echo "usage: $0 [build|run [args...]]" >&2; exit 1 ;;
+esac
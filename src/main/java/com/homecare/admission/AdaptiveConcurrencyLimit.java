@@ -0,0 +1,123 @@
+package com.homecare.admission;
+
+/**
+ * Latency-based concurrency limit in the style of TCP Vegas with AIMD updates, compared on smoothed latencies
+ * so ordinary jitter does not move it. The limiter keeps a short-term moving average of the latency (about the
+ * last ten requests) and a long-term one as the baseline; the baseline drops straight to the short-term
+ * average whenever that is lower, so it follows the no-load latency and adapts slowly to lasting changes in
+ * the work itself. While the limit is in real use, a short-term average within latency-tolerance times the
+ * baseline grows the limit by about one per limit's worth of requests. Only when in-flight requests are near
+ * the limit does a slower average shrink it by a tenth: with spare slots, slow requests are the work's own
+ * cost rather than queueing, and holding the limit back would only turn away concurrent requests.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double BASELINE_WEIGHT = 0.002;
+    private static final double BACKOFF_RATIO = 0.9;
+    // Share of the limit in flight from which the limit may shrink
+    private static final double NEAR_LIMIT_RATIO = 0.8;
+
+    private final String endpoint;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+
+    private double limit;
+    private int inFlight;
+    private double shortNanos;
+    private double baselineNanos;
+    // Bumped by resetLatency, so requests still in flight then do not feed the new averages
+    private long latencyEpoch;
+    private long accepted;
+    private long rejected;
+
+    public AdaptiveConcurrencyLimit(String endpoint, int initialLimit, int minLimit, int maxLimit,
+                                    double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || latencyTolerance < 1) {
+            throw new IllegalArgumentException("Invalid concurrency limit settings for " + endpoint);
+        }
+        this.endpoint = endpoint;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    // Take a slot, or return false straight away when the endpoint is at its limit
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        accepted++;
+        return true;
+    }
+
+    // Give the slot back and adjust the limit from the request's latency
+    public synchronized void release(long latencyNanos) {
+        release(latencyNanos, latencyEpoch);
+    }
+
+    // As release(latencyNanos), except that requests admitted before the last latency reset only free their slot
+    public synchronized void release(long latencyNanos, long admittedInEpoch) {
+        if (admittedInEpoch != latencyEpoch) {
+            inFlight--;
+            return;
+        }
+        boolean inUse = inFlight * 2 >= (int) limit;
+        boolean nearLimit = inFlight >= (int) limit * NEAR_LIMIT_RATIO;
+        inFlight--;
+        if (baselineNanos == 0) {
+            shortNanos = latencyNanos;
+            baselineNanos = latencyNanos;
+            return;
+        }
+        shortNanos += (latencyNanos - shortNanos) * SHORT_WEIGHT;
+        baselineNanos = Math.min(shortNanos, baselineNanos + (shortNanos - baselineNanos) * BASELINE_WEIGHT);
+
+        if (shortNanos > baselineNanos * latencyTolerance) {
+            if (nearLimit) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            }
+        } else if (inUse) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    // Forget the latency averages, so the next request starts them again (the limit itself is kept)
+    public synchronized void resetLatency() {
+        latencyEpoch++;
+        shortNanos = 0;
+        baselineNanos = 0;
+    }
+
+    public synchronized long getLatencyEpoch() {
+        return latencyEpoch;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getBaselineNanos() {
+        return (long) baselineNanos;
+    }
+
+    public synchronized long getAccepted() {
+        return accepted;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,18 @@
+package com.homecare.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method behind an adaptive concurrency limit. Handlers naming the same endpoint group share
+ * one limit, configured under plantcare.admission.&lt;group&gt;.* (initial-limit, min-limit, max-limit,
+ * latency-tolerance).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControlled {
+
+    String value();
+}
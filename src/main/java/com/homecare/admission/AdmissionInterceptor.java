@@ -0,0 +1,143 @@
+package com.homecare.admission;
+
+import com.homecare.dto.AdmissionStats;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for handlers marked with AdmissionControlled. A request is admitted only while its endpoint
+ * group is under its adaptive limit; otherwise it is answered at once with 503 and Retry-After, before it takes
+ * a database connection or any real work, so expensive endpoints under load cannot hold every request thread
+ * while cheap reads wait. The slot is held until the response completes, including asynchronous handlers.
+ */
+@Component
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${plantcare.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${plantcare.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    private static final class Permit {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long epoch;
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+            this.epoch = limit.getLatencyEpoch();
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - startedAt, epoch);
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch of an admitted request already holds its slot
+        if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        AdmissionControlled annotation = method.getMethodAnnotation(AdmissionControlled.class);
+        if (annotation == null) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(annotation.value(), this::createLimit);
+        if (!limit.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limit));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            // Released when the async response completes, times out or fails, whichever comes first
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    permit.release();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    permit.release();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    permit.release();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!request.isAsyncStarted() && request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            permit.release();
+        }
+    }
+
+    // Drop the latency baselines learned so far, e.g. from the startup warm-up's cold requests; requests still
+    // in flight do not count towards the new ones
+    public void resetLatencies() {
+        limits.values().forEach(AdaptiveConcurrencyLimit::resetLatency);
+    }
+
+    public List<AdmissionStats> getStats() {
+        return limits.values().stream()
+                .sorted(Comparator.comparing(AdaptiveConcurrencyLimit::getEndpoint))
+                .map(limit -> new AdmissionStats(limit.getEndpoint(), limit.getLimit(), limit.getInFlight(),
+                        limit.getBaselineNanos() / 1_000_000.0, limit.getAccepted(), limit.getRejected()))
+                .toList();
+    }
+
+    private AdaptiveConcurrencyLimit createLimit(String endpoint) {
+        String prefix = "plantcare.admission." + endpoint + ".";
+        return new AdaptiveConcurrencyLimit(endpoint,
+                environment.getProperty(prefix + "initial-limit", Integer.class, 10),
+                environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                environment.getProperty(prefix + "max-limit", Integer.class, 50),
+                environment.getProperty(prefix + "latency-tolerance", Double.class, 2.0));
+    }
+}
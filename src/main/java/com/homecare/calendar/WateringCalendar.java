@@ -0,0 +1,147 @@
+package com.homecare.calendar;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.replica.ReplicaReads;
+import com.homecare.service.WateringSchedule;
+import com.homecare.sharding.HouseholdContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * iCalendar (RFC 5545) feed of watering dates: one all-day VEVENT per plant with a next watering date,
+ * starting on that date and repeating with the plant's watering interval. Each plant's VEVENT is rendered once
+ * into UTF-8 bytes and reused until the plant's version changes; the feed is the calendar header, the cached
+ * events and the footer written straight to the response.
+ *
+ * The feed's ETag is derived from a change counter bumped by every {@link PlantChangedEvent} plus a nonce
+ * picked at startup, so a polling client is answered 304 without any query while nothing has changed.
+ */
+@Component
+public class WateringCalendar {
+
+    private static final byte[] HEADER = ("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Home Plant Care//Watering Calendar//EN\r\n"
+            + "CALSCALE:GREGORIAN\r\nMETHOD:PUBLISH\r\nX-WR-CALNAME:Plant waterings\r\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FOOTER = "END:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NO_EVENT = new byte[0];
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final ConcurrentMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final String nonce = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private record Fragment(Long version, byte[] event) {
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        changes.incrementAndGet();
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            fragments.clear();
+        } else {
+            fragments.remove(event.plantId());
+        }
+    }
+
+    // Strong ETag of the feed as it is now; read it before loading the plants, so a change made meanwhile
+    // gives the next poll a different tag. A feed read from the replica is tagged with its position too, as
+    // the replica may not have the latest change yet when the tag is taken
+    public String currentETag(String type) {
+        String scope = Integer.toHexString(HouseholdContext.current().hashCode())
+                + (type == null ? "-all" : "-" + Integer.toHexString(type.hashCode()))
+                + (ReplicaReads.isAllowed() ? "-" + ReplicaReads.view() : "");
+        return "\"" + nonce + "-" + changes.get() + "-" + scope + "\"";
+    }
+
+    // Write the calendar for the given plants
+    public void write(List<PlantSummary> plants, OutputStream output) throws IOException {
+        output.write(HEADER);
+        for (PlantSummary plant : plants) {
+            output.write(event(plant));
+        }
+        output.write(FOOTER);
+    }
+
+    byte[] event(PlantSummary plant) {
+        Fragment cached = fragments.get(plant.id());
+        if (cached != null && Objects.equals(cached.version(), plant.version())) {
+            return cached.event();
+        }
+        byte[] event = plant.nextWatering() == null ? NO_EVENT : render(plant).getBytes(StandardCharsets.UTF_8);
+        fragments.put(plant.id(), new Fragment(plant.version(), event));
+        return event;
+    }
+
+    private static String render(PlantSummary plant) {
+        LocalDate start = plant.nextWatering();
+        StringBuilder event = new StringBuilder(256);
+        line(event, "BEGIN:VEVENT");
+        line(event, "UID:plant-" + plant.id() + "-watering@homecare");
+        line(event, "DTSTAMP:" + TIMESTAMP.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        line(event, "DTSTART;VALUE=DATE:" + DATE.format(start));
+        line(event, "DTEND;VALUE=DATE:" + DATE.format(start.plusDays(1)));
+        line(event, "RRULE:" + recurrence(plant.wateringFrequency()));
+        line(event, "SUMMARY:" + escape("Water " + plant.name()));
+        line(event, "DESCRIPTION:" + escape(plant.name() + " (" + plant.type() + "), watered "
+                + plant.wateringFrequency() + " with " + plant.sunlightNeeds() + " sunlight"));
+        line(event, "CATEGORIES:" + escape(plant.type()));
+        line(event, "SEQUENCE:" + (plant.version() == null ? 0 : plant.version()));
+        line(event, "TRANSP:TRANSPARENT");
+        line(event, "END:VEVENT");
+        return event.toString();
+    }
+
+    // Whole weeks repeat weekly so calendars show them on the same weekday, and months on the same day of the month
+    static String recurrence(String wateringFrequency) {
+        if ("monthly".equalsIgnoreCase(wateringFrequency)) {
+            return "FREQ=MONTHLY";
+        }
+        int days = WateringSchedule.intervalDays(wateringFrequency);
+        if (days % 7 == 0) {
+            return days == 7 ? "FREQ=WEEKLY" : "FREQ=WEEKLY;INTERVAL=" + days / 7;
+        }
+        return days == 1 ? "FREQ=DAILY" : "FREQ=DAILY;INTERVAL=" + days;
+    }
+
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,")
+                .replace("\r\n", "\\n").replace("\n", "\\n").replace("\r", "\\n");
+    }
+
+    // Append a content line folded at 75 octets, as RFC 5545 requires, without splitting a UTF-8 sequence
+    static void line(StringBuilder out, String content) {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > limit) {
+                out.append("\r\n ");
+                octets = 0;
+                // The leading space of a continuation line counts towards its 75 octets
+                limit = MAX_LINE_OCTETS - 1;
+            }
+            out.appendCodePoint(codePoint);
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+    }
+}
@@ -0,0 +1,50 @@
+package com.homecare.catalog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the distinct values of a low-cardinality column to one-byte codes (read back unsigned, 0-255).
+ * Not thread-safe; the snapshot guards it with its own lock.
+ */
+final class ByteDictionary {
+
+    static final int CAPACITY = 256;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final String[] values = new String[CAPACITY];
+
+    // Code of a value, or -1 when the value has never been seen
+    int codeOf(String value) {
+        return codes.getOrDefault(value, -1);
+    }
+
+    // Code of a value, adding it when new; -1 when the dictionary is full
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (codes.size() == CAPACITY) {
+            return -1;
+        }
+        int newCode = codes.size();
+        codes.put(value, newCode);
+        values[newCode] = value;
+        return newCode;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    void clear() {
+        codes.clear();
+        Arrays.fill(values, null);
+    }
+}
@@ -0,0 +1,434 @@
+package com.homecare.catalog;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.sharding.HouseholdContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * In-memory columnar copy of the filterable plant attributes.
+ *
+ * Type, sunlight needs and watering frequency are dictionary-encoded into one byte per row with a bitmap
+ * per distinct value; added and next-watering dates are kept as epoch days in int arrays. Rows are densely
+ * packed (deletes move the last row into the hole), so counts are bitmap cardinalities and date filters are
+ * plain loops over primitive arrays. The snapshot is loaded once the application is ready and then kept
+ * current from {@link PlantChangedEvent}s; plants that change while a (re)load is reading the rows are fetched
+ * again once the loaded rows are in place, so a reload never puts back a row older than the last event. If a column gets more than 256 distinct values the snapshot marks
+ * itself unavailable and callers fall back to the repository; it is rebuilt every retry-interval-ms until the
+ * values fit again (a rebuild also drops values no plant uses any more).
+ *
+ * Only the default household's plants are in the snapshot, so it reports itself unavailable to requests of any
+ * other household and they are answered from the repository.
+ */
+@Component
+public class PlantCatalogSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlantCatalogSnapshot.class);
+
+    // Epoch day stored for a missing date; smaller than any real date so range checks skip it
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ByteDictionary types = new ByteDictionary();
+    private final ByteDictionary sunlightLevels = new ByteDictionary();
+    private final ByteDictionary frequencies = new ByteDictionary();
+    private final BitSet[] typeBitmaps = new BitSet[ByteDictionary.CAPACITY];
+    private final BitSet[] sunlightBitmaps = new BitSet[ByteDictionary.CAPACITY];
+    private final BitSet[] frequencyBitmaps = new BitSet[ByteDictionary.CAPACITY];
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private byte[] typeCodes = new byte[INITIAL_CAPACITY];
+    private byte[] sunlightCodes = new byte[INITIAL_CAPACITY];
+    private byte[] frequencyCodes = new byte[INITIAL_CAPACITY];
+    private int[] addedDays = new int[INITIAL_CAPACITY];
+    private int[] nextWateringDays = new int[INITIAL_CAPACITY];
+    private int size;
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    // Bumped on every change, so results derived from the snapshot can tell when they are stale
+    private volatile long generation;
+    private volatile boolean available;
+    // Set when a dictionary overflowed; cleared by the next rebuild
+    private volatile boolean disabled;
+    // Plants changed while a load was reading the rows, which may predate those changes
+    private volatile boolean loading;
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    // The rows are read before the write lock is taken, so changes applied meanwhile are applied again on top
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        loading = true;
+        try {
+            rebuild(plantRepository.findAllSummaries());
+        } finally {
+            loading = false;
+        }
+        List<Long> changed = new ArrayList<>(changedDuringLoad);
+        changedDuringLoad.removeAll(changed);
+        changed.forEach(this::refresh);
+    }
+
+    // A disabled snapshot ignores changes until a rebuild brings it back
+    @Scheduled(fixedDelayString = "${plantcare.catalog.retry-interval-ms:60000}")
+    public void rebuildIfDisabled() {
+        if (disabled) {
+            load();
+            if (available) {
+                logger.info("Catalog snapshot available again with {} plants", size());
+            }
+        }
+    }
+
+    @EventListener(condition = "#event.defaultHousehold")
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            load();
+            return;
+        }
+        // Noted before applying, so a load finishing in between still sees it
+        if (loading) {
+            changedDuringLoad.add(event.plantId());
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.DELETED) {
+            remove(event.plantId());
+        } else {
+            refresh(event.plantId());
+        }
+    }
+
+    private void refresh(Long plantId) {
+        plantRepository.findSummaryById(plantId).ifPresentOrElse(this::upsert, () -> remove(plantId));
+    }
+
+    // Replace the whole snapshot with the given rows
+    public void rebuild(List<PlantSummary> plants) {
+        lock.writeLock().lock();
+        try {
+            types.clear();
+            sunlightLevels.clear();
+            frequencies.clear();
+            Arrays.fill(typeBitmaps, null);
+            Arrays.fill(sunlightBitmaps, null);
+            Arrays.fill(frequencyBitmaps, null);
+            rowById.clear();
+            size = 0;
+            available = true;
+            disabled = false;
+            ensureCapacity(plants.size());
+            for (PlantSummary plant : plants) {
+                if (!append(plant)) {
+                    break;
+                }
+            }
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Catalog snapshot loaded with {} plants", size);
+    }
+
+    // Insert or update one row
+    public void upsert(PlantSummary plant) {
+        lock.writeLock().lock();
+        try {
+            if (!available) {
+                return;
+            }
+            Integer row = rowById.get(plant.id());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                append(plant);
+            } else {
+                clearBits(row);
+                encodeInto(row, plant);
+            }
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Remove one row by moving the last row into its slot
+    public void remove(Long plantId) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(plantId);
+            if (row == null) {
+                return;
+            }
+            clearBits(row);
+            int last = size - 1;
+            if (row != last) {
+                clearBits(last);
+                ids[row] = ids[last];
+                typeCodes[row] = typeCodes[last];
+                sunlightCodes[row] = sunlightCodes[last];
+                frequencyCodes[row] = frequencyCodes[last];
+                addedDays[row] = addedDays[last];
+                nextWateringDays[row] = nextWateringDays[last];
+                setBits(row);
+                rowById.put(ids[row], row);
+            }
+            size--;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isAvailable() {
+        return available && HouseholdContext.isDefault();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of plants of a type (bitmap cardinality)
+    public long countByType(String type) {
+        lock.readLock().lock();
+        try {
+            int code = types.codeOf(type);
+            return code < 0 || typeBitmaps[code] == null ? 0 : typeBitmaps[code].cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of plants per type
+    public Map<String, Long> countsByType() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (int code = 0; code < types.size(); code++) {
+                int count = typeBitmaps[code] == null ? 0 : typeBitmaps[code].cardinality();
+                if (count > 0) {
+                    counts.put(types.decode(code), (long) count);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of plants whose next watering is on or before the given day
+    public long countNeedingWatering(LocalDate today) {
+        lock.readLock().lock();
+        try {
+            int day = (int) today.toEpochDay();
+            int[] next = nextWateringDays;
+            long count = 0;
+            for (int row = 0; row < size; row++) {
+                int value = next[row];
+                count += (value != NO_DATE & value <= day) ? 1 : 0;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of the plants matching every criterion of the filter
+    public long[] findIds(PlantFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = null;
+            if (filter.type() != null) {
+                candidates = intersect(candidates, typeBitmaps, types.codeOf(filter.type()));
+            }
+            if (filter.sunlightNeeds() != null) {
+                candidates = intersect(candidates, sunlightBitmaps, sunlightLevels.codeOf(filter.sunlightNeeds()));
+            }
+            if (filter.wateringFrequency() != null) {
+                candidates = intersect(candidates, frequencyBitmaps, frequencies.codeOf(filter.wateringFrequency()));
+            }
+            if (filter.addedFrom() != null || filter.addedTo() != null) {
+                candidates = filterAddedBetween(candidates, filter.addedFrom(), filter.addedTo());
+            }
+
+            if (candidates == null) {
+                return Arrays.copyOf(ids, size);
+            }
+            long[] result = new long[candidates.cardinality()];
+            int index = 0;
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                result[index++] = ids[row];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Run a reader over the raw columns while holding the read lock, so writers wait until it returns
+    public <T> T read(ColumnReader<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.read(new Columns(size, ids, typeCodes, sunlightCodes, frequencyCodes, addedDays,
+                    nextWateringDays, types::decode, sunlightLevels::decode, frequencies::decode,
+                    types.size(), sunlightLevels.size(), frequencies.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The raw column arrays of the first {@code size} rows. Only valid inside {@link #read(ColumnReader)};
+     * codes are unsigned bytes and missing dates are {@link #NO_DATE}.
+     */
+    public record Columns(int size, long[] ids, byte[] typeCodes, byte[] sunlightCodes, byte[] frequencyCodes,
+                          int[] addedDays, int[] nextWateringDays, IntFunction<String> types,
+                          IntFunction<String> sunlightLevels, IntFunction<String> frequencies,
+                          int typeCount, int sunlightCount, int frequencyCount) {
+
+        public static final int NO_DATE = PlantCatalogSnapshot.NO_DATE;
+    }
+
+    @FunctionalInterface
+    public interface ColumnReader<T> {
+        T read(Columns columns);
+    }
+
+    private BitSet intersect(BitSet candidates, BitSet[] bitmaps, int code) {
+        BitSet bitmap = code < 0 || bitmaps[code] == null ? new BitSet() : bitmaps[code];
+        if (candidates == null) {
+            return (BitSet) bitmap.clone();
+        }
+        candidates.and(bitmap);
+        return candidates;
+    }
+
+    private BitSet filterAddedBetween(BitSet candidates, LocalDate from, LocalDate to) {
+        int low = from == null ? NO_DATE + 1 : (int) from.toEpochDay();
+        int high = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        int[] added = addedDays;
+        BitSet matches = new BitSet(size);
+        if (candidates == null) {
+            for (int row = 0; row < size; row++) {
+                int day = added[row];
+                if (day >= low & day <= high) {
+                    matches.set(row);
+                }
+            }
+        } else {
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                int day = added[row];
+                if (day >= low & day <= high) {
+                    matches.set(row);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private boolean append(PlantSummary plant) {
+        int row = size;
+        if (!encodeInto(row, plant)) {
+            return false;
+        }
+        rowById.put(plant.id(), row);
+        size++;
+        return true;
+    }
+
+    // Write a plant into a row slot; returns false (and disables the snapshot) when a dictionary is full
+    private boolean encodeInto(int row, PlantSummary plant) {
+        int type = types.encode(valueOf(plant.type()));
+        int sunlight = sunlightLevels.encode(valueOf(plant.sunlightNeeds()));
+        int frequency = frequencies.encode(valueOf(plant.wateringFrequency()));
+        if (type < 0 || sunlight < 0 || frequency < 0) {
+            available = false;
+            disabled = true;
+            logger.warn("Catalog snapshot disabled: more than {} distinct values in a column", ByteDictionary.CAPACITY);
+            return false;
+        }
+        ids[row] = plant.id();
+        typeCodes[row] = (byte) type;
+        sunlightCodes[row] = (byte) sunlight;
+        frequencyCodes[row] = (byte) frequency;
+        addedDays[row] = epochDay(plant.addedDate());
+        nextWateringDays[row] = epochDay(plant.nextWatering());
+        setBits(row);
+        return true;
+    }
+
+    private void setBits(int row) {
+        bitmap(typeBitmaps, typeCodes[row]).set(row);
+        bitmap(sunlightBitmaps, sunlightCodes[row]).set(row);
+        bitmap(frequencyBitmaps, frequencyCodes[row]).set(row);
+    }
+
+    private void clearBits(int row) {
+        bitmap(typeBitmaps, typeCodes[row]).clear(row);
+        bitmap(sunlightBitmaps, sunlightCodes[row]).clear(row);
+        bitmap(frequencyBitmaps, frequencyCodes[row]).clear(row);
+    }
+
+    private BitSet bitmap(BitSet[] bitmaps, byte code) {
+        int index = code & 0xFF;
+        if (bitmaps[index] == null) {
+            bitmaps[index] = new BitSet();
+        }
+        return bitmaps[index];
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(rows, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        sunlightCodes = Arrays.copyOf(sunlightCodes, capacity);
+        frequencyCodes = Arrays.copyOf(frequencyCodes, capacity);
+        addedDays = Arrays.copyOf(addedDays, capacity);
+        nextWateringDays = Arrays.copyOf(nextWateringDays, capacity);
+    }
+
+    private static String valueOf(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+}
@@ -0,0 +1,10 @@
+package com.homecare.catalog;
+
+import java.time.LocalDate;
+
+/**
+ * Attribute filter over the catalog; null criteria match everything.
+ */
+public record PlantFilter(String type, String sunlightNeeds, String wateringFrequency,
+                          LocalDate addedFrom, LocalDate addedTo) {
+}
@@ -0,0 +1,197 @@
+package com.homecare.cluster;
+
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.sharding.HouseholdContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plant change events across the instances of a cluster (the "cluster" profile), through the shared database
+ * instead of a broker. Each instance appends its own change events (plant id and the version written) to
+ * plant_change_log; every instance polls the log from its cursor and republishes the other instances' changes
+ * as local PlantChangedEvents, so the same listeners that keep caches and indexes fresh after a local write do
+ * so after a write on a peer. Within one poll only the newest change of each plant is republished. Bulk changes
+ * are logged without their id ranges, so the peers reload everything.
+ *
+ * A change is logged once the write that published it has committed, in a transaction of its own. If logging
+ * fails the write still succeeds and the other listeners still run; the peers miss that change until the next
+ * change of the plant, and the failure is logged and counted.
+ *
+ * Log ids are handed out before commit, so a lower id can become visible after a higher one. The cursor only
+ * advances over consecutive ids; a gap holds it for gap-timeout-ms, after which the missing id is taken to be
+ * a rolled back insert and skipped.
+ */
+@Component
+@Profile("cluster")
+public class ClusterInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterInvalidationBus.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Name of this instance in the log; a random one per run when not configured
+    @Value("${plantcare.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${plantcare.cluster.gap-timeout-ms:2000}")
+    private long gapTimeoutMs;
+
+    @Value("${plantcare.cluster.retention-ms:3600000}")
+    private long retentionMs;
+
+    // Set while this instance republishes a peer's change, which must not be logged again
+    private final ThreadLocal<Boolean> applying = new ThreadLocal<>();
+
+    // A change is logged after the writer's transaction has completed, so it needs one of its own
+    private TransactionTemplate logTransaction;
+
+    private volatile long cursor;
+    private long gapSince;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder publishFailed = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+
+    private record LogEntry(long id, String nodeId, Long plantId, Long plantVersion,
+                            PlantChangedEvent.ChangeType changeType, String household) {
+    }
+
+    // Changes logged before this instance started are already in what its caches load at startup
+    @PostConstruct
+    public void start() {
+        logTransaction = new TransactionTemplate(transactionManager);
+        logTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        cursor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM plant_change_log", Long.class);
+        logger.info("Cluster node {} following plant changes after log entry {}", nodeId, cursor);
+    }
+
+    // Events published outside a transaction are logged straight away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (applying.get() != null) {
+            return;
+        }
+        try {
+            logTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                    "INSERT INTO plant_change_log (node_id, plant_id, plant_version, change_type, household_id, created_at) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)",
+                    nodeId, event.plantId(), event.version(), event.changeType().name(), event.household(),
+                    Timestamp.valueOf(LocalDateTime.now())));
+            published.increment();
+        } catch (RuntimeException e) {
+            publishFailed.increment();
+            logger.warn("Logging change of plant {} for the other nodes failed", event.plantId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${plantcare.cluster.poll-interval-ms:500}")
+    public synchronized void poll() {
+        List<LogEntry> entries = jdbcTemplate.query("SELECT id, node_id, plant_id, plant_version, change_type, household_id "
+                        + "FROM plant_change_log WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new LogEntry(rs.getLong(1), rs.getString(2), rs.getObject(3, Long.class),
+                        rs.getObject(4, Long.class), PlantChangedEvent.ChangeType.valueOf(rs.getString(5)),
+                        rs.getString(6)),
+                cursor, BATCH_SIZE);
+
+        // Newest change per plant, in the order of those newest changes
+        Map<String, LogEntry> changes = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (LogEntry entry : entries) {
+            // Started on an empty (purged) log, the first id is whatever the identity has reached
+            if (cursor > 0 && entry.id() != cursor + 1) {
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < gapTimeoutMs) {
+                    break;
+                }
+                logger.debug("Skipping plant change log entries {} to {}", cursor + 1, entry.id() - 1);
+            }
+            gapSince = 0;
+            cursor = entry.id();
+            if (!nodeId.equals(entry.nodeId())) {
+                received.increment();
+                String key = entry.household() + '\u0000' + entry.plantId();
+                changes.remove(key);
+                changes.put(key, entry);
+            }
+        }
+
+        applying.set(Boolean.TRUE);
+        try {
+            for (LogEntry entry : changes.values()) {
+                HouseholdContext.set(entry.household());
+                try {
+                    eventPublisher.publishEvent(new PlantChangedEvent(entry.plantId(), entry.changeType(),
+                            entry.household(), entry.plantVersion(), null));
+                    applied.increment();
+                } catch (RuntimeException e) {
+                    // One listener failing must not stall the bus; the next change of the plant refreshes it again
+                    logger.warn("Applying change of plant {} (version {}) from node {} failed",
+                            entry.plantId(), entry.plantVersion(), entry.nodeId(), e);
+                } finally {
+                    HouseholdContext.clear();
+                }
+            }
+        } finally {
+            applying.remove();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${plantcare.cluster.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM plant_change_log WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofMillis(retentionMs))));
+        if (purged > 0) {
+            logger.debug("Purged {} plant change log entries", purged);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("cursor", cursor);
+        stats.put("published", published.sum());
+        stats.put("publishFailed", publishFailed.sum());
+        stats.put("received", received.sum());
+        stats.put("applied", applied.sum());
+        return stats;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,62 @@
+package com.homecare.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leases in cluster_job_leases that let one instance of a cluster run a scheduled job while the others skip it.
+ * An instance holds a job's lease until it expires and renews it each time it runs the job; once the holder
+ * stops renewing (it crashed or was stopped), the next instance to try takes the lease over. Expiry is judged by
+ * the database clock, so the instances' clocks need not agree.
+ *
+ * Jobs look this bean up optionally and run unconditionally outside the "cluster" profile.
+ */
+@Component
+@Profile("cluster")
+public class ClusterJobLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobLock.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterInvalidationBus invalidationBus;
+
+    // Whether this instance held each job's lease when it last tried, to log hand-overs once
+    private final Map<String, Boolean> held = new ConcurrentHashMap<>();
+
+    // Take or renew the job's lease for leaseMs; false while another instance holds it
+    public boolean tryAcquire(String job, long leaseMs) {
+        String nodeId = invalidationBus.getNodeId();
+        boolean acquired = jdbcTemplate.update("UPDATE cluster_job_leases "
+                        + "SET node_id = ?, expires_at = DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP) "
+                        + "WHERE job_name = ? AND (node_id = ? OR expires_at < CURRENT_TIMESTAMP)",
+                nodeId, leaseMs, job, nodeId) == 1;
+        if (!acquired) {
+            try {
+                acquired = jdbcTemplate.update("INSERT INTO cluster_job_leases (job_name, node_id, expires_at) "
+                        + "VALUES (?, ?, DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP))", job, nodeId, leaseMs) == 1;
+            } catch (DuplicateKeyException e) {
+                // Another instance holds the lease
+            }
+        }
+        if (!Boolean.valueOf(acquired).equals(held.put(job, acquired))) {
+            logger.info("Node {} {} job {}", nodeId, acquired ? "now runs" : "leaves to another node", job);
+        }
+        return acquired;
+    }
+
+    // Jobs whose lease this instance held when it last tried
+    public Map<String, Boolean> getHeld() {
+        return Map.copyOf(held);
+    }
+}
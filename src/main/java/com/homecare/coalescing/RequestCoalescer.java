@@ -0,0 +1,145 @@
+package com.homecare.coalescing;
+
+import com.homecare.dto.CoalescingStats;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.replica.ReplicaReads;
+import com.homecare.sharding.HouseholdContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical reads. The first request for a key runs the query; requests for the same
+ * key that arrive while it is running wait for it and share its result instead of running their own. A finished
+ * result keeps answering for the staleness window (zero disables it), and any plant change drops every finished
+ * and in-flight entry so reads that start after a write never see data from before it. Failures are handed to
+ * the waiting requests but never kept.
+ *
+ * Shared results go to several responses at once, so loaders must return values nobody modifies afterwards.
+ */
+@Component
+public class RequestCoalescer {
+
+    @Value("${plantcare.coalescing.staleness-ms:250}")
+    private long stalenessMs;
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder joinedInFlight = new LongAdder();
+        private final LongAdder servedFromWindow = new LongAdder();
+    }
+
+    // Run the loader for the key unless an identical read is in flight or fresh; the endpoint groups the counters
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpoint, String key, Supplier<T> loader) {
+        Counters endpointCounters = counters.computeIfAbsent(endpoint, name -> new Counters());
+        endpointCounters.requests.increment();
+        // Households never share results, and neither do reads from the primary and from the replica
+        String flightKey = endpoint + '\u0000' + HouseholdContext.current() + '\u0000' + ReplicaReads.view()
+                + '\u0000' + key;
+        while (true) {
+            Flight existing = flights.get(flightKey);
+            if (existing != null) {
+                if (!existing.result.isDone()) {
+                    endpointCounters.joinedInFlight.increment();
+                    return (T) await(existing);
+                }
+                if (System.nanoTime() - existing.completedAt <= TimeUnit.MILLISECONDS.toNanos(stalenessMs)) {
+                    endpointCounters.servedFromWindow.increment();
+                    return (T) await(existing);
+                }
+            }
+            Flight flight = new Flight();
+            boolean leader = existing == null
+                    ? flights.putIfAbsent(flightKey, flight) == null
+                    : flights.replace(flightKey, existing, flight);
+            if (leader) {
+                endpointCounters.executions.increment();
+                return run(flightKey, flight, loader);
+            }
+        }
+    }
+
+    // Counters for every endpoint seen so far
+    public List<CoalescingStats> getStats() {
+        return counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> {
+                    Counters c = entry.getValue();
+                    long requests = c.requests.sum();
+                    long executions = c.executions.sum();
+                    double ratio = requests == 0 ? 0 : 1 - (double) executions / requests;
+                    return new CoalescingStats(entry.getKey(), requests, executions, c.joinedInFlight.sum(),
+                            c.servedFromWindow.sum(), ratio);
+                })
+                .toList();
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        // Queries already running keep serving the requests that joined them before the write
+        flights.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${plantcare.coalescing.purge-interval-ms:10000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        long stalenessNanos = TimeUnit.MILLISECONDS.toNanos(stalenessMs);
+        flights.forEach((key, flight) -> {
+            if (flight.result.isDone() && now - flight.completedAt > stalenessNanos) {
+                flights.remove(key, flight);
+            }
+        });
+    }
+
+    private <T> T run(String flightKey, Flight flight, Supplier<T> loader) {
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(flightKey, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        flight.completedAt = System.nanoTime();
+        flight.result.complete(value);
+        if (stalenessMs <= 0) {
+            flights.remove(flightKey, flight);
+        }
+        return value;
+    }
+
+    private static Object await(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -4,11 +4,13 @@ import com.homecare.entity.Plant;
 import com.homecare.repository.PlantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 
 @Component
+@ConditionalOnProperty(name = "plantcare.seed.enabled", matchIfMissing = true)
 public class DataSeeder implements CommandLineRunner {
     
     @Autowired
@@ -0,0 +1,45 @@
+package com.homecare.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * The "fast-start" profile creates beans on first use. Beans that do work of their own are still created at
+ * startup: those with scheduled jobs, event listeners (the indexes and caches load and follow the plants through
+ * them) or startup work such as replaying the watering WAL. Controllers and services only called by requests,
+ * such as PdfGenerationService, wait for their first request.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+    private static final List<Class<? extends Annotation>> EAGER_METHOD_ANNOTATIONS =
+            List.of(Scheduled.class, EventListener.class, PostConstruct.class);
+
+    @Bean
+    public static LazyInitializationExcludeFilter activeBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && hasEagerMethod(beanType);
+    }
+
+    private static boolean hasEagerMethod(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType, ReflectionUtils.USER_DECLARED_METHODS)) {
+            for (Class<? extends Annotation> annotation : EAGER_METHOD_ANNOTATIONS) {
+                if (AnnotatedElementUtils.hasAnnotation(method, annotation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.homecare.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.homecare.json.EpochDayModule;
+import com.homecare.json.JsonFragmentsHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class JsonFragmentConfig implements WebMvcConfigurer {
+    
+    // application/cbor for clients that ask for it: the JSON mapper's settings, with dates as epoch days
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory())
+                .modulesToInstall(new EpochDayModule())
+                .build());
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of Jackson, which would otherwise try to serialize the fragment holder itself
+        converters.add(0, new JsonFragmentsHttpMessageConverter());
+    }
+}
@@ -0,0 +1,64 @@
+package com.homecare.config;
+
+import com.homecare.replica.PlantReplicator;
+import com.homecare.replica.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica (the "replica" profile): the Spring Boot datasource is the primary, plantcare.replica.url the
+ * replica, and the application's DataSource routes read-only transactions of GET requests to the replica.
+ * Not combined with the "sharded" profile.
+ */
+@Configuration
+@Profile("replica")
+public class ReplicaConfig {
+
+    // Both pools belong to the replicator, which closes them on shutdown; the replica gets the same schema
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public PlantReplicator plantReplicator(DataSourceProperties properties,
+                                           @Value("${plantcare.replica.url}") String replicaUrl,
+                                           @Value("${plantcare.replica.pool-size:10}") int poolSize,
+                                           @Value("${plantcare.replica.apply-delay-ms:0}") long applyDelayMs,
+                                           @Value("${plantcare.replica.max-lag-ms:5000}") long maxLagMs) {
+        HikariDataSource primary = pool(properties, properties.determineUrl(), "primary", poolSize);
+        HikariDataSource replica = pool(properties, replicaUrl, "replica", poolSize);
+        Flyway.configure()
+                .dataSource(replica)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+        return new PlantReplicator(primary, replica, applyDelayMs, maxLagMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(PlantReplicator replicator) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(replicator.getPrimary(), replicator.getReplica()));
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String name, int poolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+}
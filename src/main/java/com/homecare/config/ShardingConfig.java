@@ -0,0 +1,96 @@
+package com.homecare.config;
+
+import com.homecare.sharding.HouseholdTenantResolver;
+import com.homecare.sharding.ShardRouter;
+import com.homecare.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Household tenancy and sharding. Every profile tags plants with their household; only the "sharded" profile
+ * spreads households over the databases listed in plantcare.shards.urls, the first of which is the home shard.
+ */
+@Configuration
+public class ShardingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer householdTenantCustomizer() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                new HouseholdTenantResolver());
+    }
+
+    // Single database: one shard, the Spring Boot datasource
+    @Bean
+    @Profile("!sharded")
+    public ShardRouter shardRouter(DataSource dataSource) {
+        return new ShardRouter(List.of(dataSource));
+    }
+
+    // One pool per shard database, each migrated and given its own plant id block before anything routes to it
+    @Bean(destroyMethod = "closeShards")
+    @Profile("sharded")
+    public ShardRouter shardedRouter(DataSourceProperties properties,
+                                     @Value("${plantcare.shards.urls}") List<String> urls,
+                                     @Value("${plantcare.shards.pool-size:10}") int poolSize) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(urls.get(shard).trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .load()
+                    .migrate();
+            reserveIdBlock(new JdbcTemplate(dataSource), shard);
+            shards.add(dataSource);
+        }
+        return new ShardRouter(shards);
+    }
+
+    @Bean
+    @Primary
+    @Profile("sharded")
+    public DataSource dataSource(ShardRouter shardRouter) {
+        return new ShardRoutingDataSource(shardRouter);
+    }
+
+    // Plain JDBC work (watering history, season rules) stays on the home shard
+    @Bean
+    @Primary
+    @Profile("sharded")
+    public JdbcTemplate jdbcTemplate(ShardRouter shardRouter) {
+        return new JdbcTemplate(shardRouter.getShard(ShardRouter.HOME_SHARD));
+    }
+
+    // Start the shard's plant ids at its block unless its identity has already passed it
+    private static void reserveIdBlock(JdbcTemplate shard, int index) {
+        long blockStart = index * ShardRouter.SHARD_ID_BLOCK + 1;
+        Long next = shard.queryForObject("SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'PLANTS' AND COLUMN_NAME = 'ID'", Long.class);
+        if (next == null || next < blockStart) {
+            shard.execute("ALTER TABLE plants ALTER COLUMN id RESTART WITH " + blockStart);
+        }
+    }
+}
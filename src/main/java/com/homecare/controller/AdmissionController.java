@@ -0,0 +1,24 @@
+package com.homecare.controller;
+
+import com.homecare.admission.AdmissionInterceptor;
+import com.homecare.dto.AdmissionStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admission")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class AdmissionController {
+    
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+    
+    // Get the current concurrency limit, in-flight count and rejections of every admission-controlled endpoint
+    @GetMapping("/stats")
+    public ResponseEntity<List<AdmissionStats>> getAdmissionStats() {
+        return ResponseEntity.ok(admissionInterceptor.getStats());
+    }
+}
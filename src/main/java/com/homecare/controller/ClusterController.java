@@ -0,0 +1,38 @@
+package com.homecare.controller;
+
+import com.homecare.cluster.ClusterInvalidationBus;
+import com.homecare.cluster.ClusterJobLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@Profile("cluster")
+@RequestMapping("/api/admin/cluster")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class ClusterController {
+    
+    @Autowired
+    private ClusterInvalidationBus invalidationBus;
+    
+    @Autowired
+    private ClusterJobLock jobLock;
+    
+    // Get this instance's node id, its position in the change log, how many changes it published and applied,
+    // and which scheduled jobs it runs
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getClusterStats() {
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>(invalidationBus.getStats());
+            stats.put("jobs", jobLock.getHeld());
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.homecare.controller;
+
+import com.homecare.warmup.StartupWarmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/health")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class HealthController {
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private StartupWarmup warmup;
+
+    // Readiness for load balancers: 503 until startup (including the warm-up) has finished
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getHealth() {
+        boolean ready = availability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC
+                && availability.getLivenessState() == LivenessState.CORRECT;
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", ready ? "UP" : warmup.getState() == StartupWarmup.State.RUNNING ? "WARMING_UP" : "OUT_OF_SERVICE");
+        health.put("readiness", availability.getReadinessState());
+        health.put("liveness", availability.getLivenessState());
+        health.put("warmup", warmup.getStats());
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(health);
+    }
+
+    // Liveness: 503 only once the application has reported itself broken
+    @GetMapping("/liveness")
+    public ResponseEntity<LivenessState> getLiveness() {
+        LivenessState liveness = availability.getLivenessState();
+        return ResponseEntity.status(liveness == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(liveness);
+    }
+}
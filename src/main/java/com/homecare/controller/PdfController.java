@@ -1,5 +1,6 @@
 package com.homecare.controller;
 
+import com.homecare.admission.AdmissionControlled;
 import com.homecare.entity.Plant;
 import com.homecare.repository.PlantRepository;
 import com.homecare.service.PdfGenerationService;
@@ -26,8 +27,9 @@ public class PdfController {
     private PdfGenerationService pdfGenerationService;
     
     @GetMapping("/plant/{id}")
+    @AdmissionControlled("pdf")
     public CompletableFuture<ResponseEntity<ByteArrayResource>> generatePlantPdf(@PathVariable Long id) {
-        Optional<Plant> plantOptional = plantRepository.findById(id);
+        Optional<Plant> plantOptional = plantRepository.findReadOnlyById(id);
         
         if (plantOptional.isEmpty()) {
             return CompletableFuture.completedFuture(ResponseEntity.<ByteArrayResource>notFound().build());
@@ -53,8 +55,9 @@ public class PdfController {
     }
     
     @GetMapping("/plant/{id}/preview")
+    @AdmissionControlled("pdf")
     public CompletableFuture<ResponseEntity<String>> generatePlantPdfPreview(@PathVariable Long id) {
-        Optional<Plant> plantOptional = plantRepository.findById(id);
+        Optional<Plant> plantOptional = plantRepository.findReadOnlyById(id);
         
         if (plantOptional.isEmpty()) {
             return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
@@ -1,31 +1,188 @@
 package com.homecare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homecare.admission.AdmissionControlled;
+import com.homecare.calendar.WateringCalendar;
+import com.homecare.catalog.PlantCatalogSnapshot;
+import com.homecare.coalescing.RequestCoalescer;
+import com.homecare.catalog.PlantFilter;
+import com.homecare.dto.BatchGetRequest;
+import com.homecare.dto.CoalescingStats;
+import com.homecare.dto.PlantSuggestion;
+import com.homecare.dto.PlantSummary;
+import com.homecare.dto.PatchResult;
+import com.homecare.dto.PlantAnalytics;
+import com.homecare.dto.SimilarPlant;
+import com.homecare.dto.VersionConflict;
+import com.homecare.dto.WateringAccepted;
+import com.homecare.dto.WateringAdherence;
+import com.homecare.dto.WateringRollup;
+import com.homecare.dto.WateringStatus;
 import com.homecare.entity.Plant;
+import com.homecare.recommend.SimilarPlantIndex;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.json.JsonFragments;
+import com.homecare.json.PlantJsonCache;
 import com.homecare.repository.PlantRepository;
+import com.homecare.repository.PlantRepositoryCustom;
+import com.homecare.repository.WateringHistoryRepository;
+import com.homecare.service.PlantAnalyticsService;
+import com.homecare.service.ScheduleRecomputationService;
+import com.homecare.service.WateringHistoryService;
+import com.homecare.sharding.HouseholdContext;
+import com.homecare.suggest.FuzzyNameIndex;
+import com.homecare.suggest.PlantSuggestionIndex;
+import com.homecare.writebehind.WateringWriteBehind;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/plants")
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
 public class PlantController {
     
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    
+    // Longest accepted watering source label (matches watering_events.source)
+    private static final int MAX_SOURCE_LENGTH = 20;
+    
+    private static final int MAX_ADHERENCE_WEEKS = 104;
+    
+    private static final int MAX_FUZZY_RESULTS = 50;
+    
+    // Plant properties that are not part of the summary projection
+    private static final Set<String> PLANT_ONLY_FIELDS = Set.of("careNotes", "imageUrl", "createdAt", "updatedAt");
+    
     @Autowired
     private PlantRepository plantRepository;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private PlantCatalogSnapshot catalogSnapshot;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PlantAnalyticsService analyticsService;
+    
+    @Autowired
+    private WateringHistoryService historyService;
+    
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+    
+    @Autowired
+    private RequestCoalescer coalescer;
+    
+    @Autowired
+    private PlantSuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private FuzzyNameIndex fuzzyNameIndex;
+    
+    @Autowired
+    private SimilarPlantIndex similarPlantIndex;
+    
+    @Autowired
+    private PlantJsonCache jsonCache;
+    
+    @Autowired
+    private WateringCalendar wateringCalendar;
+    
+    // Only present when plantcare.watering.write-behind.enabled=true
+    @Autowired(required = false)
+    private WateringWriteBehind writeBehind;
+    
+    @Value("${plantcare.watering.write-behind.ack-timeout-ms:2000}")
+    private long writeBehindAckTimeoutMs;
+    
+    // Most ids one multi-get may ask for
+    @Value("${plantcare.batch-get.max-ids:200}")
+    private int maxBatchIds;
+    
     // Get all plants (view all palnts adat) 
+    // List endpoints accept ?fields=id,name,... to return only those properties
     @GetMapping
-    public ResponseEntity<List<Plant>> getAllPlants() {
+    @AdmissionControlled("plant-list")
+    public ResponseEntity<?> getAllPlants(@RequestParam(required = false) String fields) {
         try {
-            List<Plant> plants = plantRepository.findAll();
-            return ResponseEntity.ok(plants);
+            return listResponse(fields, plantRepository::findAll, plantRepository::findAllSummaries);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get several plants by id with one query: GET /api/plants?ids=3,1,2 keeps the requested order and lists
+    // the ids that do not exist
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getPlantsByIds(@RequestParam List<Long> ids) {
+        return batchGet(ids);
+    }
+    
+    // Same as GET /api/plants?ids=, for id lists too long for a query string
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> batchGetPlants(@RequestBody BatchGetRequest request) {
+        return batchGet(request.ids());
+    }
+    
+    // iCalendar feed of upcoming waterings, optionally for one type; answers 304 while the feed is unchanged
+    @GetMapping(value = "/calendar.ics", produces = "text/calendar")
+    public ResponseEntity<StreamingResponseBody> getWateringCalendar(
+            @RequestParam(required = false) String type,
+            @RequestHeader HttpHeaders headers) {
+        try {
+            String eTag = wateringCalendar.currentETag(type);
+            if (matchesIfNoneMatch(headers, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            List<PlantSummary> plants = type == null
+                    ? plantRepository.findAllSummaries()
+                    : plantRepository.findSummariesByType(type);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"plant-waterings.ics\"")
+                    .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                    .body(output -> wateringCalendar.write(plants, output));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -33,11 +190,11 @@ public class PlantController {
     
     // Get plant by ID single palnt id based
     @GetMapping("/{id}")
-    public ResponseEntity<Plant> getPlantById(@PathVariable Long id) {
+    public ResponseEntity<JsonFragments> getPlantById(@PathVariable Long id) {
         try {
-            Optional<Plant> plant = plantRepository.findById(id);
+            Optional<Plant> plant = plantRepository.findReadOnlyById(id);
             if (plant.isPresent()) {
-                return ResponseEntity.ok(plant.get());
+                return ResponseEntity.ok(jsonCache.single(plant.get()));
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -50,6 +207,9 @@ public class PlantController {
     @PostMapping
     public ResponseEntity<Plant> createPlant(@Valid @RequestBody Plant plant) {
         try {
+            // New plants always start at the initial version
+            plant.setVersion(null);
+            
             // Set default values if not provided
             if (plant.getAddedDate() == null) {
                 plant.setAddedDate(LocalDate.now());
@@ -57,11 +217,14 @@ public class PlantController {
             if (plant.getLastWatered() == null) {
                 plant.setLastWatered(LocalDate.now());
             }
+            // A date sent by the client is kept by the nightly recomputation
+            plant.setNextWateringManual(plant.getNextWatering() != null);
             if (plant.getNextWatering() == null) {
-                plant.setNextWatering(calculateNextWatering(plant.getWateringFrequency()));
+                plant.setNextWatering(calculateNextWatering(plant.getWateringFrequency(), plant.getType()));
             }
             
             Plant savedPlant = plantRepository.save(plant);
+            eventPublisher.publishEvent(PlantChangedEvent.saved(savedPlant.getId(), savedPlant.getVersion()));
             return ResponseEntity.status(HttpStatus.CREATED).body(savedPlant);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -69,13 +232,19 @@ public class PlantController {
     }
     
     // Update plant (Upadet Existing dats)
+    // A version in the body must match the stored one, otherwise 409 with the current version is returned
     @PutMapping("/{id}")
-    public ResponseEntity<Plant> updatePlant(@PathVariable Long id, @Valid @RequestBody Plant plantDetails) {
+    public ResponseEntity<?> updatePlant(@PathVariable Long id, @Valid @RequestBody Plant plantDetails) {
         try {
             Optional<Plant> optionalPlant = plantRepository.findById(id);
             if (optionalPlant.isPresent()) {
                 Plant plant = optionalPlant.get();
                 
+                if (plantDetails.getVersion() != null && !plantDetails.getVersion().equals(plant.getVersion())) {
+                    return versionConflict(id, plant.getVersion());
+                }
+                boolean frequencyChanged = !plant.getWateringFrequency().equals(plantDetails.getWateringFrequency());
+                
                 // Update fields
                 plant.setName(plantDetails.getName());
                 plant.setType(plantDetails.getType());
@@ -85,15 +254,100 @@ public class PlantController {
                 plant.setImageUrl(plantDetails.getImageUrl());
                 
                 // Update next watering if watering frequency changed (update if water dara are changed )
-                if (!plant.getWateringFrequency().equals(plantDetails.getWateringFrequency())) {
-                    plant.setNextWatering(calculateNextWatering(plantDetails.getWateringFrequency()));
+                if (frequencyChanged) {
+                    plant.setNextWatering(calculateNextWatering(plantDetails.getWateringFrequency(),
+                            plantDetails.getType()));
+                    plant.setNextWateringManual(false);
                 }
                 
                 Plant updatedPlant = plantRepository.save(plant);
+                eventPublisher.publishEvent(PlantChangedEvent.saved(id, updatedPlant.getVersion()));
                 return ResponseEntity.ok(updatedPlant);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Another request updated the plant between our read and write
+            return plantRepository.findVersionById(id)
+                    .<ResponseEntity<?>>map(currentVersion -> versionConflict(id, currentVersion))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Partially update plant (JSON merge-patch, RFC 7396)
+    // Only the attributes present in the body are written, so the image is left alone unless it is sent.
+    // ?return=minimal (or "Prefer: return=minimal") answers with just the id and new version.
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchPlant(@PathVariable Long id,
+                                        @RequestBody JsonNode patch,
+                                        @RequestParam(value = "return", required = false) String returnPreference,
+                                        @RequestHeader(value = "Prefer", required = false) String prefer) {
+        try {
+            if (!patch.isObject()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Patch body must be a JSON object"));
+            }
+            
+            Long expectedVersion = null;
+            Map<String, Object> changes = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if ("version".equals(field.getKey())) {
+                    expectedVersion = field.getValue().isNull() ? null : field.getValue().asLong();
+                } else if ("id".equals(field.getKey())) {
+                    // The path decides which plant is patched
+                    continue;
+                } else if (PlantRepositoryCustom.PATCHABLE_FIELDS.containsKey(field.getKey())) {
+                    Class<?> fieldType = PlantRepositoryCustom.PATCHABLE_FIELDS.get(field.getKey());
+                    changes.put(field.getKey(), objectMapper.convertValue(field.getValue(), fieldType));
+                } else {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Field cannot be patched: " + field.getKey()));
+                }
+            }
+            
+            Map<String, String> errors = validatePatch(changes);
+            if (!errors.isEmpty()) {
+                return ResponseEntity.badRequest().body(errors);
+            }
+            
+            if (changes.isEmpty()) {
+                // Nothing to write, but a stale version is still a conflict
+                if (expectedVersion != null) {
+                    Optional<Long> currentVersion = plantRepository.findVersionById(id);
+                    if (currentVersion.isEmpty()) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    if (!currentVersion.get().equals(expectedVersion)) {
+                        return versionConflict(id, currentVersion.get());
+                    }
+                }
+            } else {
+                Optional<Long> writtenVersion = plantRepository.patchPlantReturningVersion(id, changes, expectedVersion);
+                if (writtenVersion.isEmpty()) {
+                    // Either the plant is gone or the expected version is stale
+                    return plantRepository.findVersionById(id)
+                            .<ResponseEntity<?>>map(currentVersion -> versionConflict(id, currentVersion))
+                            .orElseGet(() -> ResponseEntity.notFound().build());
+                }
+                eventPublisher.publishEvent(PlantChangedEvent.saved(id, writtenVersion.get()));
+            }
+            
+            if ("minimal".equals(returnPreference) || (prefer != null && prefer.contains("return=minimal"))) {
+                return plantRepository.findVersionById(id)
+                        .<ResponseEntity<?>>map(version -> ResponseEntity.ok()
+                                .eTag(String.valueOf(version))
+                                .body(new PatchResult(id, version)))
+                        .orElseGet(() -> ResponseEntity.notFound().build());
+            }
+            return plantRepository.findById(id)
+                    .<ResponseEntity<?>>map(plant -> ResponseEntity.ok()
+                            .eTag(String.valueOf(plant.getVersion()))
+                            .body(plant))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid patch value: " + e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -103,8 +357,9 @@ public class PlantController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePlant(@PathVariable Long id) {
         try {
-            if (plantRepository.existsById(id)) {
-                plantRepository.deleteById(id);
+            Optional<Long> deletedVersion = plantRepository.deleteByIdReturningVersion(id);
+            if (deletedVersion.isPresent()) {
+                eventPublisher.publishEvent(PlantChangedEvent.deleted(id, deletedVersion.get()));
                 return ResponseEntity.noContent().build();
             } else {
                 return ResponseEntity.notFound().build();
@@ -115,20 +370,96 @@ public class PlantController {
     }
     
     // Water plant (update last watered date and next watering date)
+    // Runs as a single UPDATE statement, so concurrent waterings never lose each other's writes.
+    // The watering is also queued for the history log; source says where it came from (manual, sensor, ...).
+    // In write-behind mode the watering is acknowledged with 202 once it is in the write-ahead log. The log only
+    // holds default-household waterings, so the other households are watered synchronously in that mode too.
     @PostMapping("/{id}/water")
-    public ResponseEntity<Plant> waterPlant(@PathVariable Long id) {
+    public ResponseEntity<?> waterPlant(@PathVariable Long id,
+                                        @RequestParam(defaultValue = "manual") String source) {
         try {
-            Optional<Plant> optionalPlant = plantRepository.findById(id);
-            if (optionalPlant.isPresent()) {
-                Plant plant = optionalPlant.get();
-                plant.setLastWatered(LocalDate.now());
-                plant.setNextWatering(calculateNextWatering(plant.getWateringFrequency()));
-                
-                Plant updatedPlant = plantRepository.save(plant);
-                return ResponseEntity.ok(updatedPlant);
-            } else {
+            if (source.isBlank() || source.length() > MAX_SOURCE_LENGTH) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (writeBehind != null && HouseholdContext.isDefault()) {
+                return waterPlantWriteBehind(id, source);
+            }
+            Optional<WateringStatus> status = plantRepository.waterPlantReturningStatus(id, LocalDate.now());
+            if (status.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
+            historyService.record(id, LocalDateTime.now(), source);
+            eventPublisher.publishEvent(PlantChangedEvent.saved(id, status.get().version()));
+            return ResponseEntity.ok(status.get());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get daily or weekly watering counts of a plant (defaults to the last 90 days)
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<WateringRollup>> getWateringHistory(@PathVariable Long id,
+                                                                   @RequestParam(defaultValue = "day") String granularity,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            String period = granularity.toUpperCase();
+            if (!WateringHistoryRepository.DAY.equals(period) && !WateringHistoryRepository.WEEK.equals(period)) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (!plantRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(89);
+            return ResponseEntity.ok(historyService.getPlantHistory(id, period, start, end));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get how closely a plant's waterings followed its watering frequency over the last weeks
+    @GetMapping("/{id}/adherence")
+    public ResponseEntity<WateringAdherence> getPlantAdherence(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "12") int weeks) {
+        try {
+            if (weeks < 1 || weeks > MAX_ADHERENCE_WEEKS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return plantRepository.findSummaryById(id)
+                    .map(plant -> ResponseEntity.ok(historyService.getPlantAdherence(id, plant.wateringFrequency(),
+                            plant.addedDate(), weeks, LocalDate.now())))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get watering adherence of all plants of a type over the last weeks
+    @GetMapping("/adherence")
+    public ResponseEntity<WateringAdherence> getTypeAdherence(@RequestParam String type,
+                                                              @RequestParam(defaultValue = "12") int weeks) {
+        try {
+            if (weeks < 1 || weeks > MAX_ADHERENCE_WEEKS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(historyService.getTypeAdherence(type, weeks, LocalDate.now()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get the k plants with the most similar care notes and attributes, from the precomputed vector index
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarPlant>> getSimilarPlants(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "5") int k) {
+        try {
+            if (k < 1 || k > SimilarPlantIndex.MAX_RESULTS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return similarPlantIndex.findSimilar(id, k)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -136,10 +467,12 @@ public class PlantController {
     
     // Get plants by type
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Plant>> getPlantsByType(@PathVariable String type) {
+    public ResponseEntity<?> getPlantsByType(@PathVariable String type,
+                                             @RequestParam(required = false) String fields) {
         try {
-            List<Plant> plants = plantRepository.findByType(type);
-            return ResponseEntity.ok(plants);
+            return listResponse(fields,
+                    () -> coalescer.execute("type", type + "|full", () -> plantRepository.findByType(type)),
+                    () -> coalescer.execute("type", type + "|summary", () -> plantRepository.findSummariesByType(type)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -147,21 +480,93 @@ public class PlantController {
     
     // Get plants that need watering
     @GetMapping("/needs-watering")
-    public ResponseEntity<List<Plant>> getPlantsNeedingWatering() {
+    public ResponseEntity<?> getPlantsNeedingWatering(@RequestParam(required = false) String fields) {
+        try {
+            LocalDate today = LocalDate.now();
+            return listResponse(fields,
+                    () -> coalescer.execute("needs-watering", today + "|full",
+                            () -> plantRepository.findPlantsNeedingWatering(today)),
+                    () -> coalescer.execute("needs-watering", today + "|summary",
+                            () -> plantRepository.findSummariesNeedingWatering(today)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Filter plants by any combination of type, sunlight needs, watering frequency and added-date range.
+    // Matching ids come from the in-memory catalog snapshot; only the matching rows are read from the database.
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterPlants(@RequestParam(required = false) String type,
+                                          @RequestParam(required = false) String sunlightNeeds,
+                                          @RequestParam(required = false) String wateringFrequency,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedFrom,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate addedTo,
+                                          @RequestParam(required = false) String fields) {
         try {
-            List<Plant> plants = plantRepository.findPlantsNeedingWatering(LocalDate.now());
-            return ResponseEntity.ok(plants);
+            if (!catalogSnapshot.isAvailable()) {
+                Supplier<List<Plant>> plants = () -> plantRepository.findFiltered(type, sunlightNeeds, wateringFrequency, addedFrom, addedTo);
+                return listResponse(fields, plants, () -> plants.get().stream().map(PlantSummary::from).toList());
+            }
+            
+            List<Long> ids = Arrays.stream(catalogSnapshot.findIds(
+                    new PlantFilter(type, sunlightNeeds, wateringFrequency, addedFrom, addedTo))).boxed().toList();
+            if (ids.isEmpty()) {
+                return ResponseEntity.ok(List.of());
+            }
+            return listResponse(fields,
+                    () -> plantRepository.findAllById(ids),
+                    () -> plantRepository.findSummariesByIdIn(ids));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
-    // Search plants by name
+    // Search plants by name. mode=fuzzy tolerates typos: up to maxDistance edits per word, best k matches first,
+    // answered from the fuzzy name index; X-Search-Complete: false marks results cut short by the latency budget.
     @GetMapping("/search")
-    public ResponseEntity<List<Plant>> searchPlants(@RequestParam String name) {
+    public ResponseEntity<?> searchPlants(@RequestParam String name,
+                                          @RequestParam(required = false) String fields,
+                                          @RequestParam(defaultValue = "contains") String mode,
+                                          @RequestParam(defaultValue = "10") int k,
+                                          @RequestParam(defaultValue = "2") int maxDistance) {
+        try {
+            if ("fuzzy".equals(mode)) {
+                if (k < 1 || k > MAX_FUZZY_RESULTS || maxDistance < 0 || maxDistance > FuzzyNameIndex.MAX_DISTANCE) {
+                    return ResponseEntity.badRequest().build();
+                }
+                FuzzyNameIndex.Result result = fuzzyNameIndex.search(name, maxDistance, k);
+                ResponseEntity<?> response = result.plantIds().isEmpty()
+                        ? ResponseEntity.ok(List.of())
+                        : listResponse(fields,
+                                () -> inOrder(result.plantIds(), plantRepository.findAllById(result.plantIds()), Plant::getId),
+                                () -> inOrder(result.plantIds(), plantRepository.findSummariesByIdIn(result.plantIds()), PlantSummary::id));
+                return ResponseEntity.status(response.getStatusCode())
+                        .header("X-Search-Complete", String.valueOf(result.complete()))
+                        .body(response.getBody());
+            }
+            if (!"contains".equals(mode)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unknown search mode: " + mode));
+            }
+            return listResponse(fields,
+                    () -> plantRepository.findByNameContainingIgnoreCase(name),
+                    () -> plantRepository.findSummariesByNameContaining(name));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Autocomplete plant names and types from the in-memory suggestion index, most popular first
+    @GetMapping("/suggest")
+    public ResponseEntity<List<PlantSuggestion>> suggestPlants(@RequestParam String prefix,
+                                                               @RequestParam(defaultValue = "5") int k) {
         try {
-            List<Plant> plants = plantRepository.findByNameContainingIgnoreCase(name);
-            return ResponseEntity.ok(plants);
+            if (k < 1 || k > PlantSuggestionIndex.MAX_SUGGESTIONS) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (prefix.isBlank()) {
+                return ResponseEntity.ok(List.of());
+            }
+            return ResponseEntity.ok(suggestionIndex.suggest(prefix, k));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -171,42 +576,170 @@ public class PlantController {
     @GetMapping("/stats")
     public ResponseEntity<PlantStats> getPlantStats() {
         try {
-            long totalPlants = plantRepository.count();
-            long plantsNeedingWatering = plantRepository.countPlantsNeedingWatering(LocalDate.now());
-            
-            PlantStats stats = new PlantStats();
-            stats.setTotalPlants(totalPlants);
-            stats.setPlantsNeedingWatering(plantsNeedingWatering);
-            
-            return ResponseEntity.ok(stats);
+            LocalDate today = LocalDate.now();
+            return ResponseEntity.ok(coalescer.execute("stats", today.toString(), () -> {
+                PlantStats stats = new PlantStats();
+                if (catalogSnapshot.isAvailable()) {
+                    // Answered from the catalog snapshot without touching the database
+                    stats.setTotalPlants(catalogSnapshot.size());
+                    stats.setPlantsNeedingWatering(catalogSnapshot.countNeedingWatering(today));
+                    stats.setPlantsByType(catalogSnapshot.countsByType());
+                } else {
+                    stats.setTotalPlants(plantRepository.count());
+                    stats.setPlantsNeedingWatering(plantRepository.countPlantsNeedingWatering(today));
+                    Map<String, Long> byType = new LinkedHashMap<>();
+                    for (Object[] row : plantRepository.countGroupedByType()) {
+                        byType.put((String) row[0], ((Number) row[1]).longValue());
+                    }
+                    stats.setPlantsByType(byType);
+                }
+                return stats;
+            }));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
-    // Helper method to calculate next watering date
-    private LocalDate calculateNextWatering(String wateringFrequency) {
-        LocalDate today = LocalDate.now();
-        switch (wateringFrequency.toLowerCase()) {
-            case "daily":
-                return today.plusDays(1);
-            case "every-2-days":
-                return today.plusDays(2);
-            case "weekly":
-                return today.plusWeeks(1);
-            case "every-2-weeks":
-                return today.plusWeeks(2);
-            case "monthly":
-                return today.plusMonths(1);
-            default:
-                return today.plusWeeks(1); // Default to weekly
+    // Get request coalescing counters for the hot aggregate reads (/stats, /needs-watering, /type/{type})
+    @GetMapping("/stats/coalescing")
+    public ResponseEntity<List<CoalescingStats>> getCoalescingStats() {
+        return ResponseEntity.ok(coalescer.getStats());
+    }
+    
+    // Get hit and size counters of the per-plant JSON fragment cache
+    @GetMapping("/stats/json-cache")
+    public ResponseEntity<Map<String, Object>> getJsonCacheStats() {
+        return ResponseEntity.ok(jsonCache.getStats());
+    }
+    
+    // Get dashboard facets: type x sunlight x frequency counts, overdue-days histogram and plants added per month
+    @GetMapping("/analytics")
+    @AdmissionControlled("analytics")
+    public ResponseEntity<PlantAnalytics> getPlantAnalytics() {
+        try {
+            return ResponseEntity.ok(analyticsService.getAnalytics(LocalDate.now()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Hand a watering to the write-behind buffer and wait until it is durable in the write-ahead log
+    private ResponseEntity<?> waterPlantWriteBehind(Long id, String source) throws Exception {
+        if (!plantRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime wateredAt = LocalDateTime.now();
+        try {
+            writeBehind.submit(id, wateredAt, source, writeBehindAckTimeoutMs)
+                    .get(writeBehindAckTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Buffer full or the log is not keeping up; the client should retry shortly
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
         }
+        return ResponseEntity.accepted().body(new WateringAccepted(id, wateredAt, source));
+    }
+    
+    // Helper method to calculate next watering date (season rules included)
+    private LocalDate calculateNextWatering(String wateringFrequency, String type) {
+        return recomputationService.nextWatering(wateringFrequency, type, LocalDate.now());
+    }
+    
+    // Plants for a batch of ids in request order, with the ids that were not found listed as missing.
+    // The plants are spliced in from their cached JSON like the list endpoints.
+    private ResponseEntity<?> batchGet(List<Long> ids) {
+        try {
+            if (ids == null || ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<Long> distinct = ids.stream().distinct().toList();
+            List<Plant> plants = inOrder(distinct, plantRepository.findAllById(distinct), Plant::getId);
+            Set<Long> found = plants.stream().map(Plant::getId).collect(Collectors.toSet());
+            List<Long> missing = distinct.stream().filter(id -> !found.contains(id)).toList();
+            return ResponseEntity.ok(jsonCache.batch(plants, missing));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Rows fetched by id come back in table order; put them back in the order of the ids
+    private static <T> List<T> inOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+    
+    // Helper method for list endpoints: full entities by default, otherwise only the requested fields.
+    // Fieldsets covered by the summary projection never load the care notes or image columns.
+    private ResponseEntity<?> listResponse(String fields, Supplier<List<Plant>> entities,
+                                           Supplier<List<PlantSummary>> summaries) {
+        if (fields == null || fields.isBlank()) {
+            // Full entities are spliced together from their cached JSON
+            return ResponseEntity.ok(jsonCache.list(entities.get()));
+        }
+        
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        Set<String> unknown = requested.stream()
+                .filter(field -> !PlantSummary.FIELDS.contains(field) && !PLANT_ONLY_FIELDS.contains(field))
+                .collect(Collectors.toSet());
+        if (!unknown.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown fields: " + unknown));
+        }
+        
+        List<?> rows = PlantSummary.FIELDS.containsAll(requested) ? summaries.get() : entities.get();
+        List<ObjectNode> sparse = rows.stream()
+                .map(row -> {
+                    ObjectNode node = objectMapper.valueToTree(row);
+                    node.retain(requested);
+                    return node;
+                })
+                .toList();
+        return ResponseEntity.ok(sparse);
+    }
+    
+    // Helper method to check patched values against the Plant bean validation constraints
+    private Map<String, String> validatePatch(Map<String, Object> changes) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        changes.forEach((field, value) -> {
+            for (ConstraintViolation<Plant> violation : validator.validateValue(Plant.class, field, value)) {
+                errors.put(field, violation.getMessage());
+            }
+        });
+        return errors;
+    }
+    
+    // Helper method for If-None-Match: any tag of the (possibly repeated, comma separated) header matches by the
+    // weak comparison, so a W/ prefix on either side is ignored, and "*" matches whenever there is a feed at all.
+    // An unparseable header matches nothing and gets the full response.
+    private static boolean matchesIfNoneMatch(HttpHeaders headers, String eTag) {
+        List<String> requested;
+        try {
+            requested = headers.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        String opaqueTag = withoutWeakPrefix(eTag);
+        return requested.stream().anyMatch(tag -> tag.equals("*") || withoutWeakPrefix(tag).equals(opaqueTag));
+    }
+    
+    private static String withoutWeakPrefix(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+    
+    // Helper method to build the 409 response for a stale version
+    private ResponseEntity<VersionConflict> versionConflict(Long id, Long currentVersion) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new VersionConflict(id, currentVersion, "Plant was modified by another request"));
     }
     
     // Inner class for plant statistics
     public static class PlantStats {
         private long totalPlants;
         private long plantsNeedingWatering;
+        private Map<String, Long> plantsByType;
         
         public long getTotalPlants() {
             return totalPlants;
@@ -223,6 +756,14 @@ public class PlantController {
         public void setPlantsNeedingWatering(long plantsNeedingWatering) {
             this.plantsNeedingWatering = plantsNeedingWatering;
         }
+        
+        public Map<String, Long> getPlantsByType() {
+            return plantsByType;
+        }
+        
+        public void setPlantsByType(Map<String, Long> plantsByType) {
+            this.plantsByType = plantsByType;
+        }
     }
 
 
@@ -0,0 +1,84 @@
+package com.homecare.controller;
+
+import com.homecare.dto.WateringReminder;
+import com.homecare.reminder.ReminderScheduler;
+import com.homecare.reminder.SseReminderSink;
+import com.homecare.sharding.HouseholdContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reminders")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class ReminderController {
+    
+    // Batches kept by the stand-in webhook receiver
+    private static final int WEBHOOK_HISTORY = 100;
+    
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+    
+    @Autowired
+    private SseReminderSink sseSink;
+    
+    private final Deque<WebhookDelivery> webhookDeliveries = new ArrayDeque<>();
+    
+    // Subscribe to watering reminders as server-sent events.
+    // Reminders are only scheduled for the default household, so other households get 501 instead of a silent stream.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReminders(@RequestParam(defaultValue = "1800000") long timeoutMs) {
+        if (!HouseholdContext.isDefault()) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        return ResponseEntity.ok(sseSink.subscribe(timeoutMs));
+    }
+    
+    // Get reminder scheduler counters
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getReminderStats() {
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("scheduledPlants", reminderScheduler.getScheduledCount());
+            stats.put("remindersFired", reminderScheduler.getFiredCount());
+            stats.put("streamSubscribers", sseSink.getSubscriberCount());
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Stand-in webhook receiver: set plantcare.reminders.webhook.url to this endpoint to try the webhook sink locally
+    @PostMapping("/webhook")
+    public ResponseEntity<Void> receiveWebhook(@RequestBody List<WateringReminder> reminders) {
+        synchronized (webhookDeliveries) {
+            webhookDeliveries.addFirst(new WebhookDelivery(LocalDateTime.now(), reminders));
+            while (webhookDeliveries.size() > WEBHOOK_HISTORY) {
+                webhookDeliveries.removeLast();
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
+    // Batches received by the stand-in webhook receiver, newest first
+    @GetMapping("/webhook")
+    public ResponseEntity<List<WebhookDelivery>> getWebhookDeliveries() {
+        synchronized (webhookDeliveries) {
+            return ResponseEntity.ok(new ArrayList<>(webhookDeliveries));
+        }
+    }
+    
+    public record WebhookDelivery(LocalDateTime receivedAt, List<WateringReminder> reminders) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.homecare.controller;
+
+import com.homecare.replica.PlantReplicator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@Profile("replica")
+@RequestMapping("/api/admin/replica")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class ReplicaController {
+    
+    @Autowired
+    private PlantReplicator replicator;
+    
+    // Get the replication positions, the replica's lag and how reads were routed
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getReplicaStats() {
+        try {
+            return ResponseEntity.ok(replicator.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.homecare.controller;
+
+import com.homecare.dto.ScheduleRecomputeReport;
+import com.homecare.dto.SeasonRule;
+import com.homecare.service.ScheduleRecomputationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/schedule")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class ScheduleController {
+    
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+    
+    // Run the schedule recomputation now (defaults to today's season rules); 409 while a run is in progress
+    @PostMapping("/recompute")
+    public ResponseEntity<ScheduleRecomputeReport> recompute(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            ScheduleRecomputeReport report = recomputationService.recompute(date != null ? date : LocalDate.now());
+            return report != null ? ResponseEntity.ok(report) : ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get the report of the most recent recomputation
+    @GetMapping("/last-run")
+    public ResponseEntity<ScheduleRecomputeReport> getLastRun() {
+        ScheduleRecomputeReport report = recomputationService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+    
+    // Get all seasonal adjustment rules
+    @GetMapping("/season-rules")
+    public ResponseEntity<List<SeasonRule>> getSeasonRules() {
+        try {
+            return ResponseEntity.ok(recomputationService.getSeasonRules());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Add a seasonal adjustment rule; it takes effect on the next recomputation
+    @PostMapping("/season-rules")
+    public ResponseEntity<SeasonRule> addSeasonRule(@RequestBody SeasonRule rule) {
+        try {
+            if (rule.name() == null || rule.name().isBlank() || rule.name().length() > 100
+                    || rule.startMonth() < 1 || rule.startMonth() > 12 || rule.endMonth() < 1 || rule.endMonth() > 12
+                    || rule.intervalMultiplier() == null || rule.intervalMultiplier().compareTo(BigDecimal.ZERO) <= 0
+                    || rule.intervalMultiplier().compareTo(new BigDecimal("99.99")) > 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(recomputationService.addSeasonRule(rule));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Delete a seasonal adjustment rule
+    @DeleteMapping("/season-rules/{id}")
+    public ResponseEntity<Void> deleteSeasonRule(@PathVariable Long id) {
+        try {
+            return recomputationService.deleteSeasonRule(id)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
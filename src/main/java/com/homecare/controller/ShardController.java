@@ -0,0 +1,66 @@
+package com.homecare.controller;
+
+import com.homecare.dto.ShardedStats;
+import com.homecare.sharding.HouseholdContext;
+import com.homecare.sharding.HouseholdRebalancer;
+import com.homecare.sharding.ShardRouter;
+import com.homecare.sharding.ShardStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5500", "http://127.0.0.1:5500", "file://"})
+public class ShardController {
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ShardStatsService shardStatsService;
+    
+    @Autowired
+    private HouseholdRebalancer rebalancer;
+    
+    // Get plant counts of every shard and their totals across all households
+    @GetMapping("/stats")
+    public ResponseEntity<ShardedStats> getShardStats() {
+        try {
+            return ResponseEntity.ok(shardStatsService.collect(LocalDate.now()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Get the shard a household's plants live on (placing the household if it is new)
+    @GetMapping("/households/{household}")
+    public ResponseEntity<Map<String, Object>> getHouseholdShard(@PathVariable String household) {
+        try {
+            if (!HouseholdContext.isValid(household)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(Map.of("household", household, "shard", shardRouter.shardFor(household)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Move a household to another shard while it stays online; 409 while it is already being moved
+    @PostMapping("/households/{household}/move")
+    public ResponseEntity<?> moveHousehold(@PathVariable String household, @RequestParam int toShard) {
+        try {
+            return ResponseEntity.ok(rebalancer.move(household, toShard));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
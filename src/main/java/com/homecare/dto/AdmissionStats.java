@@ -0,0 +1,8 @@
+package com.homecare.dto;
+
+/**
+ * Current state of one endpoint group's adaptive concurrency limit.
+ */
+public record AdmissionStats(String endpoint, int limit, int inFlight, double baselineLatencyMs,
+                             long accepted, long rejected) {
+}
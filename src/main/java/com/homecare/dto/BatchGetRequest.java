@@ -0,0 +1,9 @@
+package com.homecare.dto;
+
+import java.util.List;
+
+/**
+ * Body of POST /api/plants/batch-get.
+ */
+public record BatchGetRequest(List<Long> ids) {
+}
@@ -0,0 +1,9 @@
+package com.homecare.dto;
+
+/**
+ * Request coalescing counters for one endpoint: how many reads arrived, how many actually ran a query, and how
+ * many were answered by joining a query already in flight or by a result still inside the staleness window.
+ */
+public record CoalescingStats(String endpoint, long requests, long executions, long joinedInFlight,
+                              long servedFromWindow, double coalescingRatio) {
+}
@@ -0,0 +1,9 @@
+package com.homecare.dto;
+
+/**
+ * Outcome of moving a household to another shard. plantsCopied counts the bulk copy; plantsCaughtUp the plants
+ * written during it and copied again while the household's writes were held.
+ */
+public record HouseholdMove(String household, int fromShard, int toShard, int plantsCopied, int plantsCaughtUp,
+                            long writesHeldMs, long durationMs) {
+}
@@ -0,0 +1,7 @@
+package com.homecare.dto;
+
+/**
+ * Minimal response of a patch: just enough for the client to send its next conditional update.
+ */
+public record PatchResult(Long id, Long version) {
+}
@@ -0,0 +1,21 @@
+package com.homecare.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard facets over the whole catalog.
+ *
+ * overdueDays buckets plants whose next watering is today or earlier by how many days they are late;
+ * addedPerMonth is keyed by year-month ("2024-05").
+ */
+public record PlantAnalytics(long totalPlants,
+                             List<CrossTabCell> crossTab,
+                             Map<String, Long> overdueDays,
+                             Map<String, Long> addedPerMonth,
+                             LocalDate computedFor) {
+
+    public record CrossTabCell(String type, String sunlightNeeds, String wateringFrequency, long count) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.homecare.dto;
+
+import com.homecare.entity.Plant;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: the plants found, in the order their ids were requested, and the requested ids that
+ * do not exist.
+ */
+public record PlantBatch(List<Plant> plants, List<Long> missingIds) {
+}
@@ -0,0 +1,15 @@
+package com.homecare.dto;
+
+import com.homecare.entity.Plant;
+
+/**
+ * What the similar plants index embeds: the care attributes and notes of a plant, without its image.
+ */
+public record PlantCareProfile(Long id, String name, String type, String sunlightNeeds, String wateringFrequency,
+                               String careNotes) {
+
+    public static PlantCareProfile from(Plant plant) {
+        return new PlantCareProfile(plant.getId(), plant.getName(), plant.getType(), plant.getSunlightNeeds(),
+                plant.getWateringFrequency(), plant.getCareNotes());
+    }
+}
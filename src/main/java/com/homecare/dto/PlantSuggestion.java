@@ -0,0 +1,10 @@
+package com.homecare.dto;
+
+/**
+ * One autocomplete suggestion: a plant name or type, and how many plants carry it.
+ */
+public record PlantSuggestion(String text, String kind, long popularity) {
+
+    public static final String NAME = "name";
+    public static final String TYPE = "type";
+}
@@ -0,0 +1,23 @@
+package com.homecare.dto;
+
+import com.homecare.entity.Plant;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Card-view projection of a plant: everything a list renders except the care notes and image.
+ */
+public record PlantSummary(Long id, String name, String type, String wateringFrequency, String sunlightNeeds,
+                           LocalDate lastWatered, LocalDate nextWatering, LocalDate addedDate, Long version) {
+
+    // JSON property names carried by the summary, used to decide whether a sparse fieldset can skip the entity
+    public static final Set<String> FIELDS = Set.of("id", "name", "type", "wateringFrequency", "sunlightNeeds",
+            "lastWatered", "nextWatering", "addedDate", "version");
+
+    public static PlantSummary from(Plant plant) {
+        return new PlantSummary(plant.getId(), plant.getName(), plant.getType(), plant.getWateringFrequency(),
+                plant.getSunlightNeeds(), plant.getLastWatered(), plant.getNextWatering(), plant.getAddedDate(),
+                plant.getVersion());
+    }
+}
@@ -0,0 +1,16 @@
+package com.homecare.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of one schedule recomputation run.
+ */
+public record ScheduleRecomputeReport(LocalDate runDate,
+                                      List<String> seasonRulesApplied,
+                                      int chunks,
+                                      long rowsUpdated,
+                                      long durationMs,
+                                      LocalDateTime finishedAt) {
+}
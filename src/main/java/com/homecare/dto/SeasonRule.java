@@ -0,0 +1,17 @@
+package com.homecare.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Seasonal watering adjustment: between startMonth and endMonth (inclusive, wrapping over the new year)
+ * the watering interval of plants of plantType (all plants when null) is multiplied by intervalMultiplier.
+ */
+public record SeasonRule(Long id, String name, int startMonth, int endMonth, String plantType,
+                         BigDecimal intervalMultiplier) {
+
+    public boolean appliesIn(int month) {
+        return startMonth <= endMonth
+                ? month >= startMonth && month <= endMonth
+                : month >= startMonth || month <= endMonth;
+    }
+}
@@ -0,0 +1,10 @@
+package com.homecare.dto;
+
+import java.util.Map;
+
+/**
+ * Plant counts of one shard; available is false (and the counts zero) when the shard did not answer in time.
+ */
+public record ShardStats(int shard, boolean available, long plants, long plantsNeedingWatering, long households,
+                         Map<String, Long> plantsByType) {
+}
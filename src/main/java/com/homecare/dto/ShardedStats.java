@@ -0,0 +1,11 @@
+package com.homecare.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plant counts across every shard; complete is false when a shard is missing from the totals.
+ */
+public record ShardedStats(boolean complete, long totalPlants, long plantsNeedingWatering, long households,
+                           Map<String, Long> plantsByType, List<ShardStats> shards) {
+}
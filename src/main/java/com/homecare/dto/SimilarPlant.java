@@ -0,0 +1,7 @@
+package com.homecare.dto;
+
+/**
+ * A care-alike plant and its cosine similarity (0..1) to the plant it was recommended for.
+ */
+public record SimilarPlant(Long id, String name, String type, double similarity) {
+}
@@ -0,0 +1,7 @@
+package com.homecare.dto;
+
+/**
+ * Body of a 409 response when an update was based on a stale plant version.
+ */
+public record VersionConflict(Long id, Long currentVersion, String message) {
+}
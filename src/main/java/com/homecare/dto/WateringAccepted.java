@@ -0,0 +1,10 @@
+package com.homecare.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acknowledgement of a watering taken by the write-behind buffer: durable in the write-ahead log,
+ * applied to the plant within a few milliseconds.
+ */
+public record WateringAccepted(Long id, LocalDateTime wateredAt, String source) {
+}
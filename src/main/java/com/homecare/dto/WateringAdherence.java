@@ -0,0 +1,16 @@
+package com.homecare.dto;
+
+import java.util.List;
+
+/**
+ * How consistently a plant (scope "plant") or all plants of a type (scope "type") were watered
+ * over the last few weeks, compared to what their watering frequencies ask for.
+ */
+public record WateringAdherence(String scope,
+                                String key,
+                                int weeks,
+                                double expectedWaterings,
+                                long actualWaterings,
+                                double adherence,
+                                List<WateringRollup> weekly) {
+}
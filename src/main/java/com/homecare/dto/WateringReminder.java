@@ -0,0 +1,9 @@
+package com.homecare.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Notification that a plant has reached its next watering date.
+ */
+public record WateringReminder(Long plantId, String name, String type, LocalDate nextWatering) {
+}
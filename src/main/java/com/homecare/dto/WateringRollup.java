@@ -0,0 +1,9 @@
+package com.homecare.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Number of waterings in one day or week (periodStart is the Monday for weeks).
+ */
+public record WateringRollup(LocalDate periodStart, int waterings) {
+}
@@ -0,0 +1,11 @@
+package com.homecare.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Watering fields returned after a plant is watered, without the heavy image and notes columns.
+ */
+public record WateringStatus(Long id, LocalDate lastWatered, LocalDate nextWatering,
+                             LocalDateTime updatedAt, Long version) {
+}
@@ -1,14 +1,18 @@
 package com.homecare.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.TenantId;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "plants")
+@DynamicUpdate // UPDATE statements only carry the columns that actually changed
 public class Plant {
     
     @Id
@@ -48,6 +52,11 @@ public class Plant {
     @Column(name = "next_watering")
     private LocalDate nextWatering;
     
+    // True while nextWatering is a date the client set rather than one derived from the schedule
+    @JsonIgnore
+    @Column(name = "next_watering_manual", nullable = false)
+    private boolean nextWateringManual;
+    
     @Column(name = "added_date")
     private LocalDate addedDate;
     
@@ -57,6 +66,17 @@ public class Plant {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic locking version, bumped on every update (including bulk watering updates)
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long version;
+    
+    // Owning household, taken from the request on insert; Hibernate adds it to every query on plants
+    @TenantId
+    @JsonIgnore
+    @Column(name = "household_id", nullable = false, length = 64, updatable = false)
+    private String householdId;
+    
     // Default constructor
     public Plant() {
     }
@@ -145,6 +165,14 @@ public class Plant {
         this.nextWatering = nextWatering;
     }
     
+    public boolean isNextWateringManual() {
+        return nextWateringManual;
+    }
+    
+    public void setNextWateringManual(boolean nextWateringManual) {
+        this.nextWateringManual = nextWateringManual;
+    }
+    
     public LocalDate getAddedDate() {
         return addedDate;
     }
@@ -169,6 +197,22 @@ public class Plant {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public String getHouseholdId() {
+        return householdId;
+    }
+    
+    public void setHouseholdId(String householdId) {
+        this.householdId = householdId;
+    }
+    
     // JPA lifecycle callbacks
     @PrePersist
     protected void onCreate() {
@@ -199,6 +243,7 @@ public class Plant {
                 ", addedDate=" + addedDate +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
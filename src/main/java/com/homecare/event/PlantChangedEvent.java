@@ -0,0 +1,48 @@
+package com.homecare.event;
+
+import com.homecare.sharding.HouseholdContext;
+
+import java.util.List;
+
+/**
+ * Published after a plant write commits, so in-memory views of the catalog can refresh themselves.
+ * A null plantId means many plants changed at once and views should reload everything. The household is the
+ * one the writing thread worked for; views that only cover the default household ignore the others. The version
+ * is the one the write left the plant at (for a delete, the one it removed), read by the writer itself before a
+ * later write could move it; it is null for bulk changes and for a plant that was gone by then. A bulk change
+ * confined to known id ranges lists them, so views able to refresh part of themselves can skip the rest; it is
+ * null when any plant may have changed.
+ */
+public record PlantChangedEvent(Long plantId, ChangeType changeType, String household, Long version,
+                                List<IdRange> idRanges) {
+
+    public enum ChangeType {
+        SAVED,
+        DELETED,
+        BULK
+    }
+
+    // Inclusive range of plant ids
+    public record IdRange(long fromId, long toId) {
+    }
+
+    public static PlantChangedEvent saved(Long plantId, Long version) {
+        return new PlantChangedEvent(plantId, ChangeType.SAVED, HouseholdContext.current(), version, null);
+    }
+
+    public static PlantChangedEvent deleted(Long plantId, Long version) {
+        return new PlantChangedEvent(plantId, ChangeType.DELETED, HouseholdContext.current(), version, null);
+    }
+
+    public static PlantChangedEvent bulk() {
+        return new PlantChangedEvent(null, ChangeType.BULK, HouseholdContext.current(), null, null);
+    }
+
+    public static PlantChangedEvent bulk(List<IdRange> idRanges) {
+        return new PlantChangedEvent(null, ChangeType.BULK, HouseholdContext.current(), null, List.copyOf(idRanges));
+    }
+
+    public boolean isDefaultHousehold() {
+        return HouseholdContext.DEFAULT_HOUSEHOLD.equals(household);
+    }
+}
@@ -0,0 +1,62 @@
+package com.homecare.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes LocalDate as its epoch day, a small integer in binary formats instead of a ten-character string.
+ * Reading accepts an epoch day or an ISO date string, so clients can send either.
+ */
+public class EpochDayModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public EpochDayModule() {
+        super("EpochDayModule");
+        addSerializer(LocalDate.class, new EpochDaySerializer());
+        addDeserializer(LocalDate.class, new EpochDayDeserializer());
+    }
+
+    static final class EpochDaySerializer extends StdScalarSerializer<LocalDate> {
+
+        private static final long serialVersionUID = 1L;
+
+        EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.toEpochDay());
+        }
+    }
+
+    static final class EpochDayDeserializer extends StdScalarDeserializer<LocalDate> {
+
+        private static final long serialVersionUID = 1L;
+
+        EpochDayDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return LocalDate.parse(parser.getText().trim());
+            }
+            return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.homecare.json;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.homecare.entity.Plant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plant response body written from ready UTF-8 JSON values: a JSON array of the plants' fragments, or the single
+ * fragment itself, optionally between a head and a tail of plain JSON (to wrap the array in an object).
+ * Fragments are fetched from the PlantJsonCache only when JsonFragmentsHttpMessageConverter writes the body; any
+ * other Jackson converter (CBOR, for example) serializes the plants themselves through body().
+ */
+public final class JsonFragments {
+
+    private final List<Plant> plants;
+    private final boolean array;
+    private final PlantJsonCache cache;
+    private final Object body;
+    private final byte[] head;
+    private final byte[] tail;
+    private List<byte[]> fragments;
+
+    JsonFragments(List<Plant> plants, boolean array, PlantJsonCache cache) {
+        this(plants, array, cache, null, new byte[0], new byte[0]);
+    }
+
+    // The fragments between head and tail, standing for the given body
+    JsonFragments(List<Plant> plants, boolean array, PlantJsonCache cache, Object body, byte[] head, byte[] tail) {
+        this.plants = plants;
+        this.array = array;
+        this.cache = cache;
+        this.body = body;
+        this.head = head;
+        this.tail = tail;
+    }
+
+    public boolean array() {
+        return array;
+    }
+
+    // What a general-purpose converter should write instead: the plant list, or the single plant
+    @JsonValue
+    public Object body() {
+        if (body != null) {
+            return body;
+        }
+        return array ? plants : plants.get(0);
+    }
+
+    public byte[] head() {
+        return head;
+    }
+
+    public byte[] tail() {
+        return tail;
+    }
+
+    public synchronized List<byte[]> fragments() {
+        if (fragments == null) {
+            List<byte[]> json = new ArrayList<>(plants.size());
+            for (Plant plant : plants) {
+                json.add(cache.fragment(plant));
+            }
+            fragments = json;
+        }
+        return fragments;
+    }
+
+    public long length() {
+        List<byte[]> json = fragments();
+        long length = head.length + tail.length + (array ? Math.max(2, 1 + json.size()) : 0);
+        for (byte[] fragment : json) {
+            length += fragment.length;
+        }
+        return length;
+    }
+}
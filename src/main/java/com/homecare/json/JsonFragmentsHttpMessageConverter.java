@@ -0,0 +1,62 @@
+package com.homecare.json;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes JsonFragments straight to the response stream, splicing in separators, with an exact Content-Length.
+ * Write-only.
+ */
+public class JsonFragmentsHttpMessageConverter extends AbstractHttpMessageConverter<JsonFragments> {
+
+    public JsonFragmentsHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonFragments.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonFragments readInternal(Class<? extends JsonFragments> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JSON fragments are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonFragments fragments, MediaType contentType) {
+        return fragments.length();
+    }
+
+    @Override
+    protected void writeInternal(JsonFragments fragments, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        body.write(fragments.head());
+        if (fragments.array()) {
+            body.write('[');
+        }
+        boolean first = true;
+        for (byte[] fragment : fragments.fragments()) {
+            if (!first) {
+                body.write(',');
+            }
+            body.write(fragment);
+            first = false;
+        }
+        if (fragments.array()) {
+            body.write(']');
+        }
+        body.write(fragments.tail());
+    }
+}
@@ -0,0 +1,122 @@
+package com.homecare.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.dto.PlantBatch;
+import com.homecare.entity.Plant;
+import com.homecare.event.PlantChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UTF-8 JSON of each plant, serialized once by the application's ObjectMapper and reused while the plant is
+ * unchanged. A fragment is only served for an entity with the same version and updatedAt it was made from, so
+ * a stale fragment can never leak; the change events just free the memory early. Once max-bytes of fragments
+ * are held, further plants are serialized without being cached until invalidations make room.
+ */
+@Component
+public class PlantJsonCache {
+
+    private static final byte[] BATCH_PLANTS = "{\"plants\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BATCH_MISSING = ",\"missingIds\":".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${plantcare.json-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final ConcurrentMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Fragment(Long version, LocalDateTime updatedAt, byte[] json) {
+    }
+
+    // The plants as a JSON array body
+    public JsonFragments list(List<Plant> plants) {
+        return new JsonFragments(plants, true, this);
+    }
+
+    // One plant as a JSON object body
+    public JsonFragments single(Plant plant) {
+        return new JsonFragments(List.of(plant), false, this);
+    }
+
+    // A PlantBatch body, the plants spliced in as an array: {"plants":[...],"missingIds":[...]}
+    public JsonFragments batch(List<Plant> plants, List<Long> missingIds) {
+        byte[] missing;
+        try {
+            missing = objectMapper.writeValueAsBytes(missingIds);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] tail = new byte[BATCH_MISSING.length + missing.length + 1];
+        System.arraycopy(BATCH_MISSING, 0, tail, 0, BATCH_MISSING.length);
+        System.arraycopy(missing, 0, tail, BATCH_MISSING.length, missing.length);
+        tail[tail.length - 1] = '}';
+        return new JsonFragments(plants, true, this, new PlantBatch(plants, missingIds), BATCH_PLANTS, tail);
+    }
+
+    public byte[] fragment(Plant plant) {
+        Fragment cached = fragments.get(plant.getId());
+        if (cached != null && Objects.equals(cached.version(), plant.getVersion())
+                && Objects.equals(cached.updatedAt(), plant.getUpdatedAt())) {
+            hits.increment();
+            return cached.json();
+        }
+        misses.increment();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(plant);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (plant.getId() != null && cachedBytes.get() + json.length <= maxBytes) {
+            Fragment previous = fragments.put(plant.getId(), new Fragment(plant.getVersion(), plant.getUpdatedAt(), json));
+            cachedBytes.addAndGet(json.length - (previous == null ? 0 : previous.json().length));
+        }
+        return json;
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            fragments.keySet().forEach(this::evict);
+        } else {
+            evict(event.plantId());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedPlants", fragments.size());
+        stats.put("cachedBytes", cachedBytes.get());
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private void evict(Long plantId) {
+        Fragment removed = fragments.remove(plantId);
+        if (removed != null) {
+            cachedBytes.addAndGet(-removed.json().length);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.homecare.recommend;
+
+import com.homecare.dto.PlantCareProfile;
+import com.homecare.dto.SimilarPlant;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.sharding.HouseholdContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Precomputed vectors for "similar plants". Each plant is embedded as a TF-IDF vector of its care notes, hashed
+ * into text-dimensions buckets, followed by one-hot type, sunlight and watering frequency features hashed into
+ * categorical-dimensions buckets. The text and categorical parts are weighted by text-weight and the whole
+ * vector is unit length, so a dot product is the cosine similarity. Vectors live in VectorBlocks and a query is
+ * a fork/join scan keeping the top k of each slice.
+ *
+ * Writes re-embed only the changed plant with the current document frequencies. Once the number of plants has
+ * drifted by a quarter since all vectors were last weighted, every vector is re-weighted so the IDF stays honest.
+ * Plants are read as care profiles, never with their image, and plants that change while a (re)load is reading
+ * the rows are fetched again once the loaded rows are in place.
+ *
+ * These vectors are the default household's. Every other household is compared only with its own plants, in an
+ * index built on its first request and then kept current from its events like this one.
+ */
+@Component
+public class SimilarPlantIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarPlantIndex.class);
+
+    public static final int MAX_RESULTS = 50;
+
+    // Below this many rows a single thread finishes before a fork would pay off
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}]+");
+    private static final Set<String> STOP_WORDS = Set.of("and", "the", "for", "with", "from", "this", "that",
+            "are", "but", "not", "you", "your", "its", "into", "when", "then", "than", "once", "keep", "let",
+            "can", "will", "should", "very", "more", "less", "also", "only", "out", "all", "any");
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Value("${plantcare.similar.text-dimensions:256}")
+    private int textDimensions;
+
+    @Value("${plantcare.similar.categorical-dimensions:64}")
+    private int categoricalDimensions;
+
+    @Value("${plantcare.similar.text-weight:0.5}")
+    private double textWeight;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private VectorBlocks vectors;
+    private long[] ids = new long[VectorBlocks.BLOCK_ROWS];
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private int weightedAtCount;
+    // Indexes of the other households by household id
+    private final ConcurrentMap<String, SimilarPlantIndex> households = new ConcurrentHashMap<>();
+    // Plants changed while a load was reading the rows, which may predate those changes
+    private volatile boolean loading;
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private record Document(String name, String type, String sunlightNeeds, String wateringFrequency,
+                            Map<String, Integer> termCounts, int termTotal) {
+    }
+
+    @PostConstruct
+    public void init() {
+        vectors = new VectorBlocks(textDimensions + categoricalDimensions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        loading = true;
+        try {
+            rebuild(plantRepository.findAllCareProfiles());
+        } finally {
+            loading = false;
+        }
+        List<Long> changed = new ArrayList<>(changedDuringLoad);
+        changedDuringLoad.removeAll(changed);
+        changed.forEach(this::refresh);
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (!event.isDefaultHousehold()) {
+            // Also waits for an index of the household that is still being built
+            households.computeIfPresent(event.household(), (household, index) -> index.apply(event));
+            return;
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            households.clear();
+        }
+        apply(event);
+    }
+
+    private SimilarPlantIndex apply(PlantChangedEvent event) {
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            load();
+            return this;
+        }
+        // Noted before applying, so a load finishing in between still sees it
+        if (loading) {
+            changedDuringLoad.add(event.plantId());
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.DELETED) {
+            remove(event.plantId());
+        } else {
+            refresh(event.plantId());
+        }
+        return this;
+    }
+
+    private void refresh(Long plantId) {
+        plantRepository.findCareProfileById(plantId).ifPresentOrElse(this::upsert, () -> remove(plantId));
+    }
+
+    // Replace the whole index with the given plants
+    public void rebuild(List<PlantCareProfile> plants) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            documentFrequency.clear();
+            for (PlantCareProfile plant : plants) {
+                Document document = document(plant);
+                documents.put(plant.id(), document);
+                countTerms(document, 1);
+            }
+            rowById.clear();
+            vectors.clear();
+            for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+                appendRow(entry.getKey(), embed(entry.getValue()));
+            }
+            weightedAtCount = documents.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Similar plant index loaded with {} plants, {} terms", rowById.size(), documentFrequency.size());
+    }
+
+    public void upsert(PlantCareProfile plant) {
+        lock.writeLock().lock();
+        try {
+            Document document = document(plant);
+            Document previous = documents.put(plant.id(), document);
+            if (previous != null) {
+                countTerms(previous, -1);
+            }
+            countTerms(document, 1);
+            if (!reweightIfDrifted()) {
+                Integer row = rowById.get(plant.id());
+                if (row == null) {
+                    appendRow(plant.id(), embed(document));
+                } else {
+                    vectors.set(row, embed(document));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long plantId) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(plantId);
+            if (previous == null) {
+                return;
+            }
+            countTerms(previous, -1);
+            int row = rowById.remove(plantId);
+            int last = vectors.size() - 1;
+            vectors.removeByMovingLast(row);
+            if (row != last) {
+                ids[row] = ids[last];
+                rowById.put(ids[row], row);
+            }
+            reweightIfDrifted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The k plants most similar to the given one, best first; empty when the plant is not indexed
+    public Optional<List<SimilarPlant>> findSimilar(Long plantId, int k) {
+        return forCurrentHousehold().nearest(plantId, k);
+    }
+
+    // This index for the default household, otherwise the household's own, loaded on first use
+    private SimilarPlantIndex forCurrentHousehold() {
+        if (HouseholdContext.isDefault()) {
+            return this;
+        }
+        return households.computeIfAbsent(HouseholdContext.current(), household -> {
+            SimilarPlantIndex index = new SimilarPlantIndex();
+            index.plantRepository = plantRepository;
+            index.textDimensions = textDimensions;
+            index.categoricalDimensions = categoricalDimensions;
+            index.textWeight = textWeight;
+            index.init();
+            index.load();
+            return index;
+        });
+    }
+
+    private Optional<List<SimilarPlant>> nearest(Long plantId, int k) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowById.get(plantId);
+            if (row == null) {
+                return Optional.empty();
+            }
+            float[] query = vectors.get(row);
+            int size = vectors.size();
+            TopK top = size < PARALLEL_THRESHOLD
+                    ? new TopKTask(vectors, query, row, k, 0, size).compute()
+                    : ForkJoinPool.commonPool().invoke(new TopKTask(vectors, query, row, k, 0, size));
+            List<SimilarPlant> similar = new ArrayList<>(top.count);
+            for (int i = 0; i < top.count; i++) {
+                long id = ids[top.rows[i]];
+                Document document = documents.get(id);
+                similar.add(new SimilarPlant(id, document.name(), document.type(),
+                        Math.round(top.scores[i] * 10_000) / 10_000.0));
+            }
+            return Optional.of(similar);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void appendRow(long plantId, float[] vector) {
+        int row = vectors.add(vector);
+        if (row == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[row] = plantId;
+        rowById.put(plantId, row);
+    }
+
+    // Re-embed every plant once the plant count has moved far enough from the one the weights were computed for
+    private boolean reweightIfDrifted() {
+        int count = documents.size();
+        if (Math.abs(count - weightedAtCount) * 4 <= Math.max(weightedAtCount, 4)) {
+            return false;
+        }
+        for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+            Integer row = rowById.get(entry.getKey());
+            if (row == null) {
+                appendRow(entry.getKey(), embed(entry.getValue()));
+            } else {
+                vectors.set(row, embed(entry.getValue()));
+            }
+        }
+        weightedAtCount = count;
+        return true;
+    }
+
+    private float[] embed(Document document) {
+        float[] vector = new float[textDimensions + categoricalDimensions];
+        int documentCount = documents.size();
+        for (Map.Entry<String, Integer> term : document.termCounts().entrySet()) {
+            double tf = (double) term.getValue() / document.termTotal();
+            double idf = Math.log((1.0 + documentCount) / (1.0 + documentFrequency.getOrDefault(term.getKey(), 0))) + 1;
+            vector[Math.floorMod(term.getKey().hashCode(), textDimensions)] += (float) (tf * idf);
+        }
+        scale(vector, 0, textDimensions, Math.sqrt(textWeight));
+
+        String[] features = {"type:" + lower(document.type()), "sunlight:" + lower(document.sunlightNeeds()),
+                "frequency:" + lower(document.wateringFrequency())};
+        for (String feature : features) {
+            vector[textDimensions + Math.floorMod(feature.hashCode(), categoricalDimensions)] += 1;
+        }
+        scale(vector, textDimensions, vector.length, Math.sqrt(1 - textWeight));
+
+        // Plants without care notes are compared on their attributes alone
+        scale(vector, 0, vector.length, 1);
+        return vector;
+    }
+
+    // Scale a range of the vector to the given length; an all-zero range stays zero
+    private static void scale(float[] vector, int from, int to, double length) {
+        double norm = 0;
+        for (int i = from; i < to; i++) {
+            norm += vector[i] * vector[i];
+        }
+        if (norm == 0) {
+            return;
+        }
+        float factor = (float) (length / Math.sqrt(norm));
+        for (int i = from; i < to; i++) {
+            vector[i] *= factor;
+        }
+    }
+
+    private void countTerms(Document document, int delta) {
+        for (String term : document.termCounts().keySet()) {
+            documentFrequency.merge(term, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private static Document document(PlantCareProfile plant) {
+        Map<String, Integer> termCounts = new HashMap<>();
+        int total = 0;
+        if (plant.careNotes() != null) {
+            for (String word : WORD_SEPARATORS.split(plant.careNotes().toLowerCase(Locale.ROOT))) {
+                if (word.length() >= 3 && !STOP_WORDS.contains(word)) {
+                    termCounts.merge(word, 1, Integer::sum);
+                    total++;
+                }
+            }
+        }
+        return new Document(plant.name(), plant.type(), plant.sunlightNeeds(), plant.wateringFrequency(),
+                termCounts, total);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    // Best rows of one slice, sorted by descending score
+    private static final class TopK {
+        private final int[] rows;
+        private final float[] scores;
+        private int count;
+
+        private TopK(int k) {
+            rows = new int[k];
+            scores = new float[k];
+        }
+
+        private void offer(int row, float score) {
+            if (count == rows.length && score <= scores[count - 1]) {
+                return;
+            }
+            int position = count < rows.length ? count++ : count - 1;
+            while (position > 0 && scores[position - 1] < score) {
+                rows[position] = rows[position - 1];
+                scores[position] = scores[position - 1];
+                position--;
+            }
+            rows[position] = row;
+            scores[position] = score;
+        }
+
+        private TopK merge(TopK other) {
+            for (int i = 0; i < other.count; i++) {
+                offer(other.rows[i], other.scores[i]);
+            }
+            return this;
+        }
+    }
+
+    private static final class TopKTask extends RecursiveTask<TopK> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final VectorBlocks vectors;
+        private final float[] query;
+        private final int excludedRow;
+        private final int k;
+        private final int from;
+        private final int to;
+
+        private TopKTask(VectorBlocks vectors, float[] query, int excludedRow, int k, int from, int to) {
+            this.vectors = vectors;
+            this.query = query;
+            this.excludedRow = excludedRow;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                TopK top = new TopK(k);
+                for (int row = from; row < to; row++) {
+                    if (row != excludedRow) {
+                        top.offer(row, vectors.dot(row, query));
+                    }
+                }
+                return top;
+            }
+            int middle = (from + to) >>> 1;
+            TopKTask left = new TopKTask(vectors, query, excludedRow, k, from, middle);
+            left.fork();
+            TopK right = new TopKTask(vectors, query, excludedRow, k, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
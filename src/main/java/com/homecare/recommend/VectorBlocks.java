@@ -0,0 +1,82 @@
+package com.homecare.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-width float vectors packed row after row into float[] blocks of BLOCK_ROWS rows, so a scan reads
+ * contiguous memory and growing never copies existing rows. Rows are dense: removing one moves the last row
+ * into its place.
+ *
+ * Not thread-safe; SimilarPlantIndex serialises access.
+ */
+class VectorBlocks {
+
+    static final int BLOCK_ROWS = 1024;
+
+    private final int dimensions;
+    private final List<float[]> blocks = new ArrayList<>();
+    private int size;
+
+    VectorBlocks(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    // Append a vector and return its row
+    int add(float[] vector) {
+        if (size == blocks.size() * BLOCK_ROWS) {
+            blocks.add(new float[BLOCK_ROWS * dimensions]);
+        }
+        set(size, vector);
+        return size++;
+    }
+
+    void set(int row, float[] vector) {
+        System.arraycopy(vector, 0, blocks.get(row / BLOCK_ROWS), (row % BLOCK_ROWS) * dimensions, dimensions);
+    }
+
+    float[] get(int row) {
+        int offset = (row % BLOCK_ROWS) * dimensions;
+        return Arrays.copyOfRange(blocks.get(row / BLOCK_ROWS), offset, offset + dimensions);
+    }
+
+    // Move the last row into the given row and drop the last row
+    void removeByMovingLast(int row) {
+        int last = size - 1;
+        if (row != last) {
+            set(row, get(last));
+        }
+        size--;
+        if (size <= (blocks.size() - 1) * BLOCK_ROWS && blocks.size() > 1) {
+            blocks.remove(blocks.size() - 1);
+        } else {
+            int offset = (last % BLOCK_ROWS) * dimensions;
+            Arrays.fill(blocks.get(last / BLOCK_ROWS), offset, offset + dimensions, 0f);
+        }
+    }
+
+    void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    // Dot product of a row with the query vector
+    float dot(int row, float[] query) {
+        float[] block = blocks.get(row / BLOCK_ROWS);
+        int offset = (row % BLOCK_ROWS) * dimensions;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += block[offset + i] * query[i];
+        }
+        return sum;
+    }
+}
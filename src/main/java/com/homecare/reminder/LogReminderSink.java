@@ -0,0 +1,26 @@
+package com.homecare.reminder;
+
+import com.homecare.dto.WateringReminder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes reminder batches to the application log.
+ */
+@Component
+public class LogReminderSink implements ReminderSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogReminderSink.class);
+
+    @Override
+    public void deliver(List<WateringReminder> reminders) {
+        logger.info("{} plants need watering: {}", reminders.size(), reminders.stream()
+                .limit(20)
+                .map(reminder -> reminder.name() + " (#" + reminder.plantId() + ")")
+                .collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,236 @@
+package com.homecare.reminder;
+
+import com.homecare.cluster.ClusterJobLock;
+import com.homecare.dto.PlantSummary;
+import com.homecare.dto.WateringReminder;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watering reminders without polling: every plant's next watering date is armed in a timing wheel, loaded once
+ * at startup and re-armed from the plant change events; a bulk change naming its id ranges re-arms only the
+ * plants in them whose date moved, one without them reloads every plant. Each tick advances the wheel and hands
+ * the plants that came due to every ReminderSink, in batches. A plant is reminded once per next watering date;
+ * watering or editing it arms the new date. The date each plant was reminded of is kept in watering_reminders_sent, so
+ * plants still overdue after a restart are not reminded again.
+ *
+ * Reminders cover the default household only: the sinks broadcast to every subscriber, so reminding other
+ * households would show their plants to everyone. Their events are ignored here and their stream subscriptions
+ * are refused with 501 by ReminderController.
+ */
+@Service
+public class ReminderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    static final String REMINDER_JOB = "reminders";
+
+    // Ticks a missing lease holder is given before another instance takes over
+    private static final int LEASE_TICKS = 3;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private List<ReminderSink> sinks;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private ClusterJobLock jobLock;
+
+    @Value("${plantcare.reminders.tick-ms:60000}")
+    private long tickMs;
+
+    // Time of day at which a plant's reminder fires on its next watering date
+    @Value("${plantcare.reminders.time-of-day:08:00}")
+    private String timeOfDay;
+
+    @Value("${plantcare.reminders.batch-size:500}")
+    private int batchSize;
+
+    private LocalTime reminderTime;
+    private TimingWheel wheel;
+    private final AtomicLong fired = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        List<Object[]> nextWaterings = plantRepository.findNextWaterings();
+        synchronized (this) {
+            reminderTime = LocalTime.parse(timeOfDay);
+            wheel = new TimingWheel(System.currentTimeMillis() / tickMs);
+            for (Object[] row : nextWaterings) {
+                wheel.schedule((Long) row[0], deadlineTick((LocalDate) row[1]));
+            }
+        }
+        logger.info("Armed watering reminders for {} plants", nextWaterings.size());
+    }
+
+    @EventListener(condition = "#event.defaultHousehold")
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (!isLoaded()) {
+            return;
+        }
+        switch (event.changeType()) {
+            case BULK -> {
+                if (event.idRanges() == null) {
+                    load();
+                } else {
+                    rearm(event.idRanges());
+                }
+            }
+            case DELETED -> {
+                cancel(event.plantId());
+                jdbcTemplate.update("DELETE FROM watering_reminders_sent WHERE plant_id = ?", event.plantId());
+            }
+            case SAVED -> plantRepository.findWateringStatusById(event.plantId())
+                    .ifPresentOrElse(status -> arm(event.plantId(), status.nextWatering()),
+                            () -> cancel(event.plantId()));
+        }
+    }
+
+    // A bulk change confined to id ranges (the nightly recompute) re-arms the plants in them whose date moved
+    private void rearm(List<PlantChangedEvent.IdRange> idRanges) {
+        int moved = 0;
+        for (PlantChangedEvent.IdRange range : idRanges) {
+            List<Object[]> nextWaterings = plantRepository.findNextWateringsBetween(range.fromId(), range.toId());
+            synchronized (this) {
+                for (Object[] row : nextWaterings) {
+                    Long plantId = (Long) row[0];
+                    LocalDate nextWatering = (LocalDate) row[1];
+                    long deadline = nextWatering == null ? -1 : deadlineTick(nextWatering);
+                    if (wheel.deadlineOf(plantId) != deadline) {
+                        arm(plantId, nextWatering);
+                        moved++;
+                    }
+                }
+            }
+        }
+        logger.debug("Re-armed watering reminders for {} plants in {} id ranges", moved, idRanges.size());
+    }
+
+    // In a cluster only the instance holding the reminders lease sends them; the others keep their wheel armed
+    // so they can take over, and the sent dates keep a new holder from repeating what was already sent
+    @Scheduled(fixedRateString = "${plantcare.reminders.tick-ms:60000}")
+    public void tick() {
+        if (isLoaded() && (jobLock == null || jobLock.tryAcquire(REMINDER_JOB, LEASE_TICKS * tickMs))) {
+            advance(System.currentTimeMillis());
+        }
+    }
+
+    // Fire every reminder due by the given time and return what was delivered
+    public List<WateringReminder> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(nowMillis / tickMs, due::add);
+        }
+
+        List<WateringReminder> delivered = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> ids = due.subList(from, Math.min(due.size(), from + batchSize));
+            Map<Long, LocalDate> reminded = findReminded(ids);
+            List<WateringReminder> batch = new ArrayList<>();
+            for (PlantSummary plant : plantRepository.findSummariesByIdIn(ids)) {
+                // The date may have moved without an event reaching us (e.g. a bulk update elsewhere)
+                if (plant.nextWatering() != null && deadlineTick(plant.nextWatering()) > nowMillis / tickMs) {
+                    arm(plant.id(), plant.nextWatering());
+                } else if (plant.nextWatering() == null || !plant.nextWatering().equals(reminded.get(plant.id()))) {
+                    batch.add(new WateringReminder(plant.id(), plant.name(), plant.type(), plant.nextWatering()));
+                }
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                markReminded(batch);
+                delivered.addAll(batch);
+            }
+        }
+        fired.addAndGet(delivered.size());
+        return delivered;
+    }
+
+    public synchronized int getScheduledCount() {
+        return wheel == null ? 0 : wheel.size();
+    }
+
+    public long getFiredCount() {
+        return fired.get();
+    }
+
+    private synchronized boolean isLoaded() {
+        return wheel != null;
+    }
+
+    private synchronized void arm(Long plantId, LocalDate nextWatering) {
+        if (nextWatering == null) {
+            wheel.cancel(plantId);
+        } else {
+            wheel.schedule(plantId, deadlineTick(nextWatering));
+        }
+    }
+
+    private synchronized void cancel(Long plantId) {
+        wheel.cancel(plantId);
+    }
+
+    private void deliver(List<WateringReminder> batch) {
+        for (ReminderSink sink : sinks) {
+            try {
+                sink.deliver(batch);
+            } catch (RuntimeException e) {
+                logger.error("Reminder sink {} failed for {} reminders", sink.getClass().getSimpleName(), batch.size(), e);
+            }
+        }
+    }
+
+    // Next watering date each of the plants was last reminded of
+    private Map<Long, LocalDate> findReminded(List<Long> plantIds) {
+        Map<Long, LocalDate> reminded = new HashMap<>();
+        jdbcTemplate.query("SELECT plant_id, reminded_for FROM watering_reminders_sent WHERE plant_id IN ("
+                        + String.join(",", Collections.nCopies(plantIds.size(), "?")) + ")",
+                rs -> {
+                    reminded.put(rs.getLong(1), rs.getDate(2).toLocalDate());
+                },
+                plantIds.toArray());
+        return reminded;
+    }
+
+    private void markReminded(List<WateringReminder> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("MERGE INTO watering_reminders_sent (plant_id, reminded_for, sent_at) KEY (plant_id) "
+                        + "VALUES (?, ?, ?)",
+                batch.stream()
+                        .filter(reminder -> reminder.nextWatering() != null)
+                        .map(reminder -> new Object[]{reminder.plantId(), Date.valueOf(reminder.nextWatering()), now})
+                        .toList());
+    }
+
+    private long deadlineTick(LocalDate nextWatering) {
+        return nextWatering.atTime(reminderTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / tickMs;
+    }
+}
@@ -0,0 +1,14 @@
+package com.homecare.reminder;
+
+import com.homecare.dto.WateringReminder;
+
+import java.util.List;
+
+/**
+ * Destination for due watering reminders. Every sink bean receives each batch; a failing sink does not
+ * keep the batch from the others.
+ */
+public interface ReminderSink {
+
+    void deliver(List<WateringReminder> reminders);
+}
@@ -0,0 +1,43 @@
+package com.homecare.reminder;
+
+import com.homecare.dto.WateringReminder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes reminder batches to the clients subscribed to GET /api/reminders/stream.
+ */
+@Component
+public class SseReminderSink implements ReminderSink {
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    public SseEmitter subscribe(long timeoutMs) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    @Override
+    public void deliver(List<WateringReminder> reminders) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("watering-reminders").data(reminders));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
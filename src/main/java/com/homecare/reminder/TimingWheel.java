@@ -0,0 +1,179 @@
+package com.homecare.reminder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel keyed by plant id. Level 0 has one slot per tick; each higher level has 64 slots
+ * spanning 64 times the level below. An entry sits in the lowest level whose current page covers its deadline
+ * and moves down a level each time the wheel reaches its slot, so scheduling, cancelling and firing are O(1)
+ * per entry whatever the number of scheduled plants. Deadlines beyond the top level wait in an overflow list
+ * that is re-examined whenever the top level turns over.
+ *
+ * Not thread-safe; ReminderScheduler serialises access.
+ */
+class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    static final int LEVELS = 4;
+
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private final Entry overflow = new Entry(-1, -1);
+    private final Entry overdue = new Entry(-1, -1);
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    private static final class Entry {
+        private final long key;
+        private long deadlineTick;
+        private Entry previous;
+        private Entry next;
+
+        private Entry(long key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            // A lone entry is its own list, which lets the overflow and overdue sentinels work as list heads
+            previous = this;
+            next = this;
+        }
+    }
+
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Schedule (or move) the key to fire at the deadline; past deadlines fire on the next advance
+    void schedule(long key, long deadlineTick) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, deadlineTick);
+            entries.put(key, entry);
+        } else {
+            unlink(entry);
+            entry.deadlineTick = deadlineTick;
+        }
+        place(entry);
+    }
+
+    // Deadline the key is scheduled for, or -1 when it is not scheduled
+    long deadlineOf(long key) {
+        Entry entry = entries.get(key);
+        return entry == null ? -1 : entry.deadlineTick;
+    }
+
+    boolean cancel(long key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    // Move the wheel forward to the given tick, handing every key whose deadline has passed to the consumer
+    void advance(long toTick, LongConsumer expired) {
+        fire(overdue, expired);
+        while (currentTick < toTick) {
+            if (entries.isEmpty()) {
+                currentTick = toTick;
+                return;
+            }
+            currentTick++;
+            // Cascade the higher levels whose slot boundary this tick crosses, top level first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    if (level == LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+                        replace(overflow);
+                    }
+                    replace(slotHead(level, slotIndex(currentTick, level)));
+                }
+            }
+            Entry head = slots[0][(int) (currentTick & SLOT_MASK)];
+            if (head != null) {
+                fire(head, expired);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        long deadline = entry.deadlineTick;
+        if (deadline <= currentTick) {
+            link(overdue, entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            // Same page one level up means the slot at this level is reached before the page turns
+            int shift = SLOT_BITS * (level + 1);
+            if ((deadline >>> shift) == (currentTick >>> shift)) {
+                link(slotHead(level, slotIndex(deadline, level)), entry);
+                return;
+            }
+        }
+        link(overflow, entry);
+    }
+
+    // Re-place every entry of a list one level down (or into level 0 for the current tick)
+    private void replace(Entry head) {
+        Entry entry = head.next;
+        head.next = head;
+        head.previous = head;
+        while (entry != head) {
+            Entry next = entry.next;
+            entry.previous = entry;
+            entry.next = entry;
+            if (entry.deadlineTick == currentTick) {
+                link(slotHead(0, slotIndex(currentTick, 0)), entry);
+            } else {
+                place(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void fire(Entry head, LongConsumer expired) {
+        while (head.next != head) {
+            Entry entry = head.next;
+            unlink(entry);
+            entries.remove(entry.key);
+            expired.accept(entry.key);
+        }
+    }
+
+    private Entry slotHead(int level, int slot) {
+        Entry head = slots[level][slot];
+        if (head == null) {
+            head = new Entry(-1, -1);
+            slots[level][slot] = head;
+        }
+        return head;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static void link(Entry head, Entry entry) {
+        entry.previous = head.previous;
+        entry.next = head;
+        head.previous.next = entry;
+        head.previous = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        entry.previous = entry;
+        entry.next = entry;
+    }
+}
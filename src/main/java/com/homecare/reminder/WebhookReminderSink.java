@@ -0,0 +1,63 @@
+package com.homecare.reminder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.dto.WateringReminder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each reminder batch as JSON to plantcare.reminders.webhook.url. Delivery is asynchronous so a slow
+ * receiver never holds up the timer; failures are logged. Point it at /api/reminders/webhook to use the
+ * built-in stand-in receiver.
+ */
+@Component
+@ConditionalOnExpression("!'${plantcare.reminders.webhook.url:}'.isEmpty()")
+public class WebhookReminderSink implements ReminderSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookReminderSink.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${plantcare.reminders.webhook.url}")
+    private String url;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Override
+    public void deliver(List<WateringReminder> reminders) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(10))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(reminders)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialise {} reminders", reminders.size(), e);
+            return;
+        }
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        logger.warn("Reminder webhook {} failed", url, error);
+                    } else if (response.statusCode() >= 300) {
+                        logger.warn("Reminder webhook {} answered {}", url, response.statusCode());
+                    }
+                });
+    }
+}
@@ -0,0 +1,252 @@
+package com.homecare.replica;
+
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRows;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the read replica in step with the primary. Every plant change event is given the next replication
+ * position and queued; a single applier thread copies the changed rows (or, for bulk changes and at startup,
+ * the whole table) from the primary to the replica and then advances the applied position. Copies read the
+ * current row, so applying a change late or twice is harmless.
+ *
+ * Positions let a client read its own writes: a write hands the client its position (ReplicaReadFilter) and
+ * the client's reads go to the primary until the replica has applied it. Reads also fall back to the primary
+ * while the replica is more than max-lag-ms behind, and until its first full copy is done. Positions start
+ * over with every run, so they carry a per-run epoch.
+ *
+ * The apply delay holds back every batch, standing in for the shipping delay of a real replica.
+ */
+public class PlantReplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlantReplicator.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final long RETRY_MS = 1000;
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final JdbcTemplate primaryJdbc;
+    private final JdbcTemplate replicaJdbc;
+    private final long applyDelayMs;
+    private final long maxLagMs;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1);
+
+    private final AtomicLong written = new AtomicLong();
+    private final BlockingQueue<Change> pending = new LinkedBlockingQueue<>();
+    private volatile Change applying;
+    private volatile long applied;
+    private volatile boolean synced;
+    private Thread applier;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder ownWriteFallbacks = new LongAdder();
+    private final LongAdder lagFallbacks = new LongAdder();
+
+    // A null plantId copies the whole table
+    private record Change(long position, Long plantId, long recordedAt) {
+    }
+
+    public PlantReplicator(HikariDataSource primary, HikariDataSource replica, long applyDelayMs, long maxLagMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.applyDelayMs = applyDelayMs;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void start() {
+        applier = new Thread(this::applyChanges, "plant-replicator");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    public void stop() throws InterruptedException {
+        applier.interrupt();
+        applier.join(RETRY_MS);
+        replica.close();
+        primary.close();
+    }
+
+    // Startup writes (seeding, migrations) publish no events, so the replica starts from a full copy
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void copyEverything() {
+        record(null);
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        long position = record(event.changeType() == PlantChangedEvent.ChangeType.BULK ? null : event.plantId());
+        ReplicaReadFilter.rememberWrite(epoch, position);
+    }
+
+    // Replica position a read that must see the given position may use, or -1 when it has to go to the primary
+    public long replicaPositionFor(long requiredPosition) {
+        long position = applied;
+        if (getLagMs() > maxLagMs) {
+            lagFallbacks.increment();
+            return -1;
+        }
+        if (position < requiredPosition) {
+            ownWriteFallbacks.increment();
+            return -1;
+        }
+        replicaReads.increment();
+        return position;
+    }
+
+    // How long the oldest change not yet on the replica has been waiting (effectively forever before the first copy)
+    public long getLagMs() {
+        if (!synced) {
+            return Long.MAX_VALUE;
+        }
+        Change oldest = applying != null ? applying : pending.peek();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.recordedAt();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("epoch", epoch);
+        stats.put("writtenPosition", written.get());
+        stats.put("appliedPosition", applied);
+        stats.put("pendingChanges", pending.size() + (applying != null ? 1 : 0));
+        stats.put("synced", synced);
+        stats.put("lagMs", synced ? getLagMs() : null);
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("replicaReads", replicaReads.sum());
+        stats.put("ownWriteFallbacks", ownWriteFallbacks.sum());
+        stats.put("lagFallbacks", lagFallbacks.sum());
+        return stats;
+    }
+
+    private synchronized long record(Long plantId) {
+        long position = written.incrementAndGet();
+        pending.add(new Change(position, plantId, System.currentTimeMillis()));
+        return position;
+    }
+
+    private void applyChanges() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Change first = pending.take();
+                applying = first;
+                if (applyDelayMs > 0) {
+                    Thread.sleep(applyDelayMs);
+                }
+                List<Change> batch = new ArrayList<>();
+                batch.add(first);
+                pending.drainTo(batch);
+                // A failed batch is retried as a whole, so the applied position never passes a change not yet copied
+                while (!apply(batch)) {
+                    Thread.sleep(RETRY_MS);
+                }
+                applied = batch.get(batch.size() - 1).position();
+                applying = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean apply(List<Change> batch) {
+        try {
+            if (batch.stream().anyMatch(change -> change.plantId() == null)) {
+                int copied = copyAll();
+                synced = true;
+                logger.info("Copied all {} plants to the read replica", copied);
+                return true;
+            }
+            Set<Long> plantIds = new LinkedHashSet<>();
+            batch.forEach(change -> plantIds.add(change.plantId()));
+            for (Long plantId : plantIds) {
+                copy(plantId);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Could not apply {} changes to the read replica, retrying", batch.size(), e);
+            return false;
+        }
+    }
+
+    private void copy(Long plantId) {
+        List<Object[]> rows = primaryJdbc.query("SELECT " + PlantRows.COLUMNS + " FROM plants WHERE id = ?",
+                (rs, rowNum) -> rowValues(rs), plantId);
+        if (rows.isEmpty()) {
+            replicaJdbc.update("DELETE FROM plants WHERE id = ?", plantId);
+        } else {
+            replicaJdbc.update(PlantRows.UPSERT, rows.get(0));
+        }
+    }
+
+    // Copy every row in id batches, then drop the replica's rows the primary no longer has
+    private int copyAll() {
+        Set<Long> primaryIds = new HashSet<>();
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Object[]> rows = primaryJdbc.query("SELECT " + PlantRows.COLUMNS + " FROM plants "
+                    + "WHERE id > ? ORDER BY id LIMIT ?", (rs, rowNum) -> rowValues(rs), afterId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            replicaJdbc.batchUpdate(PlantRows.UPSERT, rows);
+            for (Object[] row : rows) {
+                primaryIds.add(((Number) row[0]).longValue());
+            }
+            afterId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        }
+        List<Object[]> gone = replicaJdbc.queryForList("SELECT id FROM plants", Long.class).stream()
+                .filter(id -> !primaryIds.contains(id))
+                .map(id -> new Object[]{id})
+                .toList();
+        if (!gone.isEmpty()) {
+            replicaJdbc.batchUpdate("DELETE FROM plants WHERE id = ?", gone);
+        }
+        return primaryIds.size();
+    }
+
+    private static Object[] rowValues(ResultSet rs) throws SQLException {
+        int columns = rs.getMetaData().getColumnCount();
+        Object[] values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,32 @@
+package com.homecare.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The "replica" profile's routing between the primary and the read replica: read-only transactions of threads
+ * that ReplicaReads admits go to the replica, everything else to the primary. The read-only flag is only known
+ * once the transaction has begun, so this sits behind a LazyConnectionDataSourceProxy that fetches the real
+ * connection at the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReplicaReads.isAllowed() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? REPLICA : PRIMARY;
+    }
+}
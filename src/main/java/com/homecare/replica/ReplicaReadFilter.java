@@ -0,0 +1,104 @@
+package com.homecare.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Decides per GET request whether its read-only queries may use the read replica. A client that wrote is handed
+ * the replication position of its write, as the plantcare-write cookie and the X-Write-Position header; while
+ * the replica has not applied the position the client sends back (either way), its reads go to the primary,
+ * so it always reads its own writes. Reads without a position use the replica unless it lags too far behind.
+ * Requests other than GET and HEAD never touch the replica.
+ */
+@Component
+@Profile("replica")
+public class ReplicaReadFilter extends OncePerRequestFilter {
+
+    public static final String WRITE_POSITION_HEADER = "X-Write-Position";
+    public static final String WRITE_POSITION_COOKIE = "plantcare-write";
+
+    // Long enough for any sane replication lag; afterwards the cookie would only ever say "the replica will do"
+    private static final int COOKIE_MAX_AGE_SECONDS = 300;
+
+    @Autowired
+    private PlantReplicator replicator;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long position = replicator.replicaPositionFor(requiredPosition(request));
+        if (position < 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReplicaReads.allow(position);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaReads.clear();
+        }
+    }
+
+    // Hand the position of a write made while serving the current request back to its client
+    static void rememberWrite(String epoch, long position) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        String value = epoch + "." + position;
+        Cookie cookie = new Cookie(WRITE_POSITION_COOKIE, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge(COOKIE_MAX_AGE_SECONDS);
+        response.addCookie(cookie);
+        response.setHeader(WRITE_POSITION_HEADER, value);
+    }
+
+    // Position the client last wrote at in this run, 0 when it sent none (or one from an earlier run)
+    private long requiredPosition(HttpServletRequest request) {
+        long required = parse(request.getHeader(WRITE_POSITION_HEADER));
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (WRITE_POSITION_COOKIE.equals(cookie.getName())) {
+                    required = Math.max(required, parse(cookie.getValue()));
+                }
+            }
+        }
+        return required;
+    }
+
+    private long parse(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int dot = value.indexOf('.');
+        if (dot < 0 || !value.substring(0, dot).equals(replicator.getEpoch())) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.homecare.replica;
+
+/**
+ * Whether the current thread's read-only transactions may go to the read replica, and at which replication
+ * position the replica was when the request was admitted there. ReplicaReadFilter sets it for the length of a
+ * GET request; every other thread (writes, startup, schedulers, index reloads) reads from the primary.
+ */
+public final class ReplicaReads {
+
+    private static final ThreadLocal<Long> POSITION = new ThreadLocal<>();
+
+    private ReplicaReads() {
+    }
+
+    public static boolean isAllowed() {
+        return POSITION.get() != null;
+    }
+
+    // Tag of the data the thread reads, for caches shared between requests: empty on the primary (always
+    // current), otherwise the replica position, which the replica's data is at least as new as
+    public static String view() {
+        Long position = POSITION.get();
+        return position == null ? "" : "replica@" + position;
+    }
+
+    public static void allow(long position) {
+        POSITION.set(position);
+    }
+
+    public static void clear() {
+        POSITION.remove();
+    }
+}
@@ -0,0 +1,447 @@
+package com.homecare.repository;
+
+import com.homecare.dto.PlantCareProfile;
+import com.homecare.dto.PlantSummary;
+import com.homecare.dto.WateringStatus;
+import com.homecare.entity.Plant;
+import com.homecare.service.ScheduleRecomputationService;
+import com.homecare.storage.MappedPlantStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * PlantRepository backed by the memory-mapped MappedPlantStore instead of Hibernate, for the "mapped" profile.
+ * It is the primary PlantRepository bean there, so the controllers and services use it unchanged.
+ *
+ * Queries scan the store and evaluate the same conditions as the JPQL in PlantRepository. Saves keep the JPA
+ * semantics the controllers rely on: new plants get an id and timestamps, and a stale version fails with an
+ * optimistic locking exception. Sorted and paged reads sort the scanned plants by their bean properties.
+ */
+@Repository
+@Primary
+@Profile("mapped")
+public class MappedPlantRepository implements PlantRepository {
+
+    @Autowired
+    private MappedPlantStore store;
+
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+
+    @Override
+    public <S extends Plant> S save(S plant) {
+        LocalDateTime now = LocalDateTime.now();
+        if (plant.getId() != null && store.contains(plant.getId())) {
+            store.update(plant.getId(), current -> {
+                if (plant.getVersion() != null && !plant.getVersion().equals(current.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Plant.class, plant.getId());
+                }
+                plant.setVersion(current.getVersion() + 1);
+                plant.setUpdatedAt(now);
+                return plant;
+            });
+            return plant;
+        }
+
+        plant.setCreatedAt(now);
+        plant.setUpdatedAt(now);
+        if (plant.getAddedDate() == null) {
+            plant.setAddedDate(LocalDate.now());
+        }
+        plant.setVersion(0L);
+        store.insert(plant);
+        return plant;
+    }
+
+    @Override
+    public <S extends Plant> List<S> saveAll(Iterable<S> plants) {
+        List<S> saved = new ArrayList<>();
+        plants.forEach(plant -> saved.add(save(plant)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Plant> findById(Long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public Optional<Plant> findReadOnlyById(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public List<Plant> findAll() {
+        return store.find(plant -> true);
+    }
+
+    @Override
+    public List<Plant> findAllById(Iterable<Long> ids) {
+        List<Plant> plants = new ArrayList<>();
+        for (Long id : ids) {
+            store.get(id).ifPresent(plants::add);
+        }
+        return plants;
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.delete(id);
+    }
+
+    @Override
+    public void delete(Plant plant) {
+        store.delete(plant.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(store::delete);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Plant> plants) {
+        plants.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAll().forEach(this::delete);
+    }
+
+    @Override
+    public List<Plant> findByType(String type) {
+        return store.find(plant -> Objects.equals(plant.getType(), type));
+    }
+
+    @Override
+    public List<Plant> findByWateringFrequency(String wateringFrequency) {
+        return store.find(plant -> Objects.equals(plant.getWateringFrequency(), wateringFrequency));
+    }
+
+    @Override
+    public List<Plant> findBySunlightNeeds(String sunlightNeeds) {
+        return store.find(plant -> Objects.equals(plant.getSunlightNeeds(), sunlightNeeds));
+    }
+
+    @Override
+    public List<Plant> findPlantsNeedingWatering(LocalDate today) {
+        return store.find(needsWatering(today));
+    }
+
+    @Override
+    public List<Plant> findByNameContainingIgnoreCase(String name) {
+        return store.find(nameContains(name));
+    }
+
+    @Override
+    public List<Plant> findByTypeAndSunlightNeeds(String type, String sunlightNeeds) {
+        return store.find(plant -> Objects.equals(plant.getType(), type)
+                && Objects.equals(plant.getSunlightNeeds(), sunlightNeeds));
+    }
+
+    @Override
+    public List<Plant> findByAddedDateAfter(LocalDate date) {
+        return store.find(plant -> plant.getAddedDate() != null && plant.getAddedDate().isAfter(date));
+    }
+
+    @Override
+    public List<Plant> findByAddedDateBetween(LocalDate startDate, LocalDate endDate) {
+        return store.find(plant -> plant.getAddedDate() != null && !plant.getAddedDate().isBefore(startDate)
+                && !plant.getAddedDate().isAfter(endDate));
+    }
+
+    @Override
+    public long countByType(String type) {
+        return store.count(plant -> Objects.equals(plant.getType(), type));
+    }
+
+    @Override
+    public long countPlantsNeedingWatering(LocalDate today) {
+        return store.count(needsWatering(today));
+    }
+
+    @Override
+    public List<Plant> findPlantsWithCareNotes() {
+        return store.find(plant -> plant.getCareNotes() != null && !plant.getCareNotes().isEmpty());
+    }
+
+    @Override
+    public List<Plant> findPlantsWithoutCareNotes() {
+        return store.find(plant -> plant.getCareNotes() == null || plant.getCareNotes().isEmpty());
+    }
+
+    @Override
+    public long findTotalPlants() {
+        return store.size();
+    }
+
+    @Override
+    public List<PlantSummary> findAllSummaries() {
+        return summaries(findAll());
+    }
+
+    @Override
+    public Optional<PlantSummary> findSummaryById(Long id) {
+        return store.get(id).map(PlantSummary::from);
+    }
+
+    @Override
+    public List<PlantCareProfile> findAllCareProfiles() {
+        return findAll().stream().map(PlantCareProfile::from).toList();
+    }
+
+    @Override
+    public Optional<PlantCareProfile> findCareProfileById(Long id) {
+        return store.get(id).map(PlantCareProfile::from);
+    }
+
+    @Override
+    public List<PlantSummary> findSummariesByType(String type) {
+        return summaries(findByType(type));
+    }
+
+    @Override
+    public List<PlantSummary> findSummariesByNameContaining(String name) {
+        return summaries(store.find(nameContains(name)));
+    }
+
+    @Override
+    public List<PlantSummary> findSummariesNeedingWatering(LocalDate today) {
+        return summaries(store.find(needsWatering(today)));
+    }
+
+    @Override
+    public List<PlantSummary> findSummariesByIdIn(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        return summaries(store.find(plant -> wanted.contains(plant.getId())));
+    }
+
+    @Override
+    public List<Plant> findFiltered(String type, String sunlightNeeds, String wateringFrequency,
+                                    LocalDate addedFrom, LocalDate addedTo) {
+        return store.find(plant -> (type == null || type.equals(plant.getType()))
+                && (sunlightNeeds == null || sunlightNeeds.equals(plant.getSunlightNeeds()))
+                && (wateringFrequency == null || wateringFrequency.equals(plant.getWateringFrequency()))
+                && (addedFrom == null || plant.getAddedDate() != null && !plant.getAddedDate().isBefore(addedFrom))
+                && (addedTo == null || plant.getAddedDate() != null && !plant.getAddedDate().isAfter(addedTo)));
+    }
+
+    @Override
+    public List<Object[]> countByTypeAndSunlightNeedsAndWateringFrequency() {
+        Map<List<String>, Long> counts = findAll().stream().collect(Collectors.groupingBy(
+                plant -> List.of(plant.getType(), plant.getSunlightNeeds(), plant.getWateringFrequency()),
+                Collectors.counting()));
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((key, count) -> rows.add(new Object[]{key.get(0), key.get(1), key.get(2), count}));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> countGroupedByType() {
+        Map<String, Long> counts = findAll().stream()
+                .collect(Collectors.groupingBy(Plant::getType, TreeMap::new, Collectors.counting()));
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((type, count) -> rows.add(new Object[]{type, count}));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> countDueByNextWatering(LocalDate today) {
+        Map<LocalDate, Long> counts = store.find(needsWatering(today)).stream()
+                .collect(Collectors.groupingBy(Plant::getNextWatering, TreeMap::new, Collectors.counting()));
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((day, count) -> rows.add(new Object[]{day, count}));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> countByAddedMonth() {
+        Map<LocalDate, Long> counts = store.find(plant -> plant.getAddedDate() != null).stream()
+                .collect(Collectors.groupingBy(plant -> plant.getAddedDate().withDayOfMonth(1), TreeMap::new,
+                        Collectors.counting()));
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((month, count) -> rows.add(new Object[]{month.getYear(), month.getMonthValue(), count}));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findNextWaterings() {
+        return store.find(plant -> plant.getNextWatering() != null).stream()
+                .map(plant -> new Object[]{plant.getId(), plant.getNextWatering()})
+                .toList();
+    }
+
+    @Override
+    public List<Object[]> findNextWateringsBetween(Long fromId, Long toId) {
+        return store.find(plant -> plant.getId() >= fromId && plant.getId() <= toId).stream()
+                .map(plant -> new Object[]{plant.getId(), plant.getNextWatering()})
+                .toList();
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return store.get(id).map(Plant::getVersion);
+    }
+
+    @Override
+    public Optional<WateringStatus> findWateringStatusById(Long id) {
+        return store.get(id).map(plant -> new WateringStatus(plant.getId(), plant.getLastWatered(),
+                plant.getNextWatering(), plant.getUpdatedAt(), plant.getVersion()));
+    }
+
+    @Override
+    public int waterPlant(Long id, LocalDate today) {
+        return water(id, today, false);
+    }
+
+    @Override
+    public int waterPlantIfNotWateredSince(Long id, LocalDate day) {
+        return water(id, day, true);
+    }
+
+    @Override
+    public int patchPlant(Long id, Map<String, Object> changes, Long expectedVersion) {
+        for (String field : changes.keySet()) {
+            if (!PATCHABLE_FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+        }
+        return store.update(id, plant -> {
+            if (expectedVersion != null && !expectedVersion.equals(plant.getVersion())) {
+                return null;
+            }
+            String previousFrequency = plant.getWateringFrequency();
+            changes.forEach((field, value) -> applyChange(plant, field, value));
+            if (changes.containsKey("wateringFrequency") && !changes.containsKey("nextWatering")
+                    && !Objects.equals(previousFrequency, plant.getWateringFrequency())) {
+                plant.setNextWatering(recomputationService.nextWatering(plant.getWateringFrequency(),
+                        plant.getType(), LocalDate.now()));
+                plant.setNextWateringManual(false);
+            } else if (changes.containsKey("nextWatering")) {
+                plant.setNextWateringManual(plant.getNextWatering() != null);
+            }
+            plant.setUpdatedAt(LocalDateTime.now());
+            plant.setVersion(plant.getVersion() + 1);
+            return plant;
+        }).isPresent() ? 1 : 0;
+    }
+
+    @Override
+    public List<Plant> findAll(Sort sort) {
+        List<Plant> plants = findAll();
+        plants.sort(comparator(sort));
+        return plants;
+    }
+
+    @Override
+    public Page<Plant> findAll(Pageable pageable) {
+        List<Plant> plants = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(plants);
+        }
+        int from = (int) Math.min(pageable.getOffset(), plants.size());
+        int to = Math.min(from + pageable.getPageSize(), plants.size());
+        return new PageImpl<>(new ArrayList<>(plants.subList(from, to)), pageable, plants.size());
+    }
+
+    private int water(Long id, LocalDate day, boolean onlyForward) {
+        return store.update(id, plant -> {
+            if (onlyForward && plant.getLastWatered() != null && plant.getLastWatered().isAfter(day)) {
+                return null;
+            }
+            plant.setLastWatered(day);
+            plant.setNextWatering(recomputationService.nextWatering(plant.getWateringFrequency(), plant.getType(), day));
+            plant.setNextWateringManual(false);
+            plant.setUpdatedAt(LocalDateTime.now());
+            plant.setVersion(plant.getVersion() + 1);
+            return plant;
+        }).isPresent() ? 1 : 0;
+    }
+
+    private static Predicate<Plant> needsWatering(LocalDate today) {
+        return plant -> plant.getNextWatering() != null && !plant.getNextWatering().isAfter(today);
+    }
+
+    private static Predicate<Plant> nameContains(String name) {
+        String lower = name.toLowerCase();
+        return plant -> plant.getName() != null && plant.getName().toLowerCase().contains(lower);
+    }
+
+    private static List<PlantSummary> summaries(List<Plant> plants) {
+        return plants.stream().map(PlantSummary::from).toList();
+    }
+
+    private static void applyChange(Plant plant, String field, Object value) {
+        switch (field) {
+            case "name" -> plant.setName((String) value);
+            case "type" -> plant.setType((String) value);
+            case "wateringFrequency" -> plant.setWateringFrequency((String) value);
+            case "sunlightNeeds" -> plant.setSunlightNeeds((String) value);
+            case "careNotes" -> plant.setCareNotes((String) value);
+            case "imageUrl" -> plant.setImageUrl((String) value);
+            case "lastWatered" -> plant.setLastWatered((LocalDate) value);
+            case "nextWatering" -> plant.setNextWatering((LocalDate) value);
+            case "addedDate" -> plant.setAddedDate((LocalDate) value);
+            default -> throw new IllegalArgumentException("Field cannot be patched: " + field);
+        }
+    }
+
+    // Order by the sort's properties like ORDER BY in H2: nulls first ascending unless the order says otherwise
+    private static Comparator<Plant> comparator(Sort sort) {
+        Comparator<Plant> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> values = (a, b) -> compareValues(a, b, order.isIgnoreCase());
+            if (order.isDescending()) {
+                values = values.reversed();
+            }
+            boolean nullsFirst = order.getNullHandling() == Sort.NullHandling.NATIVE
+                    ? order.isAscending()
+                    : order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+            comparator = comparator.thenComparing(plant -> new BeanWrapperImpl(plant).getPropertyValue(order.getProperty()),
+                    nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values));
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b, boolean ignoreCase) {
+        if (ignoreCase && a instanceof String left && b instanceof String right) {
+            return left.compareToIgnoreCase(right);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+}
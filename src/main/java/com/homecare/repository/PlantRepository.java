@@ -1,18 +1,64 @@
 package com.homecare.repository;
 
+import com.homecare.dto.PlantCareProfile;
+import com.homecare.dto.PlantSummary;
+import com.homecare.dto.WateringStatus;
 import com.homecare.entity.Plant;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+// CRUD plus sorting and paging only: the JPA-specific batch, flush, reference and query-by-example methods are
+// left out so MappedPlantRepository can offer the same interface
 @Repository
-public interface PlantRepository extends JpaRepository<Plant, Long> {
+public interface PlantRepository extends ListCrudRepository<Plant, Long>, ListPagingAndSortingRepository<Plant, Long>,
+        PlantRepositoryCustom {
+    
+    // List queries run in read-only transactions with read-only hints, so Hibernate neither keeps
+    // dirty-checking snapshots of the loaded rows nor flushes before or after them.
+    
+    // Select clause of the card-view summary projection
+    String SUMMARY_SELECT = "SELECT new com.homecare.dto.PlantSummary(p.id, p.name, p.type, p.wateringFrequency, " +
+            "p.sunlightNeeds, p.lastWatered, p.nextWatering, p.addedDate, p.version) FROM Plant p";
+    
+    // Select clause of the care profile projection (the summary's attributes plus the care notes, no image)
+    String CARE_PROFILE_SELECT = "SELECT new com.homecare.dto.PlantCareProfile(p.id, p.name, p.type, " +
+            "p.sunlightNeeds, p.wateringFrequency, p.careNotes) FROM Plant p";
+    
+    // Find all plants (redeclared to add the read-only hint)
+    @Override
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Plant> findAll();
+    
+    // Find a plant by id (redeclared as a query: Hibernate applies the household filter to queries, not to
+    // loads by primary key). Like a load by key it does not flush pending changes first.
+    @Override
+    @Query("SELECT p FROM Plant p WHERE p.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<Plant> findById(@Param("id") Long id);
+    
+    // Find a plant by id for display only (read-only, so it may be served by the read replica)
+    @Transactional(readOnly = true)
+    @Query("SELECT p FROM Plant p WHERE p.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Plant> findReadOnlyById(@Param("id") Long id);
     
     // Find plants by type
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Plant> findByType(String type);
     
     // Find plants by watering frequency
@@ -23,9 +69,13 @@ public interface PlantRepository extends JpaRepository<Plant, Long> {
     
     // Find plants that need watering (next watering date is today or past)
     @Query("SELECT p FROM Plant p WHERE p.nextWatering <= :today")
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Plant> findPlantsNeedingWatering(@Param("today") LocalDate today);
     
     // Find plants by name containing (case insensitive)
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Plant> findByNameContainingIgnoreCase(String name);
     
     // Find plants by type and sunlight needs
@@ -41,6 +91,7 @@ public interface PlantRepository extends JpaRepository<Plant, Long> {
     long countByType(String type);
     
     // Count plants that need watering
+    @Transactional(readOnly = true)
     @Query("SELECT COUNT(p) FROM Plant p WHERE p.nextWatering <= :today")
     long countPlantsNeedingWatering(@Param("today") LocalDate today);
     
@@ -53,6 +104,125 @@ public interface PlantRepository extends JpaRepository<Plant, Long> {
     List<Plant> findPlantsWithoutCareNotes();
 
     //count The Total Plants
+    @Transactional(readOnly = true)
     @Query("SELECT COUNT(p) FROM Plant p")
     long findTotalPlants();
+
+    // Card-view summaries of all plants
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT)
+    List<PlantSummary> findAllSummaries();
+    
+    // Card-view summary of a single plant
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + " WHERE p.id = :id")
+    Optional<PlantSummary> findSummaryById(@Param("id") Long id);
+    
+    // Care profiles of all plants
+    @Transactional(readOnly = true)
+    @Query(CARE_PROFILE_SELECT)
+    List<PlantCareProfile> findAllCareProfiles();
+    
+    // Care profile of a single plant
+    @Transactional(readOnly = true)
+    @Query(CARE_PROFILE_SELECT + " WHERE p.id = :id")
+    Optional<PlantCareProfile> findCareProfileById(@Param("id") Long id);
+    
+    // Card-view summaries by type
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + " WHERE p.type = :type")
+    List<PlantSummary> findSummariesByType(@Param("type") String type);
+    
+    // Card-view summaries by name containing (case insensitive)
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + " WHERE UPPER(p.name) LIKE UPPER(CONCAT('%', :name, '%'))")
+    List<PlantSummary> findSummariesByNameContaining(@Param("name") String name);
+    
+    // Card-view summaries of plants that need watering
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + " WHERE p.nextWatering <= :today")
+    List<PlantSummary> findSummariesNeedingWatering(@Param("today") LocalDate today);
+
+    // Card-view summaries for a set of ids
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + " WHERE p.id IN :ids")
+    List<PlantSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Plants matching any combination of attribute filters (null parameters match everything)
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Plant p WHERE (:type IS NULL OR p.type = :type) " +
+           "AND (:sunlightNeeds IS NULL OR p.sunlightNeeds = :sunlightNeeds) " +
+           "AND (:wateringFrequency IS NULL OR p.wateringFrequency = :wateringFrequency) " +
+           "AND (:addedFrom IS NULL OR p.addedDate >= :addedFrom) " +
+           "AND (:addedTo IS NULL OR p.addedDate <= :addedTo)")
+    List<Plant> findFiltered(@Param("type") String type,
+                             @Param("sunlightNeeds") String sunlightNeeds,
+                             @Param("wateringFrequency") String wateringFrequency,
+                             @Param("addedFrom") LocalDate addedFrom,
+                             @Param("addedTo") LocalDate addedTo);
+
+    // Plant counts per type, sunlight needs and watering frequency combination
+    @Transactional(readOnly = true)
+    @Query("SELECT p.type, p.sunlightNeeds, p.wateringFrequency, COUNT(p) FROM Plant p " +
+           "GROUP BY p.type, p.sunlightNeeds, p.wateringFrequency")
+    List<Object[]> countByTypeAndSunlightNeedsAndWateringFrequency();
+    
+    // Plant counts per type
+    @Transactional(readOnly = true)
+    @Query("SELECT p.type, COUNT(p) FROM Plant p GROUP BY p.type")
+    List<Object[]> countGroupedByType();
+    
+    // Plant counts per next watering date, for plants due on or before the given day
+    @Transactional(readOnly = true)
+    @Query("SELECT p.nextWatering, COUNT(p) FROM Plant p WHERE p.nextWatering <= :today GROUP BY p.nextWatering")
+    List<Object[]> countDueByNextWatering(@Param("today") LocalDate today);
+    
+    // Plant counts per year and month of the added date
+    @Transactional(readOnly = true)
+    @Query("SELECT YEAR(p.addedDate), MONTH(p.addedDate), COUNT(p) FROM Plant p WHERE p.addedDate IS NOT NULL " +
+           "GROUP BY YEAR(p.addedDate), MONTH(p.addedDate)")
+    List<Object[]> countByAddedMonth();
+
+    // Id and next watering date of every plant that has one
+    @Transactional(readOnly = true)
+    @Query("SELECT p.id, p.nextWatering FROM Plant p WHERE p.nextWatering IS NOT NULL")
+    List<Object[]> findNextWaterings();
+
+    // Id and next watering date (null when there is none) of every plant with an id in the inclusive range
+    @Transactional(readOnly = true)
+    @Query("SELECT p.id, p.nextWatering FROM Plant p WHERE p.id BETWEEN :fromId AND :toId")
+    List<Object[]> findNextWateringsBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Current optimistic locking version of a plant
+    @Query("SELECT p.version FROM Plant p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Watering fields of a plant (skips the image and care notes columns)
+    @Query("SELECT new com.homecare.dto.WateringStatus(p.id, p.lastWatered, p.nextWatering, p.updatedAt, p.version) " +
+           "FROM Plant p WHERE p.id = :id")
+    Optional<WateringStatus> findWateringStatusById(@Param("id") Long id);
+
+    // Water a plant on the given day and read its watering fields back in the same transaction, so the version
+    // is the one this watering wrote; empty when the plant does not exist
+    @Transactional
+    default Optional<WateringStatus> waterPlantReturningStatus(Long id, LocalDate today) {
+        return waterPlant(id, today) == 0 ? Optional.empty() : findWateringStatusById(id);
+    }
+
+    // Apply a merge-patch and read the version it wrote in the same transaction; empty when the plant is missing
+    // or the expected version is stale
+    @Transactional
+    default Optional<Long> patchPlantReturningVersion(Long id, Map<String, Object> changes, Long expectedVersion) {
+        return patchPlant(id, changes, expectedVersion) == 0 ? Optional.empty() : findVersionById(id);
+    }
+
+    // Delete a plant and return the version it had; empty when there was no such plant. The delete is checked
+    // against that version, so a write committed in between fails it instead of going unreported.
+    @Transactional
+    default Optional<Long> deleteByIdReturningVersion(Long id) {
+        Optional<Plant> plant = findById(id);
+        plant.ifPresent(this::delete);
+        return plant.map(Plant::getVersion);
+    }
 }
@@ -0,0 +1,36 @@
+package com.homecare.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Repository operations that need hand-built queries.
+ */
+public interface PlantRepositoryCustom {
+
+    // Plant attributes a merge-patch may change, with their Java types
+    Map<String, Class<?>> PATCHABLE_FIELDS = Map.of(
+            "name", String.class,
+            "type", String.class,
+            "wateringFrequency", String.class,
+            "sunlightNeeds", String.class,
+            "careNotes", String.class,
+            "imageUrl", String.class,
+            "lastWatered", LocalDate.class,
+            "nextWatering", LocalDate.class,
+            "addedDate", LocalDate.class);
+
+    // Apply a partial update with one UPDATE statement that sets only the given attributes.
+    // When expectedVersion is not null the row is only touched if its version still matches.
+    // Returns the number of rows updated (0 when the plant is missing or the version is stale).
+    int patchPlant(Long id, Map<String, Object> changes, Long expectedVersion);
+
+    // Water a plant on the given day with a single UPDATE: only last_watered, next_watering, updated_at and
+    // version are written, and the next watering date (season rules included) is computed in SQL so the row
+    // never has to be loaded first. Returns the number of rows touched (0 when the plant does not exist).
+    int waterPlant(Long id, LocalDate today);
+
+    // Same UPDATE, skipped when a later watering is already recorded, so late or replayed waterings never move
+    // lastWatered back; returns the number of rows touched
+    int waterPlantIfNotWateredSince(Long id, LocalDate day);
+}
@@ -0,0 +1,111 @@
+package com.homecare.repository;
+
+import com.homecare.service.ScheduleRecomputationService;
+import com.homecare.service.WateringSchedule;
+import com.homecare.sharding.HouseholdContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class PlantRepositoryCustomImpl implements PlantRepositoryCustom {
+
+    // Native SQL, as JPQL cannot reach the season rules table; Hibernate does not add the household to native
+    // statements, so the WHERE clause does
+    private static final String WATER_PLANT_UPDATE = "UPDATE plants p SET last_watered = :today, "
+            + "next_watering = " + WateringSchedule.nextWateringSql("CAST(:today AS DATE)", "MONTH(CAST(:today AS DATE))") + ", "
+            + "next_watering_manual = FALSE, updated_at = :now, version = version + 1 "
+            + "WHERE p.id = :id AND p.household_id = :household";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+
+    @Override
+    @Transactional
+    public int patchPlant(Long id, Map<String, Object> changes, Long expectedVersion) {
+        StringBuilder jpql = new StringBuilder("UPDATE Plant p SET ");
+        for (String field : changes.keySet()) {
+            if (!PATCHABLE_FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+            jpql.append("p.").append(field).append(" = :").append(field).append(", ");
+        }
+
+        // A new watering frequency reschedules the plant unless the patch sets the date itself.
+        // The CASE compares against the stored value so an unchanged frequency keeps its date.
+        // A date set by the patch is the client's own and is kept by the nightly recomputation.
+        boolean reschedule = changes.containsKey("wateringFrequency") && !changes.containsKey("nextWatering");
+        if (reschedule) {
+            jpql.append("p.nextWatering = CASE WHEN p.wateringFrequency = :wateringFrequency ")
+                .append("THEN p.nextWatering ELSE :rescheduledWatering END, ")
+                .append("p.nextWateringManual = CASE WHEN p.wateringFrequency = :wateringFrequency ")
+                .append("THEN p.nextWateringManual ELSE false END, ");
+        } else if (changes.containsKey("nextWatering")) {
+            jpql.append("p.nextWateringManual = ").append(changes.get("nextWatering") != null).append(", ");
+        }
+
+        jpql.append("p.updatedAt = :now, p.version = p.version + 1 WHERE p.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" AND p.version = :expectedVersion");
+        }
+
+        Query query = entityManager.createQuery(jpql.toString());
+        changes.forEach(query::setParameter);
+        if (reschedule) {
+            String type = changes.containsKey("type") ? (String) changes.get("type") : typeOf(id);
+            query.setParameter("rescheduledWatering", recomputationService.nextWatering(
+                    (String) changes.get("wateringFrequency"), type, LocalDate.now()));
+        }
+        query.setParameter("now", LocalDateTime.now());
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+
+        int updated = query.executeUpdate();
+        // Drop any managed copy so later reads in this context see the patched row
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int waterPlant(Long id, LocalDate today) {
+        return water(WATER_PLANT_UPDATE, id, today);
+    }
+
+    @Override
+    @Transactional
+    public int waterPlantIfNotWateredSince(Long id, LocalDate day) {
+        return water(WATER_PLANT_UPDATE + " AND (p.last_watered IS NULL OR p.last_watered <= :today)", id, day);
+    }
+
+    private int water(String sql, Long id, LocalDate day) {
+        entityManager.flush();
+        int updated = entityManager.createNativeQuery(sql)
+                .setParameter("today", day)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("id", id)
+                .setParameter("household", HouseholdContext.current())
+                .executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    // Stored type of a plant, null when there is no such plant
+    private String typeOf(Long id) {
+        List<String> types = entityManager.createQuery("SELECT p.type FROM Plant p WHERE p.id = :id", String.class)
+                .setParameter("id", id)
+                .getResultList();
+        return types.isEmpty() ? null : types.get(0);
+    }
+}
@@ -0,0 +1,20 @@
+package com.homecare.repository;
+
+/**
+ * Plain-JDBC shape of a plants row, for copying plants between databases (shard moves, the read replica).
+ * Copies keep the row's id, household and version.
+ */
+public final class PlantRows {
+
+    // Every stored column except the generated watering_interval_days
+    public static final String COLUMNS = "id, household_id, name, type, watering_frequency, sunlight_needs, "
+            + "care_notes, image_url, last_watered, next_watering, next_watering_manual, added_date, created_at, "
+            + "updated_at, version";
+
+    // Insert-or-replace of one row, parameters in COLUMNS order
+    public static final String UPSERT = "MERGE INTO plants (" + COLUMNS + ") KEY (id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private PlantRows() {
+    }
+}
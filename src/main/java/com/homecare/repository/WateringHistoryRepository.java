@@ -0,0 +1,107 @@
+package com.homecare.repository;
+
+import com.homecare.dto.WateringRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC access to the append-only watering event log and its per-plant rollups.
+ */
+@Repository
+public class WateringHistoryRepository {
+
+    public static final String DAY = "DAY";
+    public static final String WEEK = "WEEK";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Most ids bound into one IN list
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    // One watering event as written to the log
+    public record WateringEvent(Long plantId, LocalDateTime wateredAt, String source) {
+    }
+
+    // Rollup increment for one plant and period
+    public record RollupIncrement(Long plantId, String granularity, LocalDate periodStart, int waterings) {
+    }
+
+    public void insertEvents(List<WateringEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO watering_events (plant_id, watered_at, source) VALUES (?, ?, ?)",
+                events, events.size(), (ps, event) -> {
+                    ps.setLong(1, event.plantId());
+                    ps.setTimestamp(2, Timestamp.valueOf(event.wateredAt()));
+                    ps.setString(3, event.source());
+                });
+    }
+
+    // Add the increments to the per-plant rollups, creating missing periods
+    public void addPlantRollups(List<RollupIncrement> increments) {
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO plant_watering_rollups r "
+                        + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(5)), CAST(? AS DATE), CAST(? AS INT))) "
+                        + "AS s (plant_id, granularity, period_start, waterings) "
+                        + "ON r.plant_id = s.plant_id AND r.granularity = s.granularity "
+                        + "AND r.period_start = s.period_start "
+                        + "WHEN MATCHED THEN UPDATE SET waterings = r.waterings + s.waterings "
+                        + "WHEN NOT MATCHED THEN INSERT (plant_id, granularity, period_start, waterings) "
+                        + "VALUES (s.plant_id, s.granularity, s.period_start, s.waterings)",
+                increments, increments.size(), (ps, increment) -> {
+                    ps.setLong(1, increment.plantId());
+                    ps.setString(2, increment.granularity());
+                    ps.setDate(3, Date.valueOf(increment.periodStart()));
+                    ps.setInt(4, increment.waterings());
+                });
+    }
+
+    public List<WateringRollup> findPlantRollups(Long plantId, String granularity, LocalDate from, LocalDate to) {
+        return findRollups(List.of(plantId), granularity, from, to);
+    }
+
+    // Rollups of several plants added up per period
+    public List<WateringRollup> sumPlantRollups(List<Long> plantIds, String granularity, LocalDate from, LocalDate to) {
+        Map<LocalDate, Integer> sums = new TreeMap<>();
+        for (int start = 0; start < plantIds.size(); start += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = plantIds.subList(start, Math.min(start + MAX_IDS_PER_QUERY, plantIds.size()));
+            for (WateringRollup rollup : findRollups(chunk, granularity, from, to)) {
+                sums.merge(rollup.periodStart(), rollup.waterings(), Integer::sum);
+            }
+        }
+        List<WateringRollup> rollups = new ArrayList<>(sums.size());
+        sums.forEach((periodStart, waterings) -> rollups.add(new WateringRollup(periodStart, waterings)));
+        return rollups;
+    }
+
+    private List<WateringRollup> findRollups(List<Long> plantIds, String granularity, LocalDate from, LocalDate to) {
+        List<WateringRollup> rollups = new ArrayList<>();
+        if (plantIds.isEmpty()) {
+            return rollups;
+        }
+        String placeholders = String.join(",", Collections.nCopies(plantIds.size(), "?"));
+        List<Object> args = new ArrayList<>(plantIds);
+        args.add(granularity);
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        jdbcTemplate.query("SELECT period_start, SUM(waterings) FROM plant_watering_rollups "
+                        + "WHERE plant_id IN (" + placeholders + ") AND granularity = ? AND period_start BETWEEN ? AND ? "
+                        + "GROUP BY period_start ORDER BY period_start",
+                rs -> {
+                    rollups.add(new WateringRollup(rs.getDate(1).toLocalDate(), rs.getInt(2)));
+                },
+                args.toArray());
+        return rollups;
+    }
+}
@@ -0,0 +1,284 @@
+package com.homecare.service;
+
+import com.homecare.catalog.PlantCatalogSnapshot;
+import com.homecare.dto.PlantAnalytics;
+import com.homecare.dto.PlantAnalytics.CrossTabCell;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.sharding.HouseholdContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the dashboard facets (type x sunlight x frequency counts, overdue-days histogram, plants added per
+ * month) in one pass over the catalog snapshot, split across cores with fork/join. Results are cached until
+ * the next plant write or the next day. When the snapshot is unavailable each facet is one grouped SQL query.
+ */
+@Service
+public class PlantAnalyticsService {
+
+    // Rows handled by one fork/join leaf
+    private static final int LEAF_ROWS = 16_384;
+
+    // Largest dense type x sunlight x frequency table; beyond this the grouped SQL queries are used
+    private static final int MAX_CROSS_TAB_CELLS = 1 << 16;
+
+    private static final String[] OVERDUE_BUCKETS = {"0", "1", "2", "3", "4-7", "8-14", "15-30", "31+"};
+
+    @Autowired
+    private PlantCatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicReference<CachedAnalytics> cache = new AtomicReference<>();
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        writes.incrementAndGet();
+        cache.set(null);
+    }
+
+    public PlantAnalytics getAnalytics(LocalDate today) {
+        if (!HouseholdContext.isDefault()) {
+            // The cache and the snapshot both belong to the default household
+            return computeFromDatabase(today);
+        }
+        long writeCount = writes.get();
+        CachedAnalytics cached = cache.get();
+        if (cached != null && cached.writeCount() == writeCount && cached.today().equals(today)
+                && (!catalogSnapshot.isAvailable() || cached.generation() == catalogSnapshot.getGeneration())) {
+            return cached.analytics();
+        }
+
+        CachedAnalytics computed = catalogSnapshot.isAvailable()
+                ? catalogSnapshot.read(columns -> computeFromSnapshot(columns, today, writeCount))
+                : null;
+        if (computed == null) {
+            computed = new CachedAnalytics(writeCount, -1, today, computeFromDatabase(today));
+        }
+        cache.set(computed);
+        return computed.analytics();
+    }
+
+    // Fork/join pass over the snapshot columns; runs under the snapshot read lock
+    private CachedAnalytics computeFromSnapshot(PlantCatalogSnapshot.Columns columns, LocalDate today, long writeCount) {
+        int cells = columns.typeCount() * columns.sunlightCount() * columns.frequencyCount();
+        if (cells > MAX_CROSS_TAB_CELLS) {
+            return null;
+        }
+
+        // One cheap pass for the added-date range, so each leaf can count months in a dense array
+        int minMonth = Integer.MAX_VALUE;
+        int maxMonth = Integer.MIN_VALUE;
+        int[] added = columns.addedDays();
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        for (int row = 0; row < columns.size(); row++) {
+            int day = added[row];
+            if (day != PlantCatalogSnapshot.Columns.NO_DATE) {
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+            }
+        }
+        if (minDay <= maxDay) {
+            minMonth = monthIndex(minDay);
+            maxMonth = monthIndex(maxDay);
+        }
+        int monthCount = minDay <= maxDay ? maxMonth - minMonth + 1 : 0;
+
+        FacetCounts counts = ForkJoinPool.commonPool().invoke(new FacetTask(columns, 0, columns.size(),
+                (int) today.toEpochDay(), cells, minMonth, monthCount));
+
+        List<CrossTabCell> crossTab = new ArrayList<>();
+        int sunlightCount = columns.sunlightCount();
+        int frequencyCount = columns.frequencyCount();
+        for (int cell = 0; cell < cells; cell++) {
+            if (counts.crossTab[cell] > 0) {
+                int type = cell / (sunlightCount * frequencyCount);
+                int sunlight = (cell / frequencyCount) % sunlightCount;
+                int frequency = cell % frequencyCount;
+                crossTab.add(new CrossTabCell(columns.types().apply(type), columns.sunlightLevels().apply(sunlight),
+                        columns.frequencies().apply(frequency), counts.crossTab[cell]));
+            }
+        }
+
+        Map<String, Long> overdueDays = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < OVERDUE_BUCKETS.length; bucket++) {
+            overdueDays.put(OVERDUE_BUCKETS[bucket], counts.overdue[bucket]);
+        }
+
+        Map<String, Long> addedPerMonth = new LinkedHashMap<>();
+        for (int month = 0; month < monthCount; month++) {
+            if (counts.months[month] > 0) {
+                int index = minMonth + month;
+                addedPerMonth.put(YearMonth.of(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1).toString(),
+                        counts.months[month]);
+            }
+        }
+
+        PlantAnalytics analytics = new PlantAnalytics(columns.size(), crossTab, overdueDays, addedPerMonth, today);
+        return new CachedAnalytics(writeCount, catalogSnapshot.getGeneration(), today, analytics);
+    }
+
+    // One grouped query per facet
+    private PlantAnalytics computeFromDatabase(LocalDate today) {
+        long total = 0;
+        List<CrossTabCell> crossTab = new ArrayList<>();
+        for (Object[] row : plantRepository.countByTypeAndSunlightNeedsAndWateringFrequency()) {
+            long count = ((Number) row[3]).longValue();
+            crossTab.add(new CrossTabCell((String) row[0], (String) row[1], (String) row[2], count));
+            total += count;
+        }
+
+        Map<String, Long> overdueDays = new LinkedHashMap<>();
+        for (String bucket : OVERDUE_BUCKETS) {
+            overdueDays.put(bucket, 0L);
+        }
+        for (Object[] row : plantRepository.countDueByNextWatering(today)) {
+            int daysLate = (int) ChronoUnit.DAYS.between((LocalDate) row[0], today);
+            overdueDays.merge(OVERDUE_BUCKETS[overdueBucket(daysLate)], ((Number) row[1]).longValue(), Long::sum);
+        }
+
+        Map<String, Long> addedPerMonth = new TreeMap<>();
+        for (Object[] row : plantRepository.countByAddedMonth()) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            addedPerMonth.put(month.toString(), ((Number) row[2]).longValue());
+        }
+
+        return new PlantAnalytics(total, crossTab, overdueDays, new LinkedHashMap<>(addedPerMonth), today);
+    }
+
+    static int overdueBucket(int daysLate) {
+        if (daysLate <= 3) {
+            return daysLate;
+        } else if (daysLate <= 7) {
+            return 4;
+        } else if (daysLate <= 14) {
+            return 5;
+        } else if (daysLate <= 30) {
+            return 6;
+        }
+        return 7;
+    }
+
+    // Months since year 0 (year * 12 + month - 1) of an epoch day, without allocating a LocalDate
+    static int monthIndex(int epochDay) {
+        // Civil-from-days conversion (Howard Hinnant's algorithm), with March-based years
+        long z = epochDay + 719_468L;
+        long era = Math.floorDiv(z, 146_097L);
+        long dayOfEra = z - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthPart = (5 * dayOfYear + 2) / 153;
+        long month = monthPart < 10 ? monthPart + 3 : monthPart - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    private record CachedAnalytics(long writeCount, long generation, LocalDate today, PlantAnalytics analytics) {
+    }
+
+    private static final class FacetCounts {
+        private final long[] crossTab;
+        private final long[] overdue = new long[OVERDUE_BUCKETS.length];
+        private final long[] months;
+
+        private FacetCounts(int cells, int monthCount) {
+            crossTab = new long[cells];
+            months = new long[monthCount];
+        }
+
+        private FacetCounts merge(FacetCounts other) {
+            for (int i = 0; i < crossTab.length; i++) {
+                crossTab[i] += other.crossTab[i];
+            }
+            for (int i = 0; i < overdue.length; i++) {
+                overdue[i] += other.overdue[i];
+            }
+            for (int i = 0; i < months.length; i++) {
+                months[i] += other.months[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class FacetTask extends RecursiveTask<FacetCounts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PlantCatalogSnapshot.Columns columns;
+        private final int from;
+        private final int to;
+        private final int today;
+        private final int cells;
+        private final int minMonth;
+        private final int monthCount;
+
+        private FacetTask(PlantCatalogSnapshot.Columns columns, int from, int to, int today, int cells,
+                          int minMonth, int monthCount) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.today = today;
+            this.cells = cells;
+            this.minMonth = minMonth;
+            this.monthCount = monthCount;
+        }
+
+        @Override
+        protected FacetCounts compute() {
+            if (to - from <= LEAF_ROWS) {
+                return countRows();
+            }
+            int middle = (from + to) >>> 1;
+            FacetTask left = new FacetTask(columns, from, middle, today, cells, minMonth, monthCount);
+            FacetTask right = new FacetTask(columns, middle, to, today, cells, minMonth, monthCount);
+            left.fork();
+            FacetCounts rightCounts = right.compute();
+            return left.join().merge(rightCounts);
+        }
+
+        private FacetCounts countRows() {
+            FacetCounts counts = new FacetCounts(cells, monthCount);
+            byte[] types = columns.typeCodes();
+            byte[] sunlight = columns.sunlightCodes();
+            byte[] frequencies = columns.frequencyCodes();
+            int[] added = columns.addedDays();
+            int[] next = columns.nextWateringDays();
+            int sunlightCount = columns.sunlightCount();
+            int frequencyCount = columns.frequencyCount();
+            for (int row = from; row < to; row++) {
+                int cell = ((types[row] & 0xFF) * sunlightCount + (sunlight[row] & 0xFF)) * frequencyCount
+                        + (frequencies[row] & 0xFF);
+                counts.crossTab[cell]++;
+
+                int nextDay = next[row];
+                if (nextDay != PlantCatalogSnapshot.Columns.NO_DATE && nextDay <= today) {
+                    counts.overdue[overdueBucket(today - nextDay)]++;
+                }
+
+                int addedDay = added[row];
+                if (addedDay != PlantCatalogSnapshot.Columns.NO_DATE) {
+                    counts.months[monthIndex(addedDay) - minMonth]++;
+                }
+            }
+            return counts;
+        }
+    }
+}
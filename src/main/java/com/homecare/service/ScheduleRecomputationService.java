@@ -0,0 +1,276 @@
+package com.homecare.service;
+
+import com.homecare.cluster.ClusterJobLock;
+import com.homecare.dto.ScheduleRecomputeReport;
+import com.homecare.dto.SeasonRule;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.entity.Plant;
+import com.homecare.sharding.ShardRouter;
+import com.homecare.storage.MappedPlantStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nightly recomputation of every plant's next watering date from its last watering, its normalized interval
+ * (plants.watering_interval_days, a calendar month for monthly plants) and the seasonal rules in force on the
+ * run date. Plants whose next watering date a client set (next_watering_manual) are left alone. The work is done by set-based
+ * UPDATE statements over id ranges of chunk-size rows, each committing on its own, so no row is loaded into
+ * the application and a long run never holds locks on the whole table. Only rows whose date actually changes
+ * are written. With several shards each one is recomputed in turn. In the "mapped" profile the plants live in the
+ * MappedPlantStore rather than the plants table, so the same calculation runs over the store, chunk by chunk.
+ *
+ * The rules also apply to every date scheduled between runs (watering, create, update and patch). Writes that
+ * compute the date in SQL read the rules of the shard they run on, so each shard keeps a copy of the home
+ * shard's rules, refreshed at startup and whenever a rule is added or deleted; writes that compute it in the
+ * application use nextWatering, which reads the rules at most once a second.
+ */
+@Service
+public class ScheduleRecomputationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleRecomputationService.class);
+
+    static final String RECOMPUTE_JOB = "schedule-recompute";
+
+    // Longest the rules read for nextWatering are reused, so rules changed on another instance apply soon
+    private static final long RULES_MAX_AGE_MS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Only present in the "mapped" profile
+    @Autowired(required = false)
+    private MappedPlantStore mappedStore;
+
+    @Autowired(required = false)
+    private ClusterJobLock jobLock;
+
+    // How long the instance running the nightly recompute keeps the others from running it too
+    @Value("${plantcare.schedule.recompute-lease-ms:3600000}")
+    private long recomputeLeaseMs;
+
+    @Value("${plantcare.schedule.chunk-size:10000}")
+    private int chunkSize;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicReference<ScheduleRecomputeReport> lastReport = new AtomicReference<>();
+    private volatile CachedRules cachedRules;
+
+    private record CachedRules(List<SeasonRule> rules, long readAt) {
+    }
+
+    // In a cluster the nightly run fires on every instance; only the one that takes the lease runs it
+    @Scheduled(cron = "${plantcare.schedule.recompute-cron:0 30 2 * * *}")
+    public void recomputeNightly() {
+        if (jobLock == null || jobLock.tryAcquire(RECOMPUTE_JOB, recomputeLeaseMs)) {
+            recompute(LocalDate.now());
+        }
+    }
+
+    // Recompute the whole catalog for the given day; returns null when a run is already in progress
+    public ScheduleRecomputeReport recompute(LocalDate runDate) {
+        if (!running.tryLock()) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            int month = runDate.getMonthValue();
+            List<SeasonRule> rules = getSeasonRules();
+            List<String> applied = rules.stream()
+                    .filter(rule -> rule.appliesIn(month))
+                    .map(SeasonRule::name)
+                    .toList();
+
+            long rowsUpdated = 0;
+            int chunks = 0;
+            // Id ranges of the chunks that changed, so views can refresh those plants rather than every plant
+            List<PlantChangedEvent.IdRange> changed = new ArrayList<>();
+            if (mappedStore != null) {
+                List<SeasonRule> inForce = rules.stream().filter(rule -> rule.appliesIn(month)).toList();
+                List<Long> ids = mappedStore.find(plant -> plant.getLastWatered() != null).stream()
+                        .map(Plant::getId)
+                        .toList();
+                for (int from = 0; from < ids.size(); from += chunkSize) {
+                    LocalDateTime now = LocalDateTime.now();
+                    long lowest = Long.MAX_VALUE;
+                    long highest = Long.MIN_VALUE;
+                    for (Long id : ids.subList(from, Math.min(from + chunkSize, ids.size()))) {
+                        if (mappedStore.update(id, plant -> recompute(plant, inForce, now)).isPresent()) {
+                            rowsUpdated++;
+                            lowest = Math.min(lowest, id);
+                            highest = Math.max(highest, id);
+                        }
+                    }
+                    if (lowest <= highest) {
+                        changed.add(new PlantChangedEvent.IdRange(lowest, highest));
+                    }
+                    chunks++;
+                }
+            } else {
+                String sql = recomputeSql(month);
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                    JdbcTemplate plants = jdbcTemplate;
+                    if (shard != ShardRouter.HOME_SHARD) {
+                        // The rules live on the home shard; the UPDATE reads them from the shard it runs on
+                        plants = new JdbcTemplate(shardRouter.getShard(shard));
+                        copySeasonRules(plants, rules);
+                    }
+                    // Chunks end at the chunk-size'th id from their start, so households moved in from another
+                    // shard's id block do not leave millions of empty ranges in between
+                    long from = 0;
+                    Long to;
+                    while ((to = plants.queryForObject("SELECT MAX(id) FROM (SELECT id FROM plants WHERE id >= ? "
+                            + "ORDER BY id LIMIT ?)", Long.class, from, chunkSize)) != null) {
+                        int updated = plants.update(sql, now, from, to);
+                        if (updated > 0) {
+                            changed.add(new PlantChangedEvent.IdRange(from, to));
+                            rowsUpdated += updated;
+                        }
+                        chunks++;
+                        from = to + 1;
+                    }
+                }
+            }
+
+            if (rowsUpdated > 0) {
+                eventPublisher.publishEvent(PlantChangedEvent.bulk(changed));
+            }
+            ScheduleRecomputeReport report = new ScheduleRecomputeReport(runDate, applied, chunks, rowsUpdated,
+                    (System.nanoTime() - start) / 1_000_000, LocalDateTime.now());
+            lastReport.set(report);
+            logger.info("Recomputed watering schedule for {}: {} rows updated in {} chunks, {} ms, season rules {}",
+                    runDate, rowsUpdated, chunks, report.durationMs(), applied);
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public ScheduleRecomputeReport getLastReport() {
+        return lastReport.get();
+    }
+
+    // Next watering date of a plant counted from the given day, under the season rules in force in that month
+    public LocalDate nextWatering(String wateringFrequency, String type, LocalDate from) {
+        CachedRules cached = cachedRules;
+        long now = System.currentTimeMillis();
+        if (cached == null || now - cached.readAt() > RULES_MAX_AGE_MS) {
+            cached = new CachedRules(getSeasonRules(), now);
+            cachedRules = cached;
+        }
+        int month = from.getMonthValue();
+        List<SeasonRule> inForce = cached.rules().stream().filter(rule -> rule.appliesIn(month)).toList();
+        return WateringSchedule.calculateNextWatering(wateringFrequency, type, from, inForce);
+    }
+
+    public List<SeasonRule> getSeasonRules() {
+        return jdbcTemplate.query("SELECT id, name, start_month, end_month, plant_type, interval_multiplier "
+                        + "FROM watering_season_rules ORDER BY id",
+                (rs, row) -> new SeasonRule(rs.getLong("id"), rs.getString("name"), rs.getInt("start_month"),
+                        rs.getInt("end_month"), rs.getString("plant_type"), rs.getBigDecimal("interval_multiplier")));
+    }
+
+    public SeasonRule addSeasonRule(SeasonRule rule) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO watering_season_rules "
+                    + "(name, start_month, end_month, plant_type, interval_multiplier) VALUES (?, ?, ?, ?, ?)",
+                    new String[]{"id"});
+            statement.setString(1, rule.name());
+            statement.setInt(2, rule.startMonth());
+            statement.setInt(3, rule.endMonth());
+            statement.setString(4, rule.plantType());
+            statement.setBigDecimal(5, rule.intervalMultiplier());
+            return statement;
+        }, keyHolder);
+        seasonRulesChanged();
+        return new SeasonRule(keyHolder.getKey().longValue(), rule.name(), rule.startMonth(), rule.endMonth(), rule.plantType(),
+                rule.intervalMultiplier());
+    }
+
+    public boolean deleteSeasonRule(Long id) {
+        boolean deleted = jdbcTemplate.update("DELETE FROM watering_season_rules WHERE id = ?", id) > 0;
+        seasonRulesChanged();
+        return deleted;
+    }
+
+    // Give every other shard a copy of the home shard's rules for the watering UPDATEs running there
+    @EventListener(ApplicationReadyEvent.class)
+    public void copySeasonRulesToShards() {
+        if (shardRouter.getShardCount() == 1) {
+            return;
+        }
+        List<SeasonRule> rules = getSeasonRules();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            if (shard != ShardRouter.HOME_SHARD) {
+                copySeasonRules(new JdbcTemplate(shardRouter.getShard(shard)), rules);
+            }
+        }
+    }
+
+    private void seasonRulesChanged() {
+        cachedRules = null;
+        copySeasonRulesToShards();
+    }
+
+    // Replace a shard's copy of the season rules with the home shard's
+    private static void copySeasonRules(JdbcTemplate shard, List<SeasonRule> rules) {
+        shard.update("DELETE FROM watering_season_rules");
+        shard.batchUpdate("INSERT INTO watering_season_rules "
+                        + "(id, name, start_month, end_month, plant_type, interval_multiplier) VALUES (?, ?, ?, ?, ?, ?)",
+                rules.stream()
+                        .map(rule -> new Object[]{rule.id(), rule.name(), rule.startMonth(), rule.endMonth(),
+                                rule.plantType(), rule.intervalMultiplier()})
+                        .toList());
+    }
+
+    // The UPDATE of recomputeSql for one stored plant; null when its date does not change
+    private static Plant recompute(Plant plant, List<SeasonRule> inForce, LocalDateTime now) {
+        if (plant.getLastWatered() == null || plant.isNextWateringManual()) {
+            return null;
+        }
+        LocalDate nextWatering = WateringSchedule.calculateNextWatering(plant.getWateringFrequency(), plant.getType(),
+                plant.getLastWatered(), inForce);
+        if (Objects.equals(nextWatering, plant.getNextWatering())) {
+            return null;
+        }
+        plant.setNextWatering(nextWatering);
+        plant.setUpdatedAt(now);
+        plant.setVersion(plant.getVersion() + 1);
+        return plant;
+    }
+
+    // The run month is a plain integer, so it is inlined rather than bound three times per row
+    private static String recomputeSql(int month) {
+        String nextWatering = WateringSchedule.nextWateringSql("p.last_watered", String.valueOf(month));
+        return "UPDATE plants p SET next_watering = " + nextWatering + ", updated_at = ?, version = version + 1 "
+                + "WHERE p.id BETWEEN ? AND ? AND p.last_watered IS NOT NULL AND p.next_watering_manual = FALSE "
+                + "AND p.next_watering IS DISTINCT FROM " + nextWatering;
+    }
+}
@@ -0,0 +1,198 @@
+package com.homecare.service;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.dto.WateringAdherence;
+import com.homecare.dto.WateringRollup;
+import com.homecare.repository.PlantRepository;
+import com.homecare.repository.WateringHistoryRepository;
+import com.homecare.repository.WateringHistoryRepository.RollupIncrement;
+import com.homecare.repository.WateringHistoryRepository.WateringEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Watering history: events are queued by the request threads and written in batches by a scheduled flush,
+ * which appends them to the event log and adds them to the daily and weekly per-plant rollups in the same
+ * transaction. History and adherence reads only touch the rollups; a type's adherence sums the rollups of the
+ * plants that have the type now, so a plant's history moves with it when its type changes.
+ *
+ * A batch whose write fails is kept and written before anything newer, and once the queue is full and still
+ * cannot be written, recording fails rather than making room by dropping history.
+ */
+@Service
+public class WateringHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WateringHistoryService.class);
+
+    @Autowired
+    private WateringHistoryRepository historyRepository;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${plantcare.history.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${plantcare.history.queue-capacity:100000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Watering> queue;
+    // Batch taken off the queue whose write failed; written again before anything else is drained
+    private final List<Watering> pending = new ArrayList<>();
+
+    // One watering to put into the history
+    public record Watering(Long plantId, LocalDateTime wateredAt, String source) {
+    }
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    // Queue a watering event; flushed asynchronously. Fails when the queue is full and cannot be written.
+    public void record(Long plantId, LocalDateTime wateredAt, String source) {
+        Watering watering = new Watering(plantId, wateredAt, source);
+        while (!queue.offer(watering)) {
+            // Ingestion is falling behind; write batches on this thread until there is room rather than
+            // dropping history
+            if (!writeQueued() && queue.remainingCapacity() == 0) {
+                throw new IllegalStateException("Watering history queue is full and the database is not taking writes");
+            }
+        }
+    }
+
+    // Write waterings right away instead of queueing them, in the caller's transaction if it has one
+    public void write(List<Watering> waterings) {
+        if (!waterings.isEmpty()) {
+            writeBatch(waterings);
+        }
+    }
+
+    // Write everything queued so far, one batch transaction at a time
+    @Scheduled(fixedDelayString = "${plantcare.history.flush-interval-ms:500}")
+    public void flush() {
+        writeQueued();
+    }
+
+    // Write batches until the queue is empty or a write fails; a failed batch is kept and retried first next
+    // time, so a database outage delays history but never loses it. Returns whether everything was written.
+    private synchronized boolean writeQueued() {
+        while (!pending.isEmpty() || queue.drainTo(pending, batchSize) > 0) {
+            try {
+                writeBatch(pending);
+            } catch (RuntimeException e) {
+                logger.error("Failed to write {} watering events, keeping them for the next flush", pending.size(), e);
+                return false;
+            }
+            pending.clear();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Daily or weekly waterings of one plant, oldest first
+    public List<WateringRollup> getPlantHistory(Long plantId, String granularity, LocalDate from, LocalDate to) {
+        return historyRepository.findPlantRollups(plantId, granularity, periodStart(granularity, from), to);
+    }
+
+    // Watering adherence of one plant over the last weeks; days before the plant was added expect no waterings
+    public WateringAdherence getPlantAdherence(Long plantId, String wateringFrequency, LocalDate addedDate,
+                                               int weeks, LocalDate today) {
+        LocalDate from = weekStart(today).minusWeeks(weeks - 1);
+        List<WateringRollup> weekly = historyRepository.findPlantRollups(plantId, WateringHistoryRepository.WEEK, from, today);
+        LocalDate expectedFrom = addedDate != null && addedDate.isAfter(from) ? addedDate : from;
+        double expected = expectedFrom.isAfter(today) ? 0 : expectedWaterings(wateringFrequency, expectedFrom, today);
+        return adherence("plant", String.valueOf(plantId), weeks, expected, weekly);
+    }
+
+    // Watering adherence of the current household's plants of a type over the last weeks; like a single
+    // plant's, each plant only expects waterings from the day it was added
+    public WateringAdherence getTypeAdherence(String type, int weeks, LocalDate today) {
+        LocalDate from = weekStart(today).minusWeeks(weeks - 1);
+        List<PlantSummary> plants = plantRepository.findSummariesByType(type);
+        double expected = 0;
+        for (PlantSummary plant : plants) {
+            LocalDate expectedFrom = plant.addedDate() != null && plant.addedDate().isAfter(from) ? plant.addedDate() : from;
+            if (!expectedFrom.isAfter(today)) {
+                expected += expectedWaterings(plant.wateringFrequency(), expectedFrom, today);
+            }
+        }
+        List<Long> plantIds = plants.stream().map(PlantSummary::id).toList();
+        List<WateringRollup> weekly = historyRepository.sumPlantRollups(plantIds, WateringHistoryRepository.WEEK, from, today);
+        return adherence("type", type, weeks, expected, weekly);
+    }
+
+    private void writeBatch(List<Watering> batch) {
+        List<WateringEvent> events = new ArrayList<>(batch.size());
+        Map<RollupKey, Integer> plantRollups = new LinkedHashMap<>();
+        for (Watering watering : batch) {
+            events.add(new WateringEvent(watering.plantId(), watering.wateredAt(), watering.source()));
+
+            LocalDate day = watering.wateredAt().toLocalDate();
+            plantRollups.merge(new RollupKey(watering.plantId(), WateringHistoryRepository.DAY, day), 1, Integer::sum);
+            plantRollups.merge(new RollupKey(watering.plantId(), WateringHistoryRepository.WEEK, weekStart(day)), 1, Integer::sum);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            historyRepository.insertEvents(events);
+            historyRepository.addPlantRollups(increments(plantRollups));
+        });
+        logger.debug("Wrote {} watering events", events.size());
+    }
+
+    private record RollupKey(Long plantId, String granularity, LocalDate periodStart) {
+    }
+
+    private static List<RollupIncrement> increments(Map<RollupKey, Integer> rollups) {
+        List<RollupIncrement> increments = new ArrayList<>(rollups.size());
+        rollups.forEach((key, waterings) ->
+                increments.add(new RollupIncrement(key.plantId(), key.granularity(), key.periodStart(), waterings)));
+        return increments;
+    }
+
+    private static WateringAdherence adherence(String scope, String key, int weeks, double expected,
+                                               List<WateringRollup> weekly) {
+        long actual = weekly.stream().mapToLong(WateringRollup::waterings).sum();
+        double ratio = expected <= 0 ? 1.0 : Math.min(1.0, actual / expected);
+        return new WateringAdherence(scope, key, weeks, expected, actual, ratio, weekly);
+    }
+
+    // Waterings a frequency calls for between two days (inclusive)
+    private static double expectedWaterings(String wateringFrequency, LocalDate from, LocalDate to) {
+        long days = to.toEpochDay() - from.toEpochDay() + 1;
+        return (double) days / WateringSchedule.intervalDays(wateringFrequency);
+    }
+
+    private static LocalDate periodStart(String granularity, LocalDate day) {
+        return WateringHistoryRepository.WEEK.equals(granularity) ? weekStart(day) : day;
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,96 @@
+package com.homecare.service;
+
+import com.homecare.dto.SeasonRule;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watering frequency rules shared by the controllers and the bulk watering query.
+ * Frequencies map to a normalized interval in days; the plants.watering_interval_days column (V4 migration)
+ * computes the same mapping in the database for the nightly schedule recomputation. "monthly" schedules a
+ * calendar month ahead, and counts as 30 days only where an average interval is needed.
+ *
+ * The season rules in force stretch the interval by the largest multiplier covering the plant's type, rounded
+ * up to whole days. That calculation lives here twice, side by side and nowhere else: in Java for the writes
+ * that compute a date in the application, and as a SQL expression for the UPDATEs that compute it in the
+ * database (watering and the nightly recomputation).
+ */
+public final class WateringSchedule {
+
+    private static final int DEFAULT_INTERVAL_DAYS = 7; // Default to weekly
+
+    private static final String MONTHLY = "monthly";
+
+    private static final Map<String, Integer> INTERVAL_DAYS = Map.of(
+            "daily", 1,
+            "every-2-days", 2,
+            "weekly", 7,
+            "every-2-weeks", 14,
+            MONTHLY, 30);
+
+    private WateringSchedule() {
+    }
+
+    // Calculate the next watering date for a frequency, counting from the given day
+    public static LocalDate calculateNextWatering(String wateringFrequency, LocalDate from) {
+        return from.plusDays(intervalDays(wateringFrequency, from));
+    }
+
+    // Calculate the next watering date counting from the given day, with the interval stretched by the season
+    // rules in force (the rules applying in the month that matters to the caller)
+    public static LocalDate calculateNextWatering(String wateringFrequency, String type, LocalDate from,
+                                                  List<SeasonRule> inForce) {
+        int days = BigDecimal.valueOf(intervalDays(wateringFrequency, from))
+                .multiply(seasonMultiplier(type, inForce))
+                .setScale(0, RoundingMode.CEILING)
+                .intValue();
+        return from.plusDays(days);
+    }
+
+    // Largest multiplier of the rules in force covering the type (rules without a type cover every plant)
+    public static BigDecimal seasonMultiplier(String type, List<SeasonRule> inForce) {
+        return inForce.stream()
+                .filter(rule -> rule.plantType() == null || rule.plantType().equals(type))
+                .map(SeasonRule::intervalMultiplier)
+                .max(BigDecimal::compareTo)
+                .orElse(BigDecimal.ONE);
+    }
+
+    // The same calculation in SQL for the plants row aliased p: from is a date expression and month an int
+    // expression, the month whose watering_season_rules are in force
+    public static String nextWateringSql(String from, String month) {
+        // A month is counted in calendar days from the start date, like intervalDays does
+        String interval = "CASE WHEN LOWER(p.watering_frequency) = 'monthly' "
+                + "THEN DATEDIFF('DAY', " + from + ", DATEADD('MONTH', 1, " + from + ")) "
+                + "ELSE p.watering_interval_days END";
+        String days = "CAST(CEILING(" + interval + " * COALESCE(("
+                + "SELECT MAX(r.interval_multiplier) FROM watering_season_rules r "
+                + "WHERE (r.plant_type IS NULL OR r.plant_type = p.type) AND ("
+                + "(r.start_month <= r.end_month AND " + month + " BETWEEN r.start_month AND r.end_month) OR "
+                + "(r.start_month > r.end_month AND (" + month + " >= r.start_month OR " + month + " <= r.end_month)))"
+                + "), 1)) AS INT)";
+        return "DATEADD('DAY', " + days + ", " + from + ")";
+    }
+
+    // Number of days from the given day to the next watering; a calendar month for "monthly"
+    public static int intervalDays(String wateringFrequency, LocalDate from) {
+        return MONTHLY.equalsIgnoreCase(wateringFrequency)
+                ? (int) ChronoUnit.DAYS.between(from, from.plusMonths(1))
+                : intervalDays(wateringFrequency);
+    }
+
+    // Average number of days between waterings for a frequency
+    public static int intervalDays(String wateringFrequency) {
+        Integer days = INTERVAL_DAYS.get(wateringFrequency);
+        if (days == null) {
+            // Stored frequencies are normally lowercase already; only odd spellings pay for the conversion
+            days = INTERVAL_DAYS.getOrDefault(wateringFrequency.toLowerCase(), DEFAULT_INTERVAL_DAYS);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,42 @@
+package com.homecare.sharding;
+
+import java.util.regex.Pattern;
+
+/**
+ * Household (tenant) the current thread works for. HouseholdFilter sets it from the X-Household-Id header for
+ * the length of a request; threads without one (startup, schedulers, background flushes) work for the default
+ * household, which owns every plant created before households existed.
+ */
+public final class HouseholdContext {
+
+    public static final String DEFAULT_HOUSEHOLD = "default";
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private HouseholdContext() {
+    }
+
+    public static String current() {
+        String household = CURRENT.get();
+        return household != null ? household : DEFAULT_HOUSEHOLD;
+    }
+
+    public static boolean isDefault() {
+        return DEFAULT_HOUSEHOLD.equals(current());
+    }
+
+    // Household ids are letters, digits, '-' and '_', at most 64 characters (matches plants.household_id)
+    public static boolean isValid(String household) {
+        return household != null && VALID_ID.matcher(household).matches();
+    }
+
+    public static void set(String household) {
+        CURRENT.set(household);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,89 @@
+package com.homecare.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Binds each request to the household named by its X-Household-Id header (the default household when absent)
+ * before any handler touches the database; a malformed id is answered with 400. Plant writes also pass the
+ * household's write gate, so while a rebalance switches the household to another shard they wait briefly and
+ * get 503 with Retry-After if the switch takes longer.
+ *
+ * The "mapped" profile's plant store has no households, so there any other household is refused with 501
+ * rather than being served the default household's plants.
+ */
+@Component
+public class HouseholdFilter extends OncePerRequestFilter {
+
+    public static final String HOUSEHOLD_HEADER = "X-Household-Id";
+
+    private static final Profiles MAPPED_PROFILE = Profiles.of("mapped");
+
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(),
+            HttpMethod.OPTIONS.name());
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private Environment environment;
+
+    // Longest a plant write waits while its household is being switched to another shard
+    @Value("${plantcare.shards.write-wait-ms:2000}")
+    private long writeWaitMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String household = request.getHeader(HOUSEHOLD_HEADER);
+        if (household == null) {
+            household = HouseholdContext.DEFAULT_HOUSEHOLD;
+        } else if (!HouseholdContext.isValid(household)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + HOUSEHOLD_HEADER);
+            return;
+        } else if (!HouseholdContext.DEFAULT_HOUSEHOLD.equals(household)
+                && environment.acceptsProfiles(MAPPED_PROFILE)) {
+            response.sendError(HttpStatus.NOT_IMPLEMENTED.value(), "Households are not supported by the mapped store");
+            return;
+        }
+
+        HouseholdContext.set(household);
+        try {
+            boolean plantWrite = !READ_METHODS.contains(request.getMethod())
+                    && request.getRequestURI().startsWith(request.getContextPath() + "/api/plants");
+            if (!plantWrite) {
+                chain.doFilter(request, response);
+                return;
+            }
+            if (!shardRouter.beginWrite(household, writeWaitMs)) {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                return;
+            }
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                shardRouter.endWrite(household);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        } finally {
+            HouseholdContext.clear();
+        }
+    }
+}
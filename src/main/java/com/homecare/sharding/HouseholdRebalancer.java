@@ -0,0 +1,143 @@
+package com.homecare.sharding;
+
+import com.homecare.dto.HouseholdMove;
+import com.homecare.repository.PlantRows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves a household's plants to another shard while the household stays online.
+ *
+ * The plants are first bulk-copied in id batches while reads and writes carry on against the old shard. Then
+ * the household's write gate is closed (new plant writes wait, running ones finish), the plants written in the
+ * meantime are copied again, plants deleted meanwhile are dropped from the copy, and the directory is switched.
+ * Writes are held only for that catch-up, not for the bulk copy. Finally the old rows are deleted. Plant ids
+ * are kept, so links to plants stay valid. A failed move removes its partial copy and leaves the household
+ * where it was.
+ */
+@Service
+public class HouseholdRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HouseholdRebalancer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Longest a move waits for the household's running writes before giving up
+    @Value("${plantcare.shards.move-drain-ms:5000}")
+    private long drainMs;
+
+    private final Set<String> moving = ConcurrentHashMap.newKeySet();
+
+    public HouseholdMove move(String household, int toShard) throws InterruptedException {
+        if (!HouseholdContext.isValid(household) || HouseholdContext.DEFAULT_HOUSEHOLD.equals(household)) {
+            throw new IllegalArgumentException("The default household stays on the home shard");
+        }
+        if (toShard < 0 || toShard >= shardRouter.getShardCount()) {
+            throw new IllegalArgumentException("No shard " + toShard);
+        }
+        if (!moving.add(household)) {
+            throw new IllegalStateException("Household " + household + " is already being moved");
+        }
+        try {
+            int fromShard = shardRouter.shardFor(household);
+            if (fromShard == toShard) {
+                throw new IllegalArgumentException("Household " + household + " is already on shard " + toShard);
+            }
+            long start = System.nanoTime();
+            JdbcTemplate source = new JdbcTemplate(shardRouter.getShard(fromShard));
+            JdbcTemplate target = new JdbcTemplate(shardRouter.getShard(toShard));
+
+            int copied;
+            int caughtUp;
+            long heldNanos;
+            try {
+                copied = copy(source, target, household, Map.of());
+                if (!shardRouter.closeWrites(household, drainMs)) {
+                    throw new IllegalStateException("Writes of household " + household + " did not finish in time");
+                }
+                long heldAt = System.nanoTime();
+                try {
+                    Map<Long, Long> copiedVersions = versions(target, household);
+                    caughtUp = copy(source, target, household, copiedVersions);
+                    caughtUp += dropDeleted(source, target, household, copiedVersions.keySet());
+                    shardRouter.assign(household, toShard);
+                } finally {
+                    shardRouter.reopenWrites(household);
+                }
+                heldNanos = System.nanoTime() - heldAt;
+            } catch (RuntimeException | InterruptedException e) {
+                target.update("DELETE FROM plants WHERE household_id = ?", household);
+                throw e;
+            }
+
+            // Requests already reading from the old shard may briefly miss the household's plants
+            source.update("DELETE FROM plants WHERE household_id = ?", household);
+            HouseholdMove result = new HouseholdMove(household, fromShard, toShard, copied, caughtUp,
+                    heldNanos / 1_000_000, (System.nanoTime() - start) / 1_000_000);
+            logger.info("Moved household {} from shard {} to shard {}: {} plants copied, {} caught up, writes held {} ms",
+                    household, fromShard, toShard, copied, caughtUp, result.writesHeldMs());
+            return result;
+        } finally {
+            moving.remove(household);
+        }
+    }
+
+    // Copy the household's plants whose version differs from the one already copied; returns how many were
+    private int copy(JdbcTemplate source, JdbcTemplate target, String household, Map<Long, Long> copiedVersions) {
+        int count = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Map<String, Object>> rows = source.queryForList("SELECT " + PlantRows.COLUMNS + " FROM plants "
+                    + "WHERE household_id = ? AND id > ? ORDER BY id LIMIT ?", household, afterId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                return count;
+            }
+            List<Object[]> changed = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                Long id = ((Number) row.get("id")).longValue();
+                if (!Objects.equals(copiedVersions.get(id), ((Number) row.get("version")).longValue())) {
+                    changed.add(row.values().toArray());
+                }
+                afterId = id;
+            }
+            if (!changed.isEmpty()) {
+                target.batchUpdate(PlantRows.UPSERT, changed);
+                count += changed.size();
+            }
+        }
+    }
+
+    private static Map<Long, Long> versions(JdbcTemplate shard, String household) {
+        Map<Long, Long> versions = new HashMap<>();
+        shard.query("SELECT id, version FROM plants WHERE household_id = ?",
+                (RowCallbackHandler) rs -> versions.put(rs.getLong(1), rs.getLong(2)), household);
+        return versions;
+    }
+
+    // Remove copies of plants deleted from the source after they were copied
+    private static int dropDeleted(JdbcTemplate source, JdbcTemplate target, String household, Set<Long> copiedIds) {
+        Set<Long> deleted = new HashSet<>(copiedIds);
+        deleted.removeAll(source.queryForList("SELECT id FROM plants WHERE household_id = ?", Long.class, household));
+        if (!deleted.isEmpty()) {
+            target.batchUpdate("DELETE FROM plants WHERE id = ?", deleted.stream().map(id -> new Object[]{id}).toList());
+        }
+        return deleted.size();
+    }
+}
@@ -0,0 +1,21 @@
+package com.homecare.sharding;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Hands Hibernate the current household for the @TenantId column of Plant, so every JPA query only sees the
+ * household's plants and new plants are stamped with it.
+ */
+public class HouseholdTenantResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return HouseholdContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        // Sessions are opened per transaction or request, never reused across households
+        return false;
+    }
+}
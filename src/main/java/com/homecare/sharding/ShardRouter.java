@@ -0,0 +1,141 @@
+package com.homecare.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Maps households to shards (one datasource each) and tells ShardRoutingDataSource which shard the current
+ * thread should use. Shard 0 is the home shard: it keeps the household directory along with the data that is
+ * not partitioned by household (watering history, season rules) and serves every thread without a household.
+ *
+ * A household is placed by hashing its id the first time it is seen and the placement is recorded in the
+ * directory, so adding shards later never moves existing households; only HouseholdRebalancer does. Plant ids
+ * come from a separate block per shard, so they stay unique when a household moves.
+ *
+ * With a single shard there is nothing to route and the directory is never touched.
+ */
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    public static final int HOME_SHARD = 0;
+
+    // Plant ids of shard n start at n * SHARD_ID_BLOCK + 1
+    public static final long SHARD_ID_BLOCK = 1L << 40;
+
+    private final List<DataSource> shards;
+    private final JdbcTemplate directory;
+    private final ConcurrentMap<String, Integer> placements = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ReentrantReadWriteLock> writeGates = new ConcurrentHashMap<>();
+    private final ThreadLocal<Integer> pinnedShard = new ThreadLocal<>();
+
+    public ShardRouter(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        this.directory = new JdbcTemplate(this.shards.get(HOME_SHARD));
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    // Shard the current thread's statements go to: the pinned one if any, otherwise its household's
+    public int currentShard() {
+        Integer pinned = pinnedShard.get();
+        return pinned != null ? pinned : shardFor(HouseholdContext.current());
+    }
+
+    // Shard holding the household's plants, placing the household first if it is new
+    public int shardFor(String household) {
+        if (shards.size() == 1 || HouseholdContext.DEFAULT_HOUSEHOLD.equals(household)) {
+            return HOME_SHARD;
+        }
+        Integer shard = placements.get(household);
+        return shard != null ? shard : placements.computeIfAbsent(household, this::place);
+    }
+
+    // Run the work against one shard whatever household the thread works for (admin scans, moves, jobs)
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = pinnedShard.get();
+        pinnedShard.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                pinnedShard.remove();
+            } else {
+                pinnedShard.set(previous);
+            }
+        }
+    }
+
+    // Record a new shard for the household; the caller has already copied its plants there
+    void assign(String household, int shard) {
+        directory.update("MERGE INTO household_shards (household_id, shard, assigned_at) KEY (household_id) VALUES (?, ?, ?)",
+                household, shard, Timestamp.valueOf(LocalDateTime.now()));
+        placements.put(household, shard);
+    }
+
+    // Plant writes of a household hold the shared side of its gate, so a move can briefly hold off new writes
+    // and wait for running ones. Returns false when the gate stayed closed for the whole wait.
+    public boolean beginWrite(String household, long waitMs) throws InterruptedException {
+        if (shards.size() == 1) {
+            return true;
+        }
+        return writeGate(household).readLock().tryLock(waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void endWrite(String household) {
+        if (shards.size() > 1) {
+            writeGate(household).readLock().unlock();
+        }
+    }
+
+    boolean closeWrites(String household, long waitMs) throws InterruptedException {
+        return writeGate(household).writeLock().tryLock(waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    void reopenWrites(String household) {
+        writeGate(household).writeLock().unlock();
+    }
+
+    public void closeShards() throws IOException {
+        for (DataSource shard : shards) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private ReentrantReadWriteLock writeGate(String household) {
+        return writeGates.computeIfAbsent(household, key -> new ReentrantReadWriteLock());
+    }
+
+    private int place(String household) {
+        // Another instance may place the household at the same time; whichever insert lands first wins
+        directory.update("INSERT INTO household_shards (household_id, shard, assigned_at) SELECT ?, ?, ? "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM household_shards WHERE household_id = ?)",
+                household, Math.floorMod(household.hashCode(), shards.size()), Timestamp.valueOf(LocalDateTime.now()),
+                household);
+        int shard = directory.queryForObject("SELECT shard FROM household_shards WHERE household_id = ?",
+                Integer.class, household);
+        logger.debug("Household {} is on shard {}", household, shard);
+        return shard;
+    }
+}
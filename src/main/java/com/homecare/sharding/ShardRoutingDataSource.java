@@ -0,0 +1,32 @@
+package com.homecare.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application's DataSource in the "sharded" profile: every connection (and so every JPA transaction) is
+ * taken from the shard ShardRouter picks for the current thread.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRouter router;
+
+    public ShardRoutingDataSource(ShardRouter router) {
+        this.router = router;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            targets.put(shard, router.getShard(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(router.getShard(ShardRouter.HOME_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.currentShard();
+    }
+}
@@ -0,0 +1,106 @@
+package com.homecare.sharding;
+
+import com.homecare.dto.ShardStats;
+import com.homecare.dto.ShardedStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admin-wide plant statistics, gathered from every shard at once. Each shard is queried on its own thread
+ * straight through its datasource (bypassing the household routing and filter) and the answers are summed;
+ * a shard that fails or misses the timeout is reported unavailable and left out of the totals.
+ */
+@Service
+public class ShardStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardStatsService.class);
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${plantcare.shards.stats-timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(shardRouter.getShardCount(), task -> {
+            Thread thread = new Thread(task, "shard-stats-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public ShardedStats collect(LocalDate today) {
+        List<CompletableFuture<ShardStats>> queries = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int index = shard;
+            queries.add(CompletableFuture.supplyAsync(() -> query(index, today), executor)
+                    .completeOnTimeout(null, timeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        logger.warn("Stats query on shard {} failed", index, e);
+                        return null;
+                    }));
+        }
+
+        List<ShardStats> shards = new ArrayList<>();
+        Map<String, Long> plantsByType = new TreeMap<>();
+        long plants = 0;
+        long needingWatering = 0;
+        long households = 0;
+        boolean complete = true;
+        for (int shard = 0; shard < queries.size(); shard++) {
+            ShardStats stats = queries.get(shard).join();
+            if (stats == null) {
+                complete = false;
+                shards.add(new ShardStats(shard, false, 0, 0, 0, Map.of()));
+                continue;
+            }
+            shards.add(stats);
+            // A household being moved is on both shards until the move finishes, so it is counted twice meanwhile
+            plants += stats.plants();
+            needingWatering += stats.plantsNeedingWatering();
+            households += stats.households();
+            stats.plantsByType().forEach((type, count) -> plantsByType.merge(type, count, Long::sum));
+        }
+        return new ShardedStats(complete, plants, needingWatering, households, plantsByType, shards);
+    }
+
+    private ShardStats query(int shard, LocalDate today) {
+        JdbcTemplate jdbc = new JdbcTemplate(shardRouter.getShard(shard));
+        Map<String, Object> totals = jdbc.queryForMap("SELECT COUNT(*) AS plants, "
+                + "COUNT(CASE WHEN next_watering <= ? THEN 1 END) AS due, "
+                + "COUNT(DISTINCT household_id) AS households FROM plants", Date.valueOf(today));
+        Map<String, Long> byType = new TreeMap<>();
+        jdbc.query("SELECT type, COUNT(*) FROM plants GROUP BY type",
+                (RowCallbackHandler) rs -> byType.put(rs.getString(1), rs.getLong(2)));
+        return new ShardStats(shard, true, ((Number) totals.get("plants")).longValue(),
+                ((Number) totals.get("due")).longValue(), ((Number) totals.get("households")).longValue(), byType);
+    }
+}
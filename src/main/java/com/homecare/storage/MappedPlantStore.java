@@ -0,0 +1,355 @@
+package com.homecare.storage;
+
+import com.homecare.entity.Plant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded plant storage for the "mapped" profile: a snapshot file plus an append-only record log, both
+ * memory-mapped, with an in-memory id to record-location index.
+ *
+ * Every write appends a PUT or DELETE record to the log and repoints the index. Compaction writes the live
+ * records to a new snapshot (temporary file, fsync, atomic rename) that names the next log generation, then
+ * starts that log and deletes the old one. Recovery loads the snapshot, replays its log generation up to the
+ * first torn record, and removes leftovers of an interrupted compaction.
+ */
+@Component
+@Profile("mapped")
+public class MappedPlantStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedPlantStore.class);
+
+    private static final String SNAPSHOT_FILE = "plants.snapshot";
+    private static final String SNAPSHOT_TEMP_FILE = "plants.snapshot.tmp";
+    private static final int INITIAL_LOG_BYTES = 1 << 20;
+
+    // Index locations of records in the snapshot carry this bit; log locations are plain offsets
+    private static final long IN_SNAPSHOT = 1L << 32;
+
+    @Value("${plantcare.storage.directory:./data/mapped}")
+    private String directory;
+
+    // Force every append to disk; without it a process crash loses nothing, a power cut loses recent writes
+    @Value("${plantcare.storage.sync-writes:false}")
+    private boolean syncWrites;
+
+    // Compact once the log holds at least this many bytes and more than half of them are superseded
+    @Value("${plantcare.storage.compaction-min-log-bytes:1048576}")
+    private int compactionMinLogBytes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Long> index = new TreeMap<>();
+    private PlantRecordLog snapshot;
+    private PlantRecordLog log;
+    private long nextId = 1;
+    private long liveLogBytes;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path root = Path.of(directory);
+        Files.createDirectories(root);
+        Files.deleteIfExists(root.resolve(SNAPSHOT_TEMP_FILE));
+
+        long generation = 1;
+        Path snapshotPath = root.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotPath)) {
+            snapshot = PlantRecordLog.open(snapshotPath, (operation, plantId, offset) ->
+                    index.put(plantId, IN_SNAPSHOT | offset));
+            generation = snapshot.getGeneration();
+            nextId = snapshot.getNextId();
+        }
+
+        Path logPath = logPath(generation);
+        if (Files.exists(logPath)) {
+            log = PlantRecordLog.open(logPath, (operation, plantId, offset) -> {
+                if (operation == PlantRecordLog.PUT) {
+                    index.put(plantId, (long) offset);
+                } else {
+                    index.remove(plantId);
+                }
+                // Deleted ids count too, so they are never handed out again
+                nextId = Math.max(nextId, plantId + 1);
+            });
+        } else {
+            log = PlantRecordLog.create(logPath, generation, nextId, INITIAL_LOG_BYTES);
+        }
+        liveLogBytes = countLiveLogBytes();
+        deleteOtherLogs(root, logPath);
+        logger.info("Opened mapped plant store in {}: {} plants, log generation {} ({} bytes)",
+                root.toAbsolutePath(), index.size(), generation, log.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+            if (snapshot != null) {
+                snapshot.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Plant> get(long plantId) {
+        lock.readLock().lock();
+        try {
+            Long location = index.get(plantId);
+            return location == null ? Optional.empty() : Optional.of(read(location));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long plantId) {
+        lock.readLock().lock();
+        try {
+            return index.containsKey(plantId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Plants matching the filter, in id order; each one is decoded from the mapped files
+    public List<Plant> find(Predicate<Plant> filter) {
+        lock.readLock().lock();
+        try {
+            List<Plant> plants = new ArrayList<>();
+            for (long location : index.values()) {
+                Plant plant = read(location);
+                if (filter.test(plant)) {
+                    plants.add(plant);
+                }
+            }
+            return plants;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(Predicate<Plant> filter) {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (long location : index.values()) {
+                if (filter.test(read(location))) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Store a new plant under the next id, which is set on the given plant
+    public Plant insert(Plant plant) {
+        lock.writeLock().lock();
+        try {
+            plant.setId(nextId++);
+            write(plant);
+            return plant;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replace a stored plant with the result of the change; a null result leaves it untouched.
+    // Read, change and write happen under one lock, so concurrent updates never interleave.
+    public Optional<Plant> update(long plantId, UnaryOperator<Plant> change) {
+        lock.writeLock().lock();
+        try {
+            Long location = index.get(plantId);
+            if (location == null) {
+                return Optional.empty();
+            }
+            Plant changed = change.apply(read(location));
+            if (changed == null) {
+                return Optional.empty();
+            }
+            changed.setId(plantId);
+            write(changed);
+            return Optional.of(changed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(long plantId) {
+        lock.writeLock().lock();
+        try {
+            if (!index.containsKey(plantId)) {
+                return false;
+            }
+            log.append(PlantRecordLog.DELETE, plantId, new byte[0], syncWrites);
+            release(index.remove(plantId));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bytes in the current log generation, header included
+    public int getLogBytes() {
+        lock.readLock().lock();
+        try {
+            return log.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${plantcare.storage.compaction-interval-ms:60000}")
+    public void compactIfNeeded() throws IOException {
+        boolean compact;
+        lock.readLock().lock();
+        try {
+            compact = log.size() >= compactionMinLogBytes && liveLogBytes * 2 < log.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (compact) {
+            compact();
+        } else if (!syncWrites) {
+            // Bound what a power cut can lose to one interval
+            lock.writeLock().lock();
+            try {
+                log.force();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Write every live plant to a new snapshot and start an empty log generation
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Path root = Path.of(directory);
+            long generation = log.getGeneration() + 1;
+            Path tempPath = root.resolve(SNAPSHOT_TEMP_FILE);
+            Map<Long, Long> compacted = new TreeMap<>();
+            int liveBytes = 0;
+            for (Map.Entry<Long, Long> entry : index.entrySet()) {
+                liveBytes += recordLength(entry.getValue());
+            }
+            try (PlantRecordLog next = PlantRecordLog.create(tempPath, generation, nextId,
+                    PlantRecordLog.HEADER_BYTES + liveBytes)) {
+                for (Map.Entry<Long, Long> entry : index.entrySet()) {
+                    int offset = next.append(PlantRecordLog.PUT, entry.getKey(),
+                            PlantCodec.encode(read(entry.getValue())), false);
+                    compacted.put(entry.getKey(), IN_SNAPSHOT | offset);
+                }
+            }
+
+            // The log of the new generation exists before the snapshot that names it
+            PlantRecordLog nextLog = PlantRecordLog.create(logPath(generation), generation, nextId, INITIAL_LOG_BYTES);
+            Files.move(tempPath, root.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            Path oldLog = log.getPath();
+            log.close();
+            if (snapshot != null) {
+                snapshot.close();
+            }
+            snapshot = PlantRecordLog.open(root.resolve(SNAPSHOT_FILE), (operation, plantId, offset) -> {
+            });
+            log = nextLog;
+            index.clear();
+            index.putAll(compacted);
+            liveLogBytes = 0;
+            Files.deleteIfExists(oldLog);
+            logger.info("Compacted mapped plant store: {} plants, snapshot {} bytes, log generation {}",
+                    index.size(), snapshot.size(), generation);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Plant plant) {
+        try {
+            int offset = log.append(PlantRecordLog.PUT, plant.getId(), PlantCodec.encode(plant), syncWrites);
+            release(index.put(plant.getId(), (long) offset));
+            liveLogBytes += log.recordLength(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Plant read(long location) {
+        return (location & IN_SNAPSHOT) != 0
+                ? snapshot.readPlant((int) (location & ~IN_SNAPSHOT))
+                : log.readPlant((int) location);
+    }
+
+    private int recordLength(long location) {
+        return (location & IN_SNAPSHOT) != 0
+                ? snapshot.recordLength((int) (location & ~IN_SNAPSHOT))
+                : log.recordLength((int) location);
+    }
+
+    // A record superseded by a newer one or a delete no longer counts as live log data
+    private void release(Long location) {
+        if (location != null && (location & IN_SNAPSHOT) == 0) {
+            liveLogBytes -= log.recordLength(location.intValue());
+        }
+    }
+
+    private long countLiveLogBytes() {
+        long bytes = 0;
+        for (long location : index.values()) {
+            if ((location & IN_SNAPSHOT) == 0) {
+                bytes += log.recordLength((int) location);
+            }
+        }
+        return bytes;
+    }
+
+    private Path logPath(long generation) {
+        return Path.of(directory).resolve("plants-" + generation + ".log");
+    }
+
+    private void deleteOtherLogs(Path root, Path current) throws IOException {
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(root, "plants-*.log")) {
+            for (Path path : logs) {
+                if (!path.equals(current)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
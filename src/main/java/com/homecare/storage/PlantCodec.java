@@ -0,0 +1,129 @@
+package com.homecare.storage;
+
+import com.homecare.entity.Plant;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary form of a plant in the record log: a presence bitmask followed by the non-null fields in declaration
+ * order. Strings are length-prefixed UTF-8, dates are epoch days, timestamps are epoch second plus nanos.
+ */
+final class PlantCodec {
+
+    private static final int NAME = 1;
+    private static final int TYPE = 1 << 1;
+    private static final int WATERING_FREQUENCY = 1 << 2;
+    private static final int SUNLIGHT_NEEDS = 1 << 3;
+    private static final int CARE_NOTES = 1 << 4;
+    private static final int IMAGE_URL = 1 << 5;
+    private static final int LAST_WATERED = 1 << 6;
+    private static final int NEXT_WATERING = 1 << 7;
+    private static final int ADDED_DATE = 1 << 8;
+    private static final int CREATED_AT = 1 << 9;
+    private static final int UPDATED_AT = 1 << 10;
+    // Flag only, no payload
+    private static final int NEXT_WATERING_MANUAL = 1 << 11;
+
+    private PlantCodec() {
+    }
+
+    static byte[] encode(Plant plant) {
+        byte[][] strings = {
+                utf8(plant.getName()), utf8(plant.getType()), utf8(plant.getWateringFrequency()),
+                utf8(plant.getSunlightNeeds()), utf8(plant.getCareNotes()), utf8(plant.getImageUrl())
+        };
+        int size = Short.BYTES + Long.BYTES;
+        int mask = 0;
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null) {
+                mask |= 1 << i;
+                size += Integer.BYTES + strings[i].length;
+            }
+        }
+        mask |= flag(plant.getLastWatered(), LAST_WATERED) | flag(plant.getNextWatering(), NEXT_WATERING)
+                | flag(plant.getAddedDate(), ADDED_DATE) | flag(plant.getCreatedAt(), CREATED_AT)
+                | flag(plant.getUpdatedAt(), UPDATED_AT)
+                | (plant.isNextWateringManual() ? NEXT_WATERING_MANUAL : 0);
+        size += Integer.bitCount(mask & (LAST_WATERED | NEXT_WATERING | ADDED_DATE)) * Long.BYTES;
+        size += Integer.bitCount(mask & (CREATED_AT | UPDATED_AT)) * (Long.BYTES + Integer.BYTES);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort((short) mask);
+        buffer.putLong(plant.getVersion() != null ? plant.getVersion() : 0L);
+        for (byte[] string : strings) {
+            if (string != null) {
+                buffer.putInt(string.length);
+                buffer.put(string);
+            }
+        }
+        putDate(buffer, plant.getLastWatered());
+        putDate(buffer, plant.getNextWatering());
+        putDate(buffer, plant.getAddedDate());
+        putTimestamp(buffer, plant.getCreatedAt());
+        putTimestamp(buffer, plant.getUpdatedAt());
+        return buffer.array();
+    }
+
+    // Decode a plant from the buffer's current position
+    static Plant decode(long id, ByteBuffer buffer) {
+        int mask = buffer.getShort() & 0xFFFF;
+        Plant plant = new Plant();
+        plant.setId(id);
+        plant.setVersion(buffer.getLong());
+        plant.setName(getString(buffer, mask, NAME));
+        plant.setType(getString(buffer, mask, TYPE));
+        plant.setWateringFrequency(getString(buffer, mask, WATERING_FREQUENCY));
+        plant.setSunlightNeeds(getString(buffer, mask, SUNLIGHT_NEEDS));
+        plant.setCareNotes(getString(buffer, mask, CARE_NOTES));
+        plant.setImageUrl(getString(buffer, mask, IMAGE_URL));
+        plant.setLastWatered(getDate(buffer, mask, LAST_WATERED));
+        plant.setNextWatering(getDate(buffer, mask, NEXT_WATERING));
+        plant.setNextWateringManual((mask & NEXT_WATERING_MANUAL) != 0);
+        plant.setAddedDate(getDate(buffer, mask, ADDED_DATE));
+        plant.setCreatedAt(getTimestamp(buffer, mask, CREATED_AT));
+        plant.setUpdatedAt(getTimestamp(buffer, mask, UPDATED_AT));
+        return plant;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int flag(Object value, int bit) {
+        return value != null ? bit : 0;
+    }
+
+    private static void putDate(ByteBuffer buffer, LocalDate date) {
+        if (date != null) {
+            buffer.putLong(date.toEpochDay());
+        }
+    }
+
+    private static void putTimestamp(ByteBuffer buffer, LocalDateTime timestamp) {
+        if (timestamp != null) {
+            buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(timestamp.getNano());
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int mask, int bit) {
+        if ((mask & bit) == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate getDate(ByteBuffer buffer, int mask, int bit) {
+        return (mask & bit) != 0 ? LocalDate.ofEpochDay(buffer.getLong()) : null;
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer buffer, int mask, int bit) {
+        return (mask & bit) != 0 ? LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC) : null;
+    }
+}
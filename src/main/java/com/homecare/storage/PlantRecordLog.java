@@ -0,0 +1,202 @@
+package com.homecare.storage;
+
+import com.homecare.entity.Plant;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped append-only file of plant records, used both for the live log and for snapshots.
+ *
+ * Layout: a header (magic, format, generation, next id) followed by records of the form int body length,
+ * byte operation, long plant id, encoded plant (PUT only), int CRC32 of the body. The mapped region grows by
+ * doubling and its unused tail is zero, so a zero length marks the end. A record with a bad length or checksum
+ * is a torn write from a crash: it and everything after it is discarded when the file is opened.
+ *
+ * Not thread-safe; MappedPlantStore serialises access.
+ */
+final class PlantRecordLog implements AutoCloseable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final int MAGIC = 0x504C4E54; // "PLNT"
+    private static final int FORMAT = 1;
+    static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int GENERATION_OFFSET = 2 * Integer.BYTES;
+    private static final int NEXT_ID_OFFSET = GENERATION_OFFSET + Long.BYTES;
+    private static final int MIN_BODY_BYTES = 1 + Long.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end = HEADER_BYTES;
+
+    // Called for every intact record while a file is opened
+    interface RecordVisitor {
+        void visit(byte operation, long plantId, int offset);
+    }
+
+    private PlantRecordLog(Path path, int capacity) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(capacity, Math.max(HEADER_BYTES, (int) channel.size())));
+    }
+
+    // Create an empty file (replacing any existing one) for the given generation
+    static PlantRecordLog create(Path path, long generation, long nextId, int capacity) throws IOException {
+        try (FileChannel existing = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            existing.force(true);
+        }
+        PlantRecordLog log = new PlantRecordLog(path, capacity);
+        log.buffer.putInt(0, MAGIC);
+        log.buffer.putInt(Integer.BYTES, FORMAT);
+        log.buffer.putLong(GENERATION_OFFSET, generation);
+        log.buffer.putLong(NEXT_ID_OFFSET, nextId);
+        log.buffer.force(0, HEADER_BYTES);
+        return log;
+    }
+
+    // Open an existing file, handing every intact record to the visitor and cutting off a torn tail
+    static PlantRecordLog open(Path path, RecordVisitor visitor) throws IOException {
+        PlantRecordLog log = new PlantRecordLog(path, HEADER_BYTES);
+        if (log.buffer.getInt(0) != MAGIC || log.buffer.getInt(Integer.BYTES) != FORMAT) {
+            log.close();
+            throw new IOException("Not a plant record file: " + path);
+        }
+        log.recover(visitor);
+        return log;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getGeneration() {
+        return buffer.getLong(GENERATION_OFFSET);
+    }
+
+    long getNextId() {
+        return buffer.getLong(NEXT_ID_OFFSET);
+    }
+
+    // Bytes in use, header included
+    int size() {
+        return end;
+    }
+
+    // Append a record and return its offset; the write is forced to disk when sync is set
+    int append(byte operation, long plantId, byte[] payload, boolean sync) throws IOException {
+        int bodyLength = MIN_BODY_BYTES + payload.length;
+        int recordLength = Integer.BYTES + bodyLength + Integer.BYTES;
+        ensureCapacity(recordLength);
+
+        int offset = end;
+        buffer.putInt(offset + Integer.BYTES + bodyLength, checksum(operation, plantId, payload));
+        buffer.put(offset + Integer.BYTES, operation);
+        buffer.putLong(offset + Integer.BYTES + 1, plantId);
+        buffer.put(offset + Integer.BYTES + MIN_BODY_BYTES, payload);
+        // The length goes in last, so a record is never visible before its body
+        buffer.putInt(offset, bodyLength);
+        end += recordLength;
+        if (sync) {
+            buffer.force(offset, recordLength);
+        }
+        return offset;
+    }
+
+    // Decode the plant stored by the PUT record at the offset
+    Plant readPlant(int offset) {
+        int bodyLength = buffer.getInt(offset);
+        long plantId = buffer.getLong(offset + Integer.BYTES + 1);
+        ByteBuffer payload = buffer.slice(offset + Integer.BYTES + MIN_BODY_BYTES, bodyLength - MIN_BODY_BYTES);
+        return PlantCodec.decode(plantId, payload);
+    }
+
+    // Length of the record at the offset, including its framing
+    int recordLength(int offset) {
+        return Integer.BYTES + buffer.getInt(offset) + Integer.BYTES;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void recover(RecordVisitor visitor) {
+        int capacity = buffer.capacity();
+        int position = HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        while (position + Integer.BYTES <= capacity) {
+            int bodyLength = buffer.getInt(position);
+            if (bodyLength == 0) {
+                break;
+            }
+            long recordEnd = (long) position + Integer.BYTES + bodyLength + Integer.BYTES;
+            if (bodyLength < MIN_BODY_BYTES || recordEnd > capacity) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + Integer.BYTES, bodyLength));
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES + bodyLength)) {
+                break;
+            }
+            visitor.visit(buffer.get(position + Integer.BYTES), buffer.getLong(position + Integer.BYTES + 1), position);
+            position = (int) recordEnd;
+        }
+        end = position;
+        // Zero whatever a torn write left behind so the next append starts from a clean tail
+        byte[] zeros = new byte[8192];
+        for (int offset = end; offset < capacity; offset += zeros.length) {
+            int length = Math.min(zeros.length, capacity - offset);
+            if (buffer.getInt(offset) == 0 && isZero(offset, length)) {
+                break;
+            }
+            buffer.put(offset, zeros, 0, length);
+        }
+    }
+
+    private boolean isZero(int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int recordLength) throws IOException {
+        long required = (long) end + recordLength;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException("Plant record file is full: " + path);
+        }
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(required, 2L * buffer.capacity()));
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static int checksum(byte operation, long plantId, byte[] payload) {
+        CRC32 crc = new CRC32();
+        ByteBuffer head = ByteBuffer.allocate(MIN_BODY_BYTES);
+        head.put(operation).putLong(plantId).flip();
+        crc.update(head);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
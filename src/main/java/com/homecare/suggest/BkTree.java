@@ -0,0 +1,112 @@
+package com.homecare.suggest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree of words under Levenshtein distance. Every child edge is labelled with the distance
+ * between the child and its parent, so by the triangle inequality a search for words within distance k of a
+ * query only descends into edges labelled d-k..d+k, where d is the query's distance to the node. Words are
+ * never removed; callers ignore words they no longer use and rebuild the tree when those pile up.
+ *
+ * Not thread-safe; FuzzyNameIndex serialises access.
+ */
+class BkTree {
+
+    private Node root;
+    private int size;
+
+    // Called for every word within the search distance; returning false stops the search
+    interface MatchVisitor {
+        boolean visit(String word, int distance);
+    }
+
+    private static final class Node {
+        private final String word;
+        private Map<Integer, Node> children;
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    // Visit every word within maxDistance of the query; returns false when the visitor stopped the search or
+    // the deadline (a System.nanoTime value) passed before every candidate node was checked
+    boolean search(String query, int maxDistance, long deadline, MatchVisitor visitor) {
+        return root == null || search(root, query, maxDistance, deadline, visitor);
+    }
+
+    private static boolean search(Node node, String query, int maxDistance, long deadline, MatchVisitor visitor) {
+        if (System.nanoTime() - deadline > 0) {
+            return false;
+        }
+        int distance = distance(query, node.word);
+        if (distance <= maxDistance && !visitor.visit(node.word, distance)) {
+            return false;
+        }
+        if (node.children != null) {
+            for (int edge = Math.max(1, distance - maxDistance); edge <= distance + maxDistance; edge++) {
+                Node child = node.children.get(edge);
+                if (child != null && !search(child, query, maxDistance, deadline, visitor)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Levenshtein distance with two rolling rows
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,301 @@
+package com.homecare.suggest;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.sharding.HouseholdContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Typo-tolerant plant name lookup. Names are normalized (lowercase, accents and punctuation dropped) and split
+ * into words; the distinct words live in a BkTree and map to the plants using them. A query word matches
+ * dictionary words within an edit distance that grows with its length (none up to three letters, one up to
+ * five, then the requested maximum), a plant matches when every query word does, and plants are ranked by the
+ * summed distance. Only the tree is searched, never the plant rows, and a search stops at its latency budget,
+ * returning what it has found so far: exact word matches are looked up before the tree is searched, so a
+ * partial result holds the plants matching the words not yet searched exactly.
+ *
+ * Kept current from {@link PlantChangedEvent}s like the suggestion index, refetching the plants that changed
+ * while a (re)load was reading the rows. Words no plant uses any more stay in
+ * the tree until they outnumber the live ones, then the tree is rebuilt. Like the suggestion index, every other
+ * household gets an index of its own plants, built on its first search and then kept current from its events.
+ */
+@Component
+public class FuzzyNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuzzyNameIndex.class);
+
+    public static final int MAX_DISTANCE = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Value("${plantcare.search.fuzzy.budget-ms:25}")
+    private long budgetMs;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private BkTree tree = new BkTree();
+    private final Map<String, Set<Long>> plantsByWord = new HashMap<>();
+    private final Map<Long, List<String>> wordsByPlant = new HashMap<>();
+    // Indexes of the other households by household id
+    private final ConcurrentMap<String, FuzzyNameIndex> households = new ConcurrentHashMap<>();
+    // Plants changed while a load was reading the rows, which may predate those changes
+    private volatile boolean loading;
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    // Ranked plant ids; complete is false when the latency budget cut the search short
+    public record Result(List<Long> plantIds, boolean complete) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        loading = true;
+        try {
+            rebuild(plantRepository.findAllSummaries());
+        } finally {
+            loading = false;
+        }
+        List<Long> changed = new ArrayList<>(changedDuringLoad);
+        changedDuringLoad.removeAll(changed);
+        changed.forEach(this::refresh);
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (!event.isDefaultHousehold()) {
+            // Also waits for an index of the household that is still being built
+            households.computeIfPresent(event.household(), (household, index) -> index.apply(event));
+            return;
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            households.clear();
+        }
+        apply(event);
+    }
+
+    private FuzzyNameIndex apply(PlantChangedEvent event) {
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            load();
+            return this;
+        }
+        // Noted before applying, so a load finishing in between still sees it
+        if (loading) {
+            changedDuringLoad.add(event.plantId());
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.DELETED) {
+            remove(event.plantId());
+        } else {
+            refresh(event.plantId());
+        }
+        return this;
+    }
+
+    private void refresh(Long plantId) {
+        plantRepository.findSummaryById(plantId).ifPresentOrElse(this::upsert, () -> remove(plantId));
+    }
+
+    // Replace the whole index with the given rows
+    public void rebuild(List<PlantSummary> plants) {
+        lock.writeLock().lock();
+        try {
+            tree = new BkTree();
+            plantsByWord.clear();
+            wordsByPlant.clear();
+            for (PlantSummary plant : plants) {
+                add(plant.id(), plant.name());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Fuzzy name index loaded with {} words", plantsByWord.size());
+    }
+
+    public void upsert(PlantSummary plant) {
+        lock.writeLock().lock();
+        try {
+            List<String> words = normalize(plant.name());
+            if (words.equals(wordsByPlant.get(plant.id()))) {
+                return;
+            }
+            removeLocked(plant.id());
+            add(plant.id(), plant.name());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long plantId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(plantId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The k best plants whose names match every word of the query within the edit distance
+    public Result search(String query, int maxDistance, int k) {
+        return forCurrentHousehold().searchTree(query, maxDistance, k);
+    }
+
+    // This index for the default household, otherwise the household's own, loaded on first use
+    private FuzzyNameIndex forCurrentHousehold() {
+        if (HouseholdContext.isDefault()) {
+            return this;
+        }
+        return households.computeIfAbsent(HouseholdContext.current(), household -> {
+            FuzzyNameIndex index = new FuzzyNameIndex();
+            index.plantRepository = plantRepository;
+            index.budgetMs = budgetMs;
+            index.load();
+            return index;
+        });
+    }
+
+    private Result searchTree(String query, int maxDistance, int k) {
+        List<String> queryWords = normalize(query);
+        if (queryWords.isEmpty()) {
+            return new Result(List.of(), true);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        Map<Long, int[]> distances = new HashMap<>();
+        boolean complete = true;
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < queryWords.size(); i++) {
+                record(distances, queryWords.size(), i, queryWords.get(i), 0);
+            }
+            for (int i = 0; i < queryWords.size() && complete; i++) {
+                int word = i;
+                complete = tree.search(queryWords.get(i), allowedDistance(queryWords.get(i), maxDistance), deadline,
+                        (match, distance) -> {
+                            record(distances, queryWords.size(), word, match, distance);
+                            return true;
+                        });
+            }
+
+            Map<Long, Integer> scores = new HashMap<>();
+            distances.forEach((plantId, best) -> {
+                int score = 0;
+                for (int distance : best) {
+                    if (distance == Integer.MAX_VALUE) {
+                        return;
+                    }
+                    score += distance;
+                }
+                // Names with fewer words beyond the query come first among equal distances
+                scores.put(plantId, score * 1000 + wordsByPlant.get(plantId).size());
+            });
+            List<Long> ranked = scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(k)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            return new Result(ranked, complete);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Note the distance of the plants using a dictionary word to query word number word
+    private void record(Map<Long, int[]> distances, int queryWords, int word, String match, int distance) {
+        for (Long plantId : plantsByWord.getOrDefault(match, Set.of())) {
+            int[] best = distances.computeIfAbsent(plantId, id -> newDistances(queryWords));
+            best[word] = Math.min(best[word], distance);
+        }
+    }
+
+    // Lowercase words of a name with accents and punctuation removed
+    static List<String> normalize(String name) {
+        if (name == null) {
+            return List.of();
+        }
+        String plain = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(plain.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    // Short words tolerate fewer typos, otherwise nearly every short word would match
+    static int allowedDistance(String word, int maxDistance) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 5 ? Math.min(1, maxDistance) : maxDistance;
+    }
+
+    private void add(Long plantId, String name) {
+        List<String> words = normalize(name);
+        wordsByPlant.put(plantId, words);
+        for (String word : new HashSet<>(words)) {
+            Set<Long> plants = plantsByWord.get(word);
+            if (plants == null) {
+                plants = new HashSet<>();
+                plantsByWord.put(word, plants);
+                tree.add(word);
+            }
+            plants.add(plantId);
+        }
+    }
+
+    private void removeLocked(Long plantId) {
+        List<String> words = wordsByPlant.remove(plantId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Set<Long> plants = plantsByWord.get(word);
+            if (plants != null) {
+                plants.remove(plantId);
+                if (plants.isEmpty()) {
+                    plantsByWord.remove(word);
+                }
+            }
+        }
+    }
+
+    // Drop unused words from the tree once they make up more than half of it
+    private void compactIfNeeded() {
+        if (tree.size() > 64 && tree.size() > 2 * plantsByWord.size()) {
+            BkTree compacted = new BkTree();
+            plantsByWord.keySet().forEach(compacted::add);
+            tree = compacted;
+        }
+    }
+
+    private static int[] newDistances(int words) {
+        int[] distances = new int[words];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        return distances;
+    }
+}
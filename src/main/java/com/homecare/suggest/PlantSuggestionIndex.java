@@ -0,0 +1,186 @@
+package com.homecare.suggest;
+
+import com.homecare.dto.PlantSuggestion;
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.sharding.HouseholdContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocomplete over plant names and types, answered from an in-memory PrefixTrie without touching the
+ * database. A suggestion's popularity is the number of plants carrying that name or type. The trie is loaded
+ * once the application is ready and kept current from {@link PlantChangedEvent}s; the name and type last seen
+ * for each plant are remembered so an edit can take back the old ones. Plants that change while a (re)load is
+ * reading the rows are fetched again once the loaded rows are in place.
+ *
+ * This trie holds the default household. Every other household gets a trie of its own plants, built on its
+ * first request and then kept current from its events like this one.
+ */
+@Component
+public class PlantSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlantSuggestionIndex.class);
+
+    public static final int MAX_SUGGESTIONS = PrefixTrie.MAX_SUGGESTIONS;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie trie = new PrefixTrie();
+    private final Map<Long, IndexedPlant> plants = new HashMap<>();
+    // Tries of the other households by household id
+    private final ConcurrentMap<String, PlantSuggestionIndex> households = new ConcurrentHashMap<>();
+    // Plants changed while a load was reading the rows, which may predate those changes
+    private volatile boolean loading;
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private record IndexedPlant(String name, String type) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        loading = true;
+        try {
+            rebuild(plantRepository.findAllSummaries());
+        } finally {
+            loading = false;
+        }
+        List<Long> changed = new ArrayList<>(changedDuringLoad);
+        changedDuringLoad.removeAll(changed);
+        changed.forEach(this::refresh);
+    }
+
+    @EventListener
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (!event.isDefaultHousehold()) {
+            // Also waits for a trie of the household that is still being built
+            households.computeIfPresent(event.household(), (household, index) -> index.apply(event));
+            return;
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            households.clear();
+        }
+        apply(event);
+    }
+
+    private PlantSuggestionIndex apply(PlantChangedEvent event) {
+        if (event.changeType() == PlantChangedEvent.ChangeType.BULK) {
+            load();
+            return this;
+        }
+        // Noted before applying, so a load finishing in between still sees it
+        if (loading) {
+            changedDuringLoad.add(event.plantId());
+        }
+        if (event.changeType() == PlantChangedEvent.ChangeType.DELETED) {
+            remove(event.plantId());
+        } else {
+            refresh(event.plantId());
+        }
+        return this;
+    }
+
+    private void refresh(Long plantId) {
+        plantRepository.findSummaryById(plantId).ifPresentOrElse(this::upsert, () -> remove(plantId));
+    }
+
+    // Replace the whole index with the given rows
+    public void rebuild(List<PlantSummary> summaries) {
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            plants.clear();
+            for (PlantSummary plant : summaries) {
+                add(plant);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Suggestion index loaded with {} terms", trie.size());
+    }
+
+    public void upsert(PlantSummary plant) {
+        lock.writeLock().lock();
+        try {
+            IndexedPlant previous = plants.get(plant.id());
+            if (previous != null && previous.equals(new IndexedPlant(plant.name(), plant.type()))) {
+                return;
+            }
+            removeLocked(plant.id());
+            add(plant);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long plantId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(plantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The best k names and types starting with the prefix (or with a later word of them), most popular first
+    public List<PlantSuggestion> suggest(String prefix, int k) {
+        return forCurrentHousehold().top(prefix, k);
+    }
+
+    // This trie for the default household, otherwise the household's own, loaded on first use
+    private PlantSuggestionIndex forCurrentHousehold() {
+        if (HouseholdContext.isDefault()) {
+            return this;
+        }
+        return households.computeIfAbsent(HouseholdContext.current(), household -> {
+            PlantSuggestionIndex index = new PlantSuggestionIndex();
+            index.plantRepository = plantRepository;
+            index.load();
+            return index;
+        });
+    }
+
+    private List<PlantSuggestion> top(String prefix, int k) {
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix.trim(), k).stream()
+                    .map(term -> new PlantSuggestion(term.text, term.kind, term.count))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(PlantSummary plant) {
+        plants.put(plant.id(), new IndexedPlant(plant.name(), plant.type()));
+        trie.add(plant.name(), PlantSuggestion.NAME);
+        trie.add(plant.type(), PlantSuggestion.TYPE);
+    }
+
+    private void removeLocked(Long plantId) {
+        IndexedPlant previous = plants.remove(plantId);
+        if (previous != null) {
+            trie.remove(previous.name(), PlantSuggestion.NAME);
+            trie.remove(previous.type(), PlantSuggestion.TYPE);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.homecare.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Character trie of suggestion terms keyed by their lowercased text and by every later word in it, so "snake
+ * plant" is found from both "sna" and "pla". Every node caches the best MAX_SUGGESTIONS terms of its subtree,
+ * ranked by count, which makes a lookup a walk down the prefix plus a copy. Changing a term's count re-ranks
+ * only the nodes on the paths of its keys.
+ *
+ * Not thread-safe; PlantSuggestionIndex serialises access.
+ */
+class PrefixTrie {
+
+    static final int MAX_SUGGESTIONS = 10;
+
+    private static final Term[] NO_TERMS = new Term[0];
+
+    private static final Comparator<Term> RANKING = Comparator.comparingLong((Term term) -> term.count).reversed()
+            .thenComparing(term -> term.text, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(term -> term.kind);
+
+    private final Node root = new Node();
+    private final Map<String, Term> terms = new HashMap<>();
+
+    static final class Term {
+        final String text;
+        final String kind;
+        long count;
+
+        private Term(String text, String kind) {
+            this.text = text;
+            this.kind = kind;
+        }
+    }
+
+    private static final class Node {
+        private Map<Character, Node> children;
+        private List<Term> terms;
+        private Term[] top = NO_TERMS;
+
+        private boolean isEmpty() {
+            return (children == null || children.isEmpty()) && (terms == null || terms.isEmpty());
+        }
+    }
+
+    int size() {
+        return terms.size();
+    }
+
+    // Count one more occurrence of the term
+    void add(String text, String kind) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String trimmed = text.trim();
+        Term term = terms.get(termKey(trimmed, kind));
+        if (term == null) {
+            term = new Term(trimmed, kind);
+            terms.put(termKey(trimmed, kind), term);
+            for (String key : keys(trimmed)) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    if (node.children == null) {
+                        node.children = new HashMap<>(4);
+                    }
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                }
+                if (node.terms == null) {
+                    node.terms = new ArrayList<>(1);
+                }
+                node.terms.add(term);
+            }
+        }
+        term.count++;
+        rerank(term, false);
+    }
+
+    // Count one occurrence less; the term disappears when no plant carries it any more
+    void remove(String text, String kind) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String trimmed = text.trim();
+        Term term = terms.get(termKey(trimmed, kind));
+        if (term == null) {
+            return;
+        }
+        term.count--;
+        boolean gone = term.count <= 0;
+        if (gone) {
+            terms.remove(termKey(trimmed, kind));
+        }
+        rerank(term, gone);
+    }
+
+    // Best terms under the prefix, at most limit of them
+    List<Term> top(String prefix, int limit) {
+        Node node = root;
+        String key = prefix.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children == null ? null : node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    void clear() {
+        root.children = null;
+        root.top = NO_TERMS;
+        terms.clear();
+    }
+
+    // Recompute the cached rankings along every key path of the term, deepest node first
+    private void rerank(Term term, boolean detach) {
+        for (String key : keys(term.text)) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length(); i++) {
+                path[i + 1] = path[i].children.get(key.charAt(i));
+            }
+            if (detach) {
+                path[key.length()].terms.remove(term);
+            }
+            for (int depth = key.length(); depth >= 0; depth--) {
+                Node node = path[depth];
+                if (depth > 0 && node.isEmpty()) {
+                    path[depth - 1].children.remove(key.charAt(depth - 1));
+                    continue;
+                }
+                node.top = rank(node);
+            }
+        }
+    }
+
+    private static Term[] rank(Node node) {
+        // A term reachable through several keys of one subtree is listed once
+        Set<Term> candidates = new LinkedHashSet<>();
+        if (node.terms != null) {
+            candidates.addAll(node.terms);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+        }
+        return candidates.stream().sorted(RANKING).limit(MAX_SUGGESTIONS).toArray(Term[]::new);
+    }
+
+    // The whole text and the rest of it from the start of every following word
+    private static Set<String> keys(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(lower);
+        for (int i = 1; i < lower.length(); i++) {
+            if (!Character.isLetterOrDigit(lower.charAt(i - 1)) && Character.isLetterOrDigit(lower.charAt(i))) {
+                keys.add(lower.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    // Terms differing only in case are one term, shown with the spelling seen first
+    private static String termKey(String text, String kind) {
+        return kind + '\u0000' + text.toLowerCase(Locale.ROOT);
+    }
+}
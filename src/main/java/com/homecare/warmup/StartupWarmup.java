@@ -0,0 +1,307 @@
+package com.homecare.warmup;
+
+import com.homecare.admission.AdmissionInterceptor;
+import com.homecare.calendar.WateringCalendar;
+import com.homecare.dto.PlantSummary;
+import com.homecare.entity.Plant;
+import com.homecare.json.PlantJsonCache;
+import com.homecare.repository.PlantRepository;
+import com.homecare.service.PdfGenerationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warm-up run once the application is ready, before it reports ready to take traffic. It preloads the plants
+ * due for watering soonest into the JSON cache and every plant's VEVENT into the watering calendar, runs each
+ * read query of {@link PlantRepository} and the care-guide renderer a set number of times, and sends the main
+ * GET endpoints to the instance's own web server, so Hibernate's query plans are compiled and the JIT has seen
+ * the request paths before the first real client does. Nothing is written.
+ *
+ * Spring Boot only moves the readiness state to ACCEPTING_TRAFFIC after every ApplicationReadyEvent listener
+ * has returned, so /api/health answers 503 while this runs. The work stops once budget-ms has passed and the
+ * instance becomes ready with whatever was warmed by then, rather than being kept out of rotation.
+ *
+ * The index and snapshot loaders listen with the highest precedence, so they have finished before this runs.
+ * The warm-up's own requests go through admission control on cold code, so the latency baselines they leave
+ * behind are dropped once it is done and real traffic sets them afresh.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    public enum State { PENDING, RUNNING, COMPLETE, BUDGET_EXCEEDED, FAILED, DISABLED }
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private PlantJsonCache jsonCache;
+
+    @Autowired
+    private WateringCalendar wateringCalendar;
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
+    @Value("${plantcare.warmup.enabled:true}")
+    private boolean enabled;
+
+    // How often each query, render and request is repeated
+    @Value("${plantcare.warmup.iterations:20}")
+    private int iterations;
+
+    // Plants preloaded into the JSON cache, those due for watering first
+    @Value("${plantcare.warmup.hot-plants:100}")
+    private int hotPlants;
+
+    // Plants due within this many days count as hot
+    @Value("${plantcare.warmup.due-within-days:7}")
+    private int dueWithinDays;
+
+    @Value("${plantcare.warmup.budget-ms:30000}")
+    private long budgetMs;
+
+    private volatile State state = State.PENDING;
+    private volatile long durationMs;
+    private volatile int preloadedPlants;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    // Thrown out of the phases when the budget has run out
+    private static class BudgetExceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Last ApplicationReadyEvent listener, after the indexes and snapshots (ordered first) have loaded
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        int port = event.getApplicationContext() instanceof WebServerApplicationContext web
+                && web.getWebServer() != null ? web.getWebServer().getPort() : -1;
+        warmUp(port, budgetMs);
+    }
+
+    // Run the warm-up against the web server on the given port (none when not positive)
+    synchronized void warmUp(int port, long budget) {
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofMillis(budget).toNanos();
+        try {
+            List<Plant> hot = preload(deadline);
+            Plant sample = hot.isEmpty() ? samplePlant() : hot.get(0);
+            for (int i = 0; i < iterations; i++) {
+                runQueries(sample, deadline);
+                checkBudget(deadline);
+                awaitRender(pdfGenerationService.generatePlantPdf(sample), deadline);
+                renders.increment();
+            }
+            if (port > 0) {
+                sendRequests(port, sample, deadline);
+            }
+            state = State.COMPLETE;
+        } catch (BudgetExceeded e) {
+            state = State.BUDGET_EXCEEDED;
+        } catch (RuntimeException e) {
+            logger.warn("Warm-up failed, continuing cold", e);
+            state = State.FAILED;
+        } finally {
+            if (port > 0) {
+                admissionInterceptor.resetLatencies();
+            }
+            durationMs = (System.nanoTime() - start) / 1_000_000;
+        }
+        logger.info("Warm-up {} in {} ms: {} plants preloaded, {} queries, {} care guides, {} requests",
+                state, durationMs, preloadedPlants, queries.sum(), renders.sum(), requests.sum());
+    }
+
+    // Load the plants due soonest into the JSON cache and all due dates into the watering calendar
+    private List<Plant> preload(long deadline) {
+        List<PlantSummary> due = new ArrayList<>(plantRepository.findSummariesNeedingWatering(
+                LocalDate.now().plusDays(dueWithinDays)));
+        due.sort(Comparator.comparing(PlantSummary::nextWatering));
+        List<Plant> hot = new ArrayList<>();
+        for (PlantSummary summary : due.subList(0, Math.min(hotPlants, due.size()))) {
+            checkBudget(deadline);
+            plantRepository.findReadOnlyById(summary.id()).ifPresent(plant -> {
+                jsonCache.fragment(plant);
+                hot.add(plant);
+            });
+        }
+        preloadedPlants = hot.size();
+        try {
+            wateringCalendar.write(plantRepository.findAllSummaries(), OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return hot;
+    }
+
+    // Each read query once, with arguments taken from the sample plant
+    private void runQueries(Plant sample, long deadline) {
+        LocalDate today = LocalDate.now();
+        Long id = sample.getId() != null ? sample.getId() : 0L;
+        String type = sample.getType();
+        String prefix = sample.getName().substring(0, Math.min(3, sample.getName().length()));
+        List<Runnable> reads = List.of(
+                () -> plantRepository.findAll(),
+                () -> plantRepository.findById(id),
+                () -> plantRepository.findReadOnlyById(id),
+                () -> plantRepository.findByType(type),
+                () -> plantRepository.findByWateringFrequency(sample.getWateringFrequency()),
+                () -> plantRepository.findBySunlightNeeds(sample.getSunlightNeeds()),
+                () -> plantRepository.findPlantsNeedingWatering(today),
+                () -> plantRepository.findByNameContainingIgnoreCase(prefix),
+                () -> plantRepository.findByTypeAndSunlightNeeds(type, sample.getSunlightNeeds()),
+                () -> plantRepository.findByAddedDateAfter(today.minusMonths(1)),
+                () -> plantRepository.findByAddedDateBetween(today.minusYears(1), today),
+                () -> plantRepository.countByType(type),
+                () -> plantRepository.countPlantsNeedingWatering(today),
+                () -> plantRepository.findPlantsWithCareNotes(),
+                () -> plantRepository.findPlantsWithoutCareNotes(),
+                () -> plantRepository.findTotalPlants(),
+                () -> plantRepository.findAllSummaries(),
+                () -> plantRepository.findSummaryById(id),
+                () -> plantRepository.findSummariesByType(type),
+                () -> plantRepository.findSummariesByNameContaining(prefix),
+                () -> plantRepository.findSummariesNeedingWatering(today),
+                () -> plantRepository.findSummariesByIdIn(List.of(id)),
+                () -> plantRepository.findFiltered(type, null, null, null, today),
+                () -> plantRepository.countByTypeAndSunlightNeedsAndWateringFrequency(),
+                () -> plantRepository.countDueByNextWatering(today),
+                () -> plantRepository.countByAddedMonth(),
+                () -> plantRepository.findNextWaterings(),
+                () -> plantRepository.findVersionById(id),
+                () -> plantRepository.findWateringStatusById(id));
+        for (Runnable read : reads) {
+            checkBudget(deadline);
+            read.run();
+            queries.increment();
+        }
+    }
+
+    // The main GET endpoints through the whole web stack, each repeated iterations times
+    private void sendRequests(int port, Plant sample, long deadline) {
+        String base = "http://localhost:" + port;
+        String prefix = URLEncoder.encode(sample.getName().substring(0, Math.min(3, sample.getName().length())),
+                StandardCharsets.UTF_8);
+        List<String> paths = new ArrayList<>(List.of(
+                "/api/plants",
+                "/api/plants/stats",
+                "/api/plants/needs-watering",
+                "/api/plants/calendar.ics",
+                "/api/plants/search?name=" + prefix,
+                "/api/plants/suggest?prefix=" + prefix,
+                "/api/plants/filter?type=" + URLEncoder.encode(sample.getType(), StandardCharsets.UTF_8)));
+        if (sample.getId() != null) {
+            paths.add("/api/plants/" + sample.getId());
+            paths.add("/api/plants/" + sample.getId() + "/similar");
+            paths.add("/api/pdf/plant/" + sample.getId() + "/preview");
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        for (int i = 0; i < iterations; i++) {
+            for (String path : paths) {
+                checkBudget(deadline);
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                        .timeout(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 1)))
+                        .build();
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (IOException e) {
+                    logger.debug("Warm-up request {} failed: {}", path, e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BudgetExceeded();
+                }
+                requests.increment();
+            }
+        }
+    }
+
+    // Stand-in for the care-guide renderer and the query arguments when there are no plants yet
+    private static Plant samplePlant() {
+        Plant plant = new Plant("Warm-up Fern", "tropical", "weekly", "medium");
+        plant.setLastWatered(LocalDate.now());
+        plant.setNextWatering(LocalDate.now().plusWeeks(1));
+        plant.setAddedDate(LocalDate.now());
+        return plant;
+    }
+
+    // Wait for a care guide no longer than the budget allows
+    private static void awaitRender(CompletableFuture<byte[]> render, long deadline) {
+        try {
+            render.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new BudgetExceeded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BudgetExceeded();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Care guide rendering failed", e.getCause());
+        }
+    }
+
+    private static void checkBudget(long deadline) {
+        if (System.nanoTime() - deadline > 0) {
+            throw new BudgetExceeded();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("durationMs", durationMs);
+        stats.put("budgetMs", budgetMs);
+        stats.put("iterations", iterations);
+        stats.put("preloadedPlants", preloadedPlants);
+        stats.put("queries", queries.sum());
+        stats.put("careGuides", renders.sum());
+        stats.put("requests", requests.sum());
+        return stats;
+    }
+}
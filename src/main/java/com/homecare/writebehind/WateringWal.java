@@ -0,0 +1,137 @@
+package com.homecare.writebehind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of accepted waterings. A group of records is written and forced to disk with one
+ * fsync; the log is truncated once every record in it has been applied to the database.
+ *
+ * Record layout: int payload length, payload (long sequence, long plant id, long epoch second, int nano,
+ * short source length, source bytes), int CRC32 of the payload. Replay stops at the first torn or corrupt record.
+ */
+class WateringWal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = 3 * Long.BYTES + Integer.BYTES + Short.BYTES;
+    private static final int MAX_SOURCE_BYTES = 255;
+
+    private final Path path;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    record Entry(long sequence, long plantId, LocalDateTime wateredAt, String source) {
+    }
+
+    WateringWal(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    // Every intact record, oldest first; a torn tail is cut off so new records follow the last good one
+    List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        ByteBuffer file = ByteBuffer.allocate((int) channel.size());
+        channel.read(file, 0);
+        file.flip();
+
+        long validEnd = 0;
+        CRC32 crc = new CRC32();
+        while (file.remaining() >= HEADER_BYTES) {
+            int length = file.getInt();
+            if (length < FIXED_PAYLOAD_BYTES || length > FIXED_PAYLOAD_BYTES + MAX_SOURCE_BYTES
+                    || file.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            ByteBuffer payload = file.slice(file.position(), length);
+            file.position(file.position() + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != file.getInt()) {
+                break;
+            }
+            long sequence = payload.getLong();
+            long plantId = payload.getLong();
+            LocalDateTime wateredAt = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+            byte[] source = new byte[payload.getShort()];
+            payload.get(source);
+            entries.add(new Entry(sequence, plantId, wateredAt, new String(source, StandardCharsets.UTF_8)));
+            validEnd = file.position();
+        }
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        return entries;
+    }
+
+    // Append a group of records and force them to disk before returning
+    void append(List<Entry> entries) throws IOException {
+        buffer.clear();
+        CRC32 crc = new CRC32();
+        for (Entry entry : entries) {
+            byte[] source = entry.source().getBytes(StandardCharsets.UTF_8);
+            int length = FIXED_PAYLOAD_BYTES + Math.min(source.length, MAX_SOURCE_BYTES);
+            ensureCapacity(HEADER_BYTES + length + Integer.BYTES);
+
+            buffer.putInt(length);
+            int payloadStart = buffer.position();
+            buffer.putLong(entry.sequence());
+            buffer.putLong(entry.plantId());
+            buffer.putLong(entry.wateredAt().toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(entry.wateredAt().getNano());
+            buffer.putShort((short) (length - FIXED_PAYLOAD_BYTES));
+            buffer.put(source, 0, length - FIXED_PAYLOAD_BYTES);
+            crc.reset();
+            crc.update(buffer.array(), payloadStart, length);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    // Drop every record; only called once all of them are in the database
+    void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.homecare.writebehind;
+
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.service.WateringHistoryService;
+import com.homecare.service.WateringHistoryService.Watering;
+import com.homecare.writebehind.WateringWal.Entry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind mode for watering taps (plantcare.watering.write-behind.enabled=true).
+ *
+ * Request threads put waterings into a bounded ring buffer. A single writer thread takes everything queued,
+ * appends it to the WAL with one fsync and completes the callers' futures, so a request is acknowledged once its
+ * watering is durable on disk. Written waterings are coalesced per plant (latest watering wins) and a flusher
+ * applies them every few milliseconds in one transaction, together with their history and the WAL sequence
+ * they reach (watering_wal_checkpoints). The WAL is truncated whenever the database has caught up with it.
+ *
+ * At startup the WAL is replayed after a crash. Records at or below the stored checkpoint were already
+ * applied and are skipped, so nothing is counted twice; the rest only move a plant's lastWatered forward, never
+ * back past a watering recorded since. Sequences continue from the checkpoint, so they grow across restarts.
+ */
+@Service
+@ConditionalOnProperty(name = "plantcare.watering.write-behind.enabled", havingValue = "true")
+public class WateringWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(WateringWriteBehind.class);
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private WateringHistoryService historyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${plantcare.watering.write-behind.wal-path:./data/watering.wal}")
+    private String walPath;
+
+    @Value("${plantcare.watering.write-behind.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${plantcare.watering.write-behind.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    private WateringWal wal;
+    // Key of this WAL in watering_wal_checkpoints
+    private String walId;
+
+    // Ring buffer of accepted, not yet logged waterings
+    private Pending[] ring;
+    private int head;
+    private int count;
+    private final ReentrantLock ringLock = new ReentrantLock();
+    private final Condition notEmpty = ringLock.newCondition();
+    private final Condition notFull = ringLock.newCondition();
+
+    // Logged waterings waiting for the next flush, coalesced per plant
+    private Map<Long, Coalesced> unflushed = new HashMap<>();
+    private final Object unflushedLock = new Object();
+
+    // Serialises WAL appends and truncation; sequences are only advanced under it
+    private final Object walLock = new Object();
+    private long nextSequence = 1;
+    private long loggedSequence;
+    private volatile long appliedSequence;
+
+    private Thread writer;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    private record Pending(long plantId, LocalDateTime wateredAt, String source, CompletableFuture<Void> logged) {
+    }
+
+    private record Coalesced(LocalDateTime latest, List<Entry> entries) {
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        ring = new Pending[bufferSize];
+        wal = new WateringWal(Path.of(walPath));
+        walId = wal.getPath().toAbsolutePath().normalize().toString();
+        replay();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "watering-wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "watering-write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Accept a watering; the future completes once it is durable in the WAL
+    public CompletableFuture<Void> submit(Long plantId, LocalDateTime wateredAt, String source, long timeoutMs)
+            throws InterruptedException {
+        CompletableFuture<Void> logged = new CompletableFuture<>();
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ringLock.lock();
+        try {
+            while (count == ring.length) {
+                if (!running || waitNanos <= 0) {
+                    logged.completeExceptionally(new IllegalStateException("Watering buffer is full"));
+                    return logged;
+                }
+                waitNanos = notFull.awaitNanos(waitNanos);
+            }
+            if (!running) {
+                logged.completeExceptionally(new IllegalStateException("Watering write-behind is stopped"));
+                return logged;
+            }
+            ring[(head + count) % ring.length] = new Pending(plantId, wateredAt, source, logged);
+            count++;
+            notEmpty.signal();
+        } finally {
+            ringLock.unlock();
+        }
+        return logged;
+    }
+
+    // Apply everything logged so far; called by the flusher and on shutdown.
+    // Flushes never overlap, so the WAL is only truncated once every batch before it has committed.
+    public synchronized void flush() {
+        Map<Long, Coalesced> batch;
+        synchronized (unflushedLock) {
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            batch = unflushed;
+            unflushed = new HashMap<>();
+        }
+
+        Map<Long, Long> versions = new HashMap<>();
+        long batchSequence;
+        try {
+            batchSequence = apply(batch, versions);
+        } catch (RuntimeException e) {
+            // Keep the batch for the next flush; its records stay in the WAL meanwhile
+            synchronized (unflushedLock) {
+                batch.values().forEach(coalesced -> coalesced.entries().forEach(entry -> coalesce(unflushed, entry)));
+            }
+            throw e;
+        }
+        for (Long plantId : batch.keySet()) {
+            eventPublisher.publishEvent(PlantChangedEvent.saved(plantId, versions.get(plantId)));
+        }
+
+        synchronized (walLock) {
+            appliedSequence = Math.max(appliedSequence, batchSequence);
+            if (appliedSequence == loggedSequence) {
+                try {
+                    wal.truncate();
+                } catch (IOException e) {
+                    logger.warn("Could not truncate watering WAL {}", wal.getPath(), e);
+                }
+            }
+        }
+    }
+
+    // Number of waterings accepted but not yet in the database
+    public int getBacklog() {
+        ringLock.lock();
+        try {
+            synchronized (unflushedLock) {
+                return count + unflushed.values().stream().mapToInt(c -> c.entries().size()).sum();
+            }
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        ringLock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            ringLock.unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        wal.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        while (true) {
+            ringLock.lock();
+            try {
+                while (count == 0 && running) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (count == 0) {
+                    return;
+                }
+                // Take every queued watering as one group
+                while (count > 0) {
+                    group.add(ring[head]);
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                    count--;
+                }
+                notFull.signalAll();
+            } finally {
+                ringLock.unlock();
+            }
+            writeGroup(group);
+            group.clear();
+        }
+    }
+
+    private void writeGroup(List<Pending> group) {
+        List<Entry> entries = new ArrayList<>(group.size());
+        try {
+            synchronized (walLock) {
+                for (Pending pending : group) {
+                    entries.add(new Entry(nextSequence++, pending.plantId(), pending.wateredAt(), pending.source()));
+                }
+                wal.append(entries);
+                loggedSequence = entries.get(entries.size() - 1).sequence();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write {} waterings to the WAL", group.size(), e);
+            group.forEach(pending -> pending.logged().completeExceptionally(e));
+            return;
+        }
+
+        synchronized (unflushedLock) {
+            entries.forEach(entry -> coalesce(unflushed, entry));
+        }
+        group.forEach(pending -> pending.logged().complete(null));
+    }
+
+    // One transaction for the whole batch: one UPDATE per plant, whatever the number of taps it received, every
+    // tap in the history, and the checkpoint. Each plant's version is read back into versions while the UPDATE
+    // still holds its row (none for a plant deleted meanwhile).
+    private long apply(Map<Long, Coalesced> batch, Map<Long, Long> versions) {
+        List<Watering> waterings = new ArrayList<>();
+        long batchSequence = 0;
+        for (Coalesced coalesced : batch.values()) {
+            for (Entry entry : coalesced.entries()) {
+                waterings.add(new Watering(entry.plantId(), entry.wateredAt(), entry.source()));
+                batchSequence = Math.max(batchSequence, entry.sequence());
+            }
+        }
+        long checkpoint = batchSequence;
+        transactionTemplate.executeWithoutResult(status -> {
+            batch.forEach((plantId, coalesced) -> {
+                plantRepository.waterPlantIfNotWateredSince(plantId, coalesced.latest().toLocalDate());
+                plantRepository.findVersionById(plantId).ifPresent(version -> versions.put(plantId, version));
+            });
+            historyService.write(waterings);
+            jdbcTemplate.update("MERGE INTO watering_wal_checkpoints (wal_id, applied_sequence) KEY (wal_id) "
+                    + "VALUES (?, GREATEST(?, COALESCE((SELECT applied_sequence FROM watering_wal_checkpoints "
+                    + "WHERE wal_id = ?), 0)))", walId, checkpoint, walId);
+        });
+        return batchSequence;
+    }
+
+    private long appliedCheckpoint() {
+        List<Long> applied = jdbcTemplate.queryForList(
+                "SELECT applied_sequence FROM watering_wal_checkpoints WHERE wal_id = ?", Long.class, walId);
+        return applied.isEmpty() ? 0 : applied.get(0);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush buffered waterings", e);
+        }
+    }
+
+    // Apply whatever a previous run logged but did not flush
+    private void replay() throws IOException {
+        long checkpoint = appliedCheckpoint();
+        List<Entry> entries = wal.readAll();
+        long lastLogged = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).sequence();
+        synchronized (walLock) {
+            loggedSequence = Math.max(checkpoint, lastLogged);
+            appliedSequence = checkpoint;
+            nextSequence = loggedSequence + 1;
+        }
+
+        Map<Long, Coalesced> batch = new HashMap<>();
+        entries.stream()
+                .filter(entry -> entry.sequence() > checkpoint)
+                .forEach(entry -> coalesce(batch, entry));
+        if (batch.isEmpty()) {
+            if (!entries.isEmpty()) {
+                // Everything was applied before the crash, only the truncation was missed
+                wal.truncate();
+            }
+            return;
+        }
+        synchronized (unflushedLock) {
+            unflushed = batch;
+        }
+        flush();
+        logger.info("Replayed {} of {} logged waterings for {} plants from {}",
+                batch.values().stream().mapToInt(c -> c.entries().size()).sum(), entries.size(), batch.size(),
+                wal.getPath());
+    }
+
+    // Add a logged watering to the per-plant batch, keeping the latest watering date
+    private static void coalesce(Map<Long, Coalesced> batch, Entry entry) {
+        Coalesced current = batch.get(entry.plantId());
+        if (current == null) {
+            current = new Coalesced(entry.wateredAt(), new ArrayList<>());
+        } else if (entry.wateredAt().isAfter(current.latest())) {
+            current = new Coalesced(entry.wateredAt(), current.entries());
+        }
+        current.entries().add(entry);
+        batch.put(entry.plantId(), current);
+    }
+}
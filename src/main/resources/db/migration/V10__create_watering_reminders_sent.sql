@@ -0,0 +1,6 @@
+-- Next watering date each plant was last reminded of, so a restart does not send the overdue reminders again
+CREATE TABLE IF NOT EXISTS watering_reminders_sent (
+    plant_id     BIGINT    PRIMARY KEY,
+    reminded_for DATE      NOT NULL,
+    sent_at      TIMESTAMP NOT NULL
+);
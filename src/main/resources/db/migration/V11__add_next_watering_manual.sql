@@ -0,0 +1,3 @@
+-- Set when a client chose the next watering date itself; the nightly recomputation leaves those rows alone
+-- until the plant is watered again or its frequency changes
+ALTER TABLE plants ADD COLUMN IF NOT EXISTS next_watering_manual BOOLEAN DEFAULT FALSE NOT NULL;
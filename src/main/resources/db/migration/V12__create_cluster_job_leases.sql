@@ -0,0 +1,6 @@
+-- Which instance of a cluster runs each scheduled job; a lease is taken over by another instance once it expires
+CREATE TABLE IF NOT EXISTS cluster_job_leases (
+    job_name   VARCHAR(64)  PRIMARY KEY,
+    node_id    VARCHAR(64)  NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,20 @@
+-- Plants table as previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS lets existing databases, baselined at version 0, run this migration safely.
+CREATE TABLE IF NOT EXISTS plants (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name               VARCHAR(100)  NOT NULL,
+    type               VARCHAR(50)   NOT NULL,
+    watering_frequency VARCHAR(50)   NOT NULL,
+    sunlight_needs     VARCHAR(50)   NOT NULL,
+    care_notes         VARCHAR(1000),
+    image_url          TEXT,
+    last_watered       DATE,
+    next_watering      DATE,
+    added_date         DATE,
+    created_at         TIMESTAMP(6),
+    updated_at         TIMESTAMP(6),
+    version            BIGINT DEFAULT 0 NOT NULL
+);
+
+-- Databases created before optimistic locking have no version column yet
+ALTER TABLE plants ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
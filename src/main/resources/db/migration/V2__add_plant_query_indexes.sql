@@ -0,0 +1,22 @@
+-- Indexes for the PlantRepository queries.
+
+-- findPlantsNeedingWatering / countPlantsNeedingWatering: next_watering <= :today
+CREATE INDEX IF NOT EXISTS idx_plants_next_watering ON plants (next_watering);
+
+-- findByTypeAndSunlightNeeds; its leading column also serves findByType and countByType
+CREATE INDEX IF NOT EXISTS idx_plants_type_sunlight ON plants (type, sunlight_needs);
+
+-- findBySunlightNeeds
+CREATE INDEX IF NOT EXISTS idx_plants_sunlight_needs ON plants (sunlight_needs);
+
+-- findByWateringFrequency
+CREATE INDEX IF NOT EXISTS idx_plants_watering_frequency ON plants (watering_frequency);
+
+-- findByAddedDateAfter / findByAddedDateBetween
+CREATE INDEX IF NOT EXISTS idx_plants_added_date ON plants (added_date);
+
+-- Case-insensitive name lookups. H2 has no expression indexes, so the lowercase name is a
+-- generated column. A B-tree only helps equality and prefix matches; the contains search
+-- (LIKE '%name%') still has to scan.
+ALTER TABLE plants ADD COLUMN IF NOT EXISTS name_lower VARCHAR(100) GENERATED ALWAYS AS (LOWER(name));
+CREATE INDEX IF NOT EXISTS idx_plants_name_lower ON plants (name_lower);
@@ -0,0 +1,29 @@
+-- Append-only log of watering events; rows are only ever inserted
+CREATE TABLE IF NOT EXISTS watering_events (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    plant_id   BIGINT       NOT NULL,
+    plant_type VARCHAR(50),
+    watered_at TIMESTAMP(6) NOT NULL,
+    source     VARCHAR(20)  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_watering_events_plant ON watering_events (plant_id, watered_at);
+
+-- Waterings per plant per day and per week (period_start is the Monday for weeks),
+-- maintained by the ingestion batches so history reads never scan raw events
+CREATE TABLE IF NOT EXISTS plant_watering_rollups (
+    plant_id     BIGINT     NOT NULL,
+    granularity  VARCHAR(5) NOT NULL,
+    period_start DATE       NOT NULL,
+    waterings    INT        NOT NULL,
+    PRIMARY KEY (plant_id, granularity, period_start)
+);
+
+-- Same rollups per plant type
+CREATE TABLE IF NOT EXISTS type_watering_rollups (
+    plant_type   VARCHAR(50) NOT NULL,
+    granularity  VARCHAR(5)  NOT NULL,
+    period_start DATE        NOT NULL,
+    waterings    INT         NOT NULL,
+    PRIMARY KEY (plant_type, granularity, period_start)
+);
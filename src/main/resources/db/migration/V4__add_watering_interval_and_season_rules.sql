@@ -0,0 +1,24 @@
+-- Watering frequency as a normalized interval in days, kept in step with watering_frequency by the
+-- database itself so no writer has to maintain it. Must match WateringSchedule.intervalDays.
+ALTER TABLE plants ADD COLUMN IF NOT EXISTS watering_interval_days INT GENERATED ALWAYS AS (
+    CASE LOWER(watering_frequency)
+        WHEN 'daily' THEN 1
+        WHEN 'every-2-days' THEN 2
+        WHEN 'weekly' THEN 7
+        WHEN 'every-2-weeks' THEN 14
+        WHEN 'monthly' THEN 30
+        ELSE 7
+    END);
+
+-- Seasonal adjustments applied by the nightly schedule recomputation: while the run date's month is in
+-- [start_month, end_month] (wrapping over the new year when start_month > end_month), intervals of the
+-- matching plants (all plants when plant_type is NULL) are multiplied by interval_multiplier.
+-- When several rules match a plant the largest multiplier wins.
+CREATE TABLE IF NOT EXISTS watering_season_rules (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                VARCHAR(100) NOT NULL,
+    start_month         INT          NOT NULL CHECK (start_month BETWEEN 1 AND 12),
+    end_month           INT          NOT NULL CHECK (end_month BETWEEN 1 AND 12),
+    plant_type          VARCHAR(50),
+    interval_multiplier DECIMAL(4, 2) NOT NULL CHECK (interval_multiplier > 0)
+);
@@ -0,0 +1,12 @@
+-- Household (tenant) owning each plant; plants from before households existed belong to the default household
+ALTER TABLE plants ADD COLUMN IF NOT EXISTS household_id VARCHAR(64) DEFAULT 'default' NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_plants_household ON plants (household_id);
+
+-- Shard of every household seen so far. Only the copy on the home shard (shard 0) is used; a household is
+-- placed when it is first seen and only a rebalance moves it afterwards.
+CREATE TABLE IF NOT EXISTS household_shards (
+    household_id VARCHAR(64)  PRIMARY KEY,
+    shard        INT          NOT NULL,
+    assigned_at  TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,13 @@
+-- Plant changes made by each application instance, polled by the other instances of a cluster so they can
+-- refresh their in-memory caches and indexes. Rows are only inserted and, after the retention period, purged.
+CREATE TABLE IF NOT EXISTS plant_change_log (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    node_id       VARCHAR(64)  NOT NULL,
+    plant_id      BIGINT,
+    plant_version BIGINT,
+    change_type   VARCHAR(10)  NOT NULL,
+    household_id  VARCHAR(64)  NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_plant_change_log_created ON plant_change_log (created_at);
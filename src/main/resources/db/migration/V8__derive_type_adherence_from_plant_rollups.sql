@@ -0,0 +1,5 @@
+-- Type adherence now sums the per-plant rollups of the plants that have the type today. The per-type rollups
+-- kept a watering under the type the plant had when it was watered (and mixed households), and the plant type
+-- on each event only fed them.
+DROP TABLE IF EXISTS type_watering_rollups;
+ALTER TABLE watering_events DROP COLUMN IF EXISTS plant_type;
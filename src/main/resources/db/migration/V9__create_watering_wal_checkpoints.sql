@@ -0,0 +1,6 @@
+-- Highest write-behind WAL sequence applied to the database, per WAL file. It is updated in the transaction
+-- that applies a batch, so a replay after a crash skips the records that had already been applied.
+CREATE TABLE IF NOT EXISTS watering_wal_checkpoints (
+    wal_id           VARCHAR(1024) PRIMARY KEY,
+    applied_sequence BIGINT        NOT NULL
+);
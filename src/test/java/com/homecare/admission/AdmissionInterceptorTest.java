@@ -0,0 +1,130 @@
+package com.homecare.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionInterceptorTest {
+
+    @AdmissionControlled("heavy")
+    public void heavy() {
+    }
+
+    public void cheap() {
+    }
+
+    @Test
+    public void testRejectsOverTheLimitAndReleasesOnCompletion() throws Exception {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor();
+        ReflectionTestUtils.setField(interceptor, "environment", new MockEnvironment()
+                .withProperty("plantcare.admission.heavy.initial-limit", "1")
+                .withProperty("plantcare.admission.heavy.max-limit", "1"));
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        ReflectionTestUtils.setField(interceptor, "retryAfterSeconds", 2);
+        HandlerMethod heavy = new HandlerMethod(this, getClass().getMethod("heavy"));
+        HandlerMethod cheap = new HandlerMethod(this, getClass().getMethod("cheap"));
+
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), heavy));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest(), rejected, heavy));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        // Handlers without a limit are never held back
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), cheap));
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), heavy, null);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), heavy, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), heavy));
+
+        assertEquals(1, interceptor.getStats().size());
+        assertEquals(2, interceptor.getStats().get(0).accepted());
+        assertEquals(1, interceptor.getStats().get(0).rejected());
+        assertEquals(1, interceptor.getStats().get(0).inFlight());
+    }
+
+    @Test
+    public void testLimitGrowsWhileFastAndBacksOffWhenSlow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("heavy", 4, 1, 20, 2.0);
+        long fast = TimeUnit.MILLISECONDS.toNanos(10);
+
+        // Saturated at fast latency: the limit creeps up
+        for (int round = 0; round < 50; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(fast);
+            }
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 4, "limit " + grown);
+        assertTrue(grown <= 20);
+
+        // Saturated with latency well above the baseline: multiplicative decrease down to the floor
+        for (int round = 0; round < 100; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(fast * 5);
+            }
+        }
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void testResetLatencyIgnoresRequestsAdmittedBefore() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("heavy", 4, 1, 20, 2.0);
+        long cold = TimeUnit.MILLISECONDS.toNanos(200);
+        long warm = TimeUnit.MILLISECONDS.toNanos(10);
+        assertTrue(limit.tryAcquire());
+        limit.release(cold);
+        assertTrue(limit.tryAcquire());
+        long epoch = limit.getLatencyEpoch();
+
+        limit.resetLatency();
+        assertEquals(0, limit.getBaselineNanos());
+        // Still in flight at the reset: frees its slot without setting the new baseline
+        limit.release(cold, epoch);
+        assertEquals(0, limit.getInFlight());
+        assertEquals(0, limit.getBaselineNanos());
+        assertTrue(limit.tryAcquire());
+        limit.release(warm);
+        assertEquals(warm, limit.getBaselineNanos());
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void testJitterAtLowConcurrencyKeepsTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("heavy", 8, 1, 20, 2.0);
+        Random random = new Random(42);
+
+        // One or two requests at a time with latencies spread between 5 and 60 ms, some far above the fastest
+        for (int i = 0; i < 10_000; i++) {
+            int concurrent = 1 + random.nextInt(2);
+            for (int j = 0; j < concurrent; j++) {
+                assertTrue(limit.tryAcquire(), "rejected at request " + i);
+            }
+            for (int j = 0; j < concurrent; j++) {
+                double millis = 5 * Math.exp(random.nextGaussian() * 0.6);
+                limit.release(TimeUnit.MICROSECONDS.toNanos((long) (Math.min(millis, 60) * 1000)));
+            }
+        }
+        assertEquals(8, limit.getLimit());
+        assertTrue(limit.getBaselineNanos() > TimeUnit.MILLISECONDS.toNanos(2));
+    }
+}
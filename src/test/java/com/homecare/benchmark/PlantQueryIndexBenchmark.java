@@ -0,0 +1,155 @@
+package com.homecare.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query-plan and latency comparison of the PlantRepository queries before (V1) and after the index migrations
+ * (V2 adds them, V7 drops the ones that did not pay off).
+ *
+ * Opt-in, since it loads a million rows: mvn test -Dtest=PlantQueryIndexBenchmark -Dbenchmark=true [-Dbenchmark.rows=1000000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PlantQueryIndexBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 20);
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+    private static final Pattern PLAN_COMMENT = Pattern.compile("/\\*(.*?)\\*/", Pattern.DOTALL);
+
+    // The queries Hibernate issues for the repository methods, with representative parameters
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("findPlantsNeedingWatering", "SELECT * FROM plants WHERE next_watering <= DATE '" + TODAY.minusDays(985) + "'");
+        QUERIES.put("countPlantsNeedingWatering", "SELECT COUNT(*) FROM plants WHERE next_watering <= DATE '" + TODAY.minusDays(985) + "'");
+        QUERIES.put("findByType", "SELECT * FROM plants WHERE type = 'type-7'");
+        QUERIES.put("countByType", "SELECT COUNT(*) FROM plants WHERE type = 'type-7'");
+        QUERIES.put("findBySunlightNeeds", "SELECT * FROM plants WHERE sunlight_needs = 'sun-2'");
+        QUERIES.put("findByTypeAndSunlightNeeds", "SELECT * FROM plants WHERE type = 'type-7' AND sunlight_needs = 'sun-2'");
+        QUERIES.put("findByAddedDateBetween", "SELECT * FROM plants WHERE added_date BETWEEN DATE '"
+                + TODAY.minusDays(10) + "' AND DATE '" + TODAY.minusDays(3) + "'");
+    }
+
+    @Test
+    public void compareQueryPlansAndLatency() throws Exception {
+        Path directory = Files.createDirectories(Path.of("target", "benchmark"));
+        // Result reuse is switched off so every run really executes the query
+        String url = "jdbc:h2:file:" + directory.toAbsolutePath().resolve("plants-" + System.nanoTime())
+                + ";OPTIMIZE_REUSE_RESULTS=FALSE";
+
+        Flyway.configure().dataSource(url, "sa", "").target("1").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            long loadStart = System.nanoTime();
+            loadRows(connection);
+            System.out.printf("Loaded %,d rows in %d ms%n", ROWS, (System.nanoTime() - loadStart) / 1_000_000);
+
+            Map<String, Result> before = measure(connection);
+
+            long migrateStart = System.nanoTime();
+            Flyway.configure().dataSource(url, "sa", "").load().migrate();
+            analyze(connection);
+            System.out.printf("Applied the index migrations in %d ms%n", (System.nanoTime() - migrateStart) / 1_000_000);
+
+            Map<String, Result> after = measure(connection);
+            report(before, after);
+        }
+    }
+
+    // Generate rows with 20 types, 5 sunlight levels and dates spread over about three years
+    private void loadRows(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO plants (name, type, watering_frequency, sunlight_needs, care_notes, "
+                    + "last_watered, next_watering, added_date, created_at, updated_at, version) "
+                    + "SELECT 'Plant ' || X, 'type-' || MOD(X, 20), 'weekly', 'sun-' || MOD(X, 5), "
+                    + "'Care notes for plant ' || X, "
+                    + "DATEADD('DAY', -MOD(X, 1000), DATE '" + TODAY + "'), "
+                    + "DATEADD('DAY', 7 - MOD(X, 1000), DATE '" + TODAY + "'), "
+                    + "DATEADD('DAY', -MOD(X * 7, 1100), DATE '" + TODAY + "'), "
+                    + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0 "
+                    + "FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        }
+        analyze(connection);
+    }
+
+    private void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private Map<String, Result> measure(Connection connection) throws SQLException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            String sql = query.getValue();
+            String plan = explain(connection, sql);
+            long[] timings = new long[RUNS];
+            int rows = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                rows = execute(connection, sql);
+                timings[run] = System.nanoTime() - start;
+            }
+            Arrays.sort(timings);
+            results.put(query.getKey(), new Result(plan, timings[RUNS / 2] / 1_000_000.0, rows));
+        }
+        return results;
+    }
+
+    private String explain(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            resultSet.next();
+            // H2 prints the chosen access path as comments after the table name
+            List<String> access = new ArrayList<>();
+            Matcher comment = PLAN_COMMENT.matcher(resultSet.getString(1));
+            while (comment.find()) {
+                access.add(comment.group(1).replaceAll("\\s+", " ").trim());
+            }
+            return String.join("; ", access);
+        }
+    }
+
+    private int execute(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            int rows = 0;
+            while (resultSet.next()) {
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private void report(Map<String, Result> before, Map<String, Result> after) {
+        System.out.printf("%n%-28s %8s %12s %12s %9s%n", "query", "rows", "before (ms)", "after (ms)", "speedup");
+        for (String name : QUERIES.keySet()) {
+            Result b = before.get(name);
+            Result a = after.get(name);
+            System.out.printf("%-28s %8d %12.2f %12.2f %8.1fx%n", name, a.rows(), b.medianMillis(), a.medianMillis(),
+                    b.medianMillis() / Math.max(a.medianMillis(), 0.001));
+            System.out.printf("    before: %s%n    after:  %s%n", b.plan(), a.plan());
+        }
+    }
+
+    private record Result(String plan, double medianMillis, int rows) {
+    }
+}
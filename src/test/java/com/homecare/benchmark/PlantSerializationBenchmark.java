@@ -0,0 +1,122 @@
+package com.homecare.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.entity.Plant;
+import com.homecare.json.JsonFragments;
+import com.homecare.json.JsonFragmentsHttpMessageConverter;
+import com.homecare.json.PlantJsonCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and serialization time of a GET /api/plants body as JSON (Jackson), JSON spliced from the
+ * fragment cache, and CBOR with epoch-day dates, each raw and gzipped. Uses the application's configured
+ * mappers, so the output matches what the endpoints send.
+ *
+ * Opt-in: mvn test -Dtest=PlantSerializationBenchmark -Dbenchmark=true [-Dbenchmark.plants=5000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.homecare=INFO",
+        "logging.level.org.springframework.web=INFO"
+})
+@ActiveProfiles("test")
+public class PlantSerializationBenchmark {
+
+    private static final int PLANTS = Integer.getInteger("benchmark.plants", 5_000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 30);
+    private static final String[] TYPES = {"tropical", "succulent", "fern", "herb", "vine", "palm", "cactus", "orchid"};
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private PlantJsonCache jsonCache;
+
+    private interface Encoder {
+        byte[] encode(List<Plant> plants) throws IOException;
+    }
+
+    @Test
+    public void compareFormats() throws Exception {
+        List<Plant> plants = plants();
+        JsonFragmentsHttpMessageConverter fragmentConverter = new JsonFragmentsHttpMessageConverter();
+
+        System.out.printf("%n%,d plants, mean of %d rounds after warm-up%n", PLANTS, ROUNDS);
+        System.out.printf("%-24s %12s %12s %14s %12s%n", "format", "bytes", "gzip bytes", "encode ms", "gzip ms");
+        measure("JSON (Jackson)", plants, objectMapper::writeValueAsBytes);
+        measure("JSON (fragment cache)", plants, list -> {
+            JsonFragments body = jsonCache.list(list);
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            fragmentConverter.write(body, MediaType.APPLICATION_JSON, output);
+            return output.getBodyAsBytes();
+        });
+        measure("CBOR (epoch days)", plants, cborConverter.getObjectMapper()::writeValueAsBytes);
+    }
+
+    private void measure(String format, List<Plant> plants, Encoder encoder) throws IOException {
+        byte[] encoded = null;
+        for (int i = 0; i < 5; i++) {
+            encoded = encoder.encode(plants);
+            gzip(encoded);
+        }
+        long encodeNanos = 0;
+        long gzipNanos = 0;
+        byte[] compressed = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoded = encoder.encode(plants);
+            encodeNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            compressed = gzip(encoded);
+            gzipNanos += System.nanoTime() - start;
+        }
+        System.out.printf("%-24s %,12d %,12d %14.2f %12.2f%n", format, encoded.length, compressed.length,
+                encodeNanos / 1e6 / ROUNDS, gzipNanos / 1e6 / ROUNDS);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static List<Plant> plants() {
+        List<Plant> plants = new ArrayList<>(PLANTS);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < PLANTS; i++) {
+            Plant plant = new Plant("Plant " + i, TYPES[i % TYPES.length], i % 3 == 0 ? "daily" : "weekly", "medium");
+            plant.setId((long) i + 1);
+            plant.setVersion((long) i % 5);
+            plant.setCareNotes("Water when the top inch of soil is dry. Keep away from cold drafts. Plant " + i + ".");
+            plant.setImageUrl("https://images.example.com/plants/" + TYPES[i % TYPES.length] + "/" + i + ".jpg");
+            plant.setAddedDate(today.minusDays(i % 700));
+            plant.setLastWatered(today.minusDays(i % 9));
+            plant.setNextWatering(today.plusDays(i % 7));
+            plant.setCreatedAt(LocalDateTime.now().minusDays(i % 700));
+            plant.setUpdatedAt(LocalDateTime.now().minusHours(i % 48));
+            plants.add(plant);
+        }
+        return plants;
+    }
+}
@@ -0,0 +1,136 @@
+package com.homecare.benchmark;
+
+import com.homecare.entity.Plant;
+import com.homecare.repository.MappedPlantRepository;
+import com.homecare.repository.PlantRepository;
+import com.homecare.storage.MappedPlantStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Latency comparison of the Hibernate + H2 (file) PlantRepository and the memory-mapped one, for the
+ * repository calls the controllers make, plus the mapped store's recovery and compaction times.
+ *
+ * Opt-in: mvn test -Dtest=PlantStorageBenchmark -Dbenchmark=true [-Dbenchmark.plants=20000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/storage-${random.uuid}",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.homecare=INFO"
+})
+@ActiveProfiles("test")
+public class PlantStorageBenchmark {
+
+    private static final int PLANTS = Integer.getInteger("benchmark.plants", 20_000);
+    private static final int OPERATIONS = Integer.getInteger("benchmark.operations", 5_000);
+    private static final int SCANS = 20;
+    private static final String[] TYPES = {"tropical", "succulent", "fern", "herb", "vine", "palm", "cactus", "orchid"};
+
+    @Autowired
+    private PlantRepository h2Repository;
+
+    @Test
+    public void compareBackends() throws Exception {
+        Path directory = Files.createDirectories(Path.of("target", "benchmark", "mapped-" + System.nanoTime()));
+        MappedPlantStore store = openStore(directory);
+        MappedPlantRepository mappedRepository = new MappedPlantRepository();
+        ReflectionTestUtils.setField(mappedRepository, "store", store);
+
+        Map<String, double[]> results = new LinkedHashMap<>();
+        run("H2 + Hibernate", h2Repository, results, 0);
+        run("memory-mapped", mappedRepository, results, 1);
+
+        long start = System.nanoTime();
+        store.close();
+        store = openStore(directory);
+        double recoveryMillis = (System.nanoTime() - start) / 1e6;
+        int logBytes = store.getLogBytes();
+        start = System.nanoTime();
+        store.compact();
+        double compactionMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        store.close();
+        store = openStore(directory);
+        double snapshotRecoveryMillis = (System.nanoTime() - start) / 1e6;
+        store.close();
+
+        System.out.printf("%n%,d plants, %,d point operations%n", PLANTS, OPERATIONS);
+        System.out.printf("%-32s %14s %14s%n", "operation", "H2 + Hibernate", "memory-mapped");
+        results.forEach((operation, millis) ->
+                System.out.printf("%-32s %11.3f ms %11.3f ms%n", operation, millis[0], millis[1]));
+        System.out.printf("%nMapped store: reopen from a %,d byte log %.1f ms, compaction %.1f ms, "
+                + "reopen from snapshot %.1f ms%n", logBytes, recoveryMillis, compactionMillis, snapshotRecoveryMillis);
+    }
+
+    private void run(String backend, PlantRepository repository, Map<String, double[]> results, int column) {
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>(PLANTS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < PLANTS; i++) {
+            Plant plant = new Plant("Plant " + i, TYPES[i % TYPES.length], i % 3 == 0 ? "daily" : "weekly", "medium");
+            plant.setCareNotes("Care notes for plant " + i);
+            plant.setNextWatering(LocalDate.now().plusDays(random.nextInt(30) - 15));
+            ids.add(repository.save(plant).getId());
+        }
+        record(results, "save (per plant)", column, (System.nanoTime() - start) / 1e6 / PLANTS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            repository.findById(ids.get(random.nextInt(ids.size())));
+        }
+        record(results, "findById", column, (System.nanoTime() - start) / 1e6 / OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            repository.waterPlant(ids.get(random.nextInt(ids.size())), LocalDate.now());
+        }
+        record(results, "waterPlant", column, (System.nanoTime() - start) / 1e6 / OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            repository.findSummariesByType(TYPES[i % TYPES.length]);
+        }
+        record(results, "findSummariesByType", column, (System.nanoTime() - start) / 1e6 / SCANS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            repository.findPlantsNeedingWatering(LocalDate.now());
+        }
+        record(results, "findPlantsNeedingWatering", column, (System.nanoTime() - start) / 1e6 / SCANS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            repository.countPlantsNeedingWatering(LocalDate.now());
+        }
+        record(results, "countPlantsNeedingWatering", column, (System.nanoTime() - start) / 1e6 / SCANS);
+
+        System.out.printf("%s: done%n", backend);
+    }
+
+    private static void record(Map<String, double[]> results, String operation, int column, double millis) {
+        results.computeIfAbsent(operation, key -> new double[2])[column] = millis;
+    }
+
+    private static MappedPlantStore openStore(Path directory) throws Exception {
+        MappedPlantStore store = new MappedPlantStore();
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        ReflectionTestUtils.setField(store, "compactionMinLogBytes", 1 << 20);
+        store.open();
+        return store;
+    }
+}
@@ -0,0 +1,130 @@
+package com.homecare.benchmark;
+
+import com.homecare.HomeCarePlantsApplication;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start comparison: each run launches the application in a new JVM and measures the time from launching
+ * the process to the first 200 from GET /api/plants. The variants share one migrated H2 file database. The
+ * ahead-of-time processed build with its CDS archive is included once ./fast-start.sh build has made it.
+ *
+ * Opt-in: mvn test -Dtest=StartupBenchmark -Dbenchmark=true [-Dbenchmark.runs=5]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 3);
+    private static final long TIMEOUT_MS = 180_000;
+    private static final Path FAST_START = Path.of("target", "fast-start");
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    public void timeToFirstSuccessfulRequest() throws Exception {
+        Path directory = Files.createDirectories(Path.of("target", "benchmark", "startup-" + System.nanoTime()));
+        String database = "jdbc:h2:file:" + directory.toAbsolutePath().resolve("plants");
+        Flyway.configure().dataSource(database, "sa", "").load().migrate();
+
+        String classpath = System.getProperty("java.class.path");
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("default", command(classpath, List.of(), "default"));
+        variants.put("fast-start", command(classpath, List.of(), "fast-start"));
+        Path archive = FAST_START.resolve("app.jsa");
+        if (Files.exists(archive)) {
+            variants.put("fast-start + AOT + CDS", command(Files.readString(FAST_START.resolve("classpath.txt")).trim(),
+                    List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"), "fast-start"));
+        } else {
+            System.out.println("No " + archive + " (run ./fast-start.sh build), skipping the AOT + CDS variant");
+        }
+
+        // Rounds interleave the variants so a noisy machine affects them alike
+        Map<String, List<Long>> millis = new LinkedHashMap<>();
+        for (int run = 0; run < RUNS; run++) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                Path log = directory.resolve(variant.getKey().replaceAll("\\W+", "-") + "-" + run + ".log");
+                millis.computeIfAbsent(variant.getKey(), key -> new ArrayList<>())
+                        .add(timeToFirstRequest(variant.getValue(), database, log));
+            }
+        }
+
+        System.out.printf("%nTime to first successful GET /api/plants, %d cold starts each%n", RUNS);
+        System.out.printf("%-24s %10s %10s %10s%n", "variant", "min", "median", "max");
+        millis.forEach((variant, times) -> {
+            List<Long> sorted = new ArrayList<>(times);
+            Collections.sort(sorted);
+            System.out.printf("%-24s %7d ms %7d ms %7d ms%n", variant, sorted.get(0), sorted.get(sorted.size() / 2),
+                    sorted.get(sorted.size() - 1));
+        });
+    }
+
+    private static List<String> command(String classpath, List<String> jvmOptions, String profile) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(HomeCarePlantsApplication.class.getName());
+        command.add("--spring.profiles.active=" + profile);
+        return command;
+    }
+
+    private long timeToFirstRequest(List<String> baseCommand, String database, Path log) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(baseCommand);
+        command.add("--spring.datasource.url=" + database);
+        command.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/plants"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS)) {
+                    throw new IllegalStateException("No successful request within " + TIMEOUT_MS + " ms, see " + log);
+                }
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(20);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
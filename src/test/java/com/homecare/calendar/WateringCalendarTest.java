@@ -0,0 +1,68 @@
+package com.homecare.calendar;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WateringCalendarTest {
+
+    @Test
+    public void testRendersRecurringEventsAndReusesThemPerVersion() throws Exception {
+        WateringCalendar calendar = new WateringCalendar();
+        PlantSummary fern = plant(1L, "Fern; the big one", "every-2-weeks", LocalDate.of(2026, 5, 4), 3L);
+        PlantSummary cactus = plant(2L, "Cactus", "monthly", null, 0L);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        calendar.write(List.of(fern, cactus), output);
+        String feed = output.toString(StandardCharsets.UTF_8);
+        assertTrue(feed.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(feed.endsWith("END:VCALENDAR\r\n"));
+        assertTrue(feed.contains("DTSTART;VALUE=DATE:20260504\r\n"));
+        assertTrue(feed.contains("RRULE:FREQ=WEEKLY;INTERVAL=2\r\n"));
+        assertTrue(feed.contains("SUMMARY:Water Fern\\; the big one\r\n"));
+        assertTrue(feed.contains("SEQUENCE:3\r\n"));
+        // Plants without a next watering date have no event
+        assertEquals(1, feed.split("BEGIN:VEVENT", -1).length - 1);
+
+        byte[] event = calendar.event(fern);
+        assertSame(event, calendar.event(fern));
+        assertNotSame(event, calendar.event(plant(1L, "Fern", "weekly", LocalDate.of(2026, 5, 5), 4L)));
+
+        String eTag = calendar.currentETag(null);
+        assertEquals(eTag, calendar.currentETag(null));
+        assertNotEquals(eTag, calendar.currentETag("fern"));
+        calendar.onPlantChanged(PlantChangedEvent.saved(1L, 1L));
+        assertNotEquals(eTag, calendar.currentETag(null));
+    }
+
+    @Test
+    public void testRecurrenceAndLineFolding() {
+        assertEquals("FREQ=DAILY", WateringCalendar.recurrence("daily"));
+        assertEquals("FREQ=DAILY;INTERVAL=2", WateringCalendar.recurrence("every-2-days"));
+        assertEquals("FREQ=WEEKLY", WateringCalendar.recurrence("weekly"));
+        assertEquals("FREQ=MONTHLY", WateringCalendar.recurrence("monthly"));
+
+        StringBuilder folded = new StringBuilder();
+        WateringCalendar.line(folded, "DESCRIPTION:" + "é".repeat(100));
+        for (String line : folded.toString().split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertEquals("DESCRIPTION:" + "é".repeat(100), folded.toString().replace("\r\n ", "").trim());
+    }
+
+    private static PlantSummary plant(Long id, String name, String frequency, LocalDate nextWatering, Long version) {
+        return new PlantSummary(id, name, "fern", frequency, "low", null, nextWatering, LocalDate.of(2026, 1, 1),
+                version);
+    }
+}
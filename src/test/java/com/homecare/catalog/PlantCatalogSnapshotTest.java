@@ -0,0 +1,135 @@
+package com.homecare.catalog;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PlantCatalogSnapshotTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+
+    private PlantCatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = new PlantCatalogSnapshot();
+        snapshot.rebuild(List.of(
+                summary(1L, "tropical", "medium", "weekly", TODAY.minusDays(30), TODAY.minusDays(1)),
+                summary(2L, "succulent", "high", "monthly", TODAY.minusDays(20), TODAY.plusDays(10)),
+                summary(3L, "tropical", "low", "weekly", TODAY.minusDays(10), TODAY),
+                summary(4L, "tropical", "medium", "daily", TODAY.minusDays(5), null)));
+    }
+
+    @Test
+    public void testCountsAndFilters() {
+        assertTrue(snapshot.isAvailable());
+        assertEquals(4, snapshot.size());
+        assertEquals(3, snapshot.countByType("tropical"));
+        assertEquals(0, snapshot.countByType("fern"));
+        assertEquals(2, snapshot.countNeedingWatering(TODAY));
+
+        assertArrayEquals(new long[] {1L, 4L}, sorted(snapshot.findIds(
+                new PlantFilter("tropical", "medium", null, null, null))));
+        assertArrayEquals(new long[] {2L, 3L}, sorted(snapshot.findIds(
+                new PlantFilter(null, null, null, TODAY.minusDays(20), TODAY.minusDays(10)))));
+        assertArrayEquals(new long[] {3L}, sorted(snapshot.findIds(
+                new PlantFilter("tropical", null, "weekly", TODAY.minusDays(15), null))));
+        assertEquals(0, snapshot.findIds(new PlantFilter("fern", null, null, null, null)).length);
+    }
+
+    @Test
+    public void testIncrementalUpdatesKeepBitmapsConsistent() {
+        snapshot.remove(1L);
+        snapshot.upsert(summary(3L, "succulent", "low", "weekly", TODAY.minusDays(10), TODAY));
+        snapshot.upsert(summary(5L, "fern", "low", "every-2-days", TODAY, TODAY.plusDays(2)));
+
+        assertEquals(4, snapshot.size());
+        assertEquals(1, snapshot.countByType("tropical"));
+        assertEquals(2, snapshot.countByType("succulent"));
+        assertArrayEquals(new long[] {3L, 5L}, sorted(snapshot.findIds(new PlantFilter(null, "low", null, null, null))));
+        assertArrayEquals(new long[] {4L}, sorted(snapshot.findIds(new PlantFilter("tropical", null, null, null, null))));
+    }
+
+    @Test
+    public void testTooManyDistinctValuesDisablesSnapshot() {
+        for (long id = 10; id < 10 + ByteDictionary.CAPACITY; id++) {
+            snapshot.upsert(summary(id, "type-" + id, "low", "weekly", TODAY, TODAY));
+        }
+        assertFalse(snapshot.isAvailable());
+    }
+
+    @Test
+    public void testDisabledSnapshotIsRebuiltOnceTheValuesFitAgain() {
+        PlantRepository repository = mock(PlantRepository.class);
+        ReflectionTestUtils.setField(snapshot, "plantRepository", repository);
+        for (long id = 10; id < 10 + ByteDictionary.CAPACITY; id++) {
+            snapshot.upsert(summary(id, "type-" + id, "low", "weekly", TODAY, TODAY));
+        }
+        assertFalse(snapshot.isAvailable());
+
+        // Most of those types are gone again by the next retry
+        when(repository.findAllSummaries()).thenReturn(List.of(
+                summary(1L, "tropical", "medium", "weekly", TODAY, TODAY),
+                summary(10L, "type-10", "low", "weekly", TODAY, TODAY)));
+        snapshot.rebuildIfDisabled();
+        assertTrue(snapshot.isAvailable());
+        assertEquals(2, snapshot.size());
+        assertEquals(1, snapshot.countByType("type-10"));
+
+        // An available snapshot is left alone
+        snapshot.rebuildIfDisabled();
+        verify(repository, times(1)).findAllSummaries();
+    }
+
+    @Test
+    public void testChangesDuringALoadSurviveIt() {
+        PlantRepository repository = mock(PlantRepository.class);
+        ReflectionTestUtils.setField(snapshot, "plantRepository", repository);
+        PlantSummary renamed = summary(3L, "fern", "low", "weekly", TODAY.minusDays(10), TODAY);
+        when(repository.findSummaryById(3L)).thenReturn(Optional.of(renamed));
+        when(repository.findSummaryById(4L)).thenReturn(Optional.empty());
+
+        // A write lands while the reload reads the rows, which still show the plants as they were before
+        when(repository.findAllSummaries()).thenAnswer(invocation -> {
+            snapshot.onPlantChanged(PlantChangedEvent.saved(3L, 1L));
+            snapshot.onPlantChanged(PlantChangedEvent.deleted(4L, 0L));
+            return List.of(
+                    summary(1L, "tropical", "medium", "weekly", TODAY.minusDays(30), TODAY.minusDays(1)),
+                    summary(3L, "tropical", "low", "weekly", TODAY.minusDays(10), TODAY),
+                    summary(4L, "tropical", "medium", "daily", TODAY.minusDays(5), null));
+        });
+        snapshot.onPlantChanged(PlantChangedEvent.bulk());
+
+        assertEquals(2, snapshot.size());
+        assertEquals(1, snapshot.countByType("fern"));
+        assertEquals(1, snapshot.countByType("tropical"));
+    }
+
+    private static PlantSummary summary(Long id, String type, String sunlight, String frequency,
+                                        LocalDate added, LocalDate nextWatering) {
+        return new PlantSummary(id, "Plant " + id, type, frequency, sunlight, null, nextWatering, added, 0L);
+    }
+
+    private static long[] sorted(long[] ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
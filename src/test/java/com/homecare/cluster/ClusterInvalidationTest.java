@@ -0,0 +1,137 @@
+package com.homecare.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.homecare.HomeCarePlantsApplication;
+import com.homecare.service.ScheduleRecomputationService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two instances of the application in one JVM, each with its own web server and caches, sharing one database.
+ */
+public class ClusterInvalidationTest {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final RestTemplate rest = new RestTemplate();
+
+    @BeforeAll
+    public static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    public void testWritesOnOneNodeRefreshTheOthersIndexes() {
+        // Both nodes have loaded their suggestion indexes before the write
+        assertEquals(List.of(), suggestions(nodeB, "Cluster"));
+        assertEquals(List.of(), suggestions(nodeA, "Cluster"));
+
+        Map<String, Object> plant = Map.of("name", "Cluster Orchid", "type", "tropical",
+                "wateringFrequency", "weekly", "sunlightNeeds", "medium");
+        JsonNode created = rest.postForObject(url(nodeA, "/api/plants"), plant, JsonNode.class);
+        long id = created.get("id").asLong();
+        awaitUntil(() -> suggestions(nodeB, "Cluster").equals(List.of("Cluster Orchid")));
+        long totalOnA = rest.getForObject(url(nodeA, "/api/plants/stats"), JsonNode.class).get("totalPlants").asLong();
+        awaitUntil(() -> rest.getForObject(url(nodeB, "/api/plants/stats"), JsonNode.class)
+                .get("totalPlants").asLong() == totalOnA);
+
+        rest.put(url(nodeB, "/api/plants/" + id), Map.of("name", "Cluster Lily", "type", "tropical",
+                "wateringFrequency", "weekly", "sunlightNeeds", "medium"));
+        awaitUntil(() -> suggestions(nodeA, "Cluster").equals(List.of("Cluster Lily")));
+
+        rest.postForObject(url(nodeB, "/api/plants/" + id + "/water"), null, JsonNode.class);
+        rest.delete(url(nodeA, "/api/plants/" + id));
+        awaitUntil(() -> suggestions(nodeB, "Cluster").isEmpty());
+
+        // The log carries the version each write produced, and for the delete the version it removed
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        assertEquals(List.of(0L, 1L, 2L), jdbc.queryForList("SELECT plant_version FROM plant_change_log "
+                + "WHERE plant_id = ? AND change_type = 'SAVED' ORDER BY id", Long.class, id));
+        assertEquals(List.of(2L), jdbc.queryForList("SELECT plant_version FROM plant_change_log "
+                + "WHERE plant_id = ? AND change_type = 'DELETED'", Long.class, id));
+        JsonNode statsA = rest.getForObject(url(nodeA, "/api/admin/cluster"), JsonNode.class);
+        assertEquals("node-a", statsA.get("nodeId").asText());
+        assertTrue(statsA.get("published").asLong() >= 2);
+        assertTrue(statsA.get("applied").asLong() >= 1);
+    }
+
+    @Test
+    public void testScheduledJobsRunOnOneNodeAtATime() throws InterruptedException {
+        ScheduleRecomputationService recomputeA = nodeA.getBean(ScheduleRecomputationService.class);
+        ScheduleRecomputationService recomputeB = nodeB.getBean(ScheduleRecomputationService.class);
+        recomputeA.recomputeNightly();
+        recomputeB.recomputeNightly();
+        assertNotNull(recomputeA.getLastReport());
+        assertNull(recomputeB.getLastReport());
+
+        // A lease the holder stops renewing passes to the next node that asks
+        ClusterJobLock lockA = nodeA.getBean(ClusterJobLock.class);
+        ClusterJobLock lockB = nodeB.getBean(ClusterJobLock.class);
+        assertTrue(lockA.tryAcquire("test-job", 200));
+        assertFalse(lockB.tryAcquire("test-job", 200));
+        assertTrue(lockA.tryAcquire("test-job", 200));
+        Thread.sleep(300);
+        assertTrue(lockB.tryAcquire("test-job", 60_000));
+        assertFalse(lockA.tryAcquire("test-job", 60_000));
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(HomeCarePlantsApplication.class)
+                .profiles("test", "cluster")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+                        "--plantcare.cluster.node-id=" + nodeId,
+                        "--plantcare.cluster.poll-interval-ms=100");
+    }
+
+    private List<String> suggestions(ConfigurableApplicationContext node, String prefix) {
+        List<String> names = new ArrayList<>();
+        for (JsonNode suggestion : rest.getForObject(url(node, "/api/plants/suggest?prefix=" + prefix), JsonNode.class)) {
+            if ("name".equals(suggestion.get("kind").asText())) {
+                names.add(suggestion.get("text").asText());
+            }
+        }
+        return names;
+    }
+
+    private static String url(ConfigurableApplicationContext node, String path) {
+        return "http://localhost:" + node.getEnvironment().getProperty("local.server.port") + path;
+    }
+
+    private static void awaitUntil(Supplier<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.get()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Peer did not catch up");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
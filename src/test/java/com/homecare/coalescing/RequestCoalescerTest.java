@@ -0,0 +1,109 @@
+package com.homecare.coalescing;
+
+import com.homecare.dto.CoalescingStats;
+import com.homecare.event.PlantChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RequestCoalescerTest {
+
+    @Test
+    public void testConcurrentIdenticalReadsShareOneExecution() throws Exception {
+        RequestCoalescer coalescer = coalescer(0);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object shared = new Object();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(executor.submit(() -> coalescer.execute("stats", "today", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return shared;
+            })));
+            started.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> coalescer.execute("stats", "today", () -> {
+                    executions.incrementAndGet();
+                    return new Object();
+                })));
+            }
+            // Give the followers time to find the flight before the leader finishes
+            waitForJoins(coalescer, 7);
+            release.countDown();
+            for (Future<Object> result : results) {
+                assertSame(shared, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        CoalescingStats stats = coalescer.getStats().get(0);
+        assertEquals(8, stats.requests());
+        assertEquals(1, stats.executions());
+        assertEquals(0.875, stats.coalescingRatio(), 1e-9);
+
+        // Without a staleness window the next read runs again
+        coalescer.execute("stats", "today", executions::incrementAndGet);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testStalenessWindowAndInvalidation() {
+        RequestCoalescer coalescer = coalescer(60_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, coalescer.execute("type", "Fern", executions::incrementAndGet));
+        assertEquals(1, coalescer.execute("type", "Fern", executions::incrementAndGet));
+        assertEquals(2, coalescer.execute("type", "Cactus", executions::incrementAndGet));
+        assertEquals(1, coalescer.getStats().get(0).servedFromWindow());
+
+        // A plant change drops the cached results
+        coalescer.onPlantChanged(PlantChangedEvent.saved(1L, 1L));
+        assertEquals(3, coalescer.execute("type", "Fern", executions::incrementAndGet));
+
+        // Failures reach the caller and are not kept
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("type", "Broken", () -> {
+            throw new IllegalStateException("query failed");
+        }));
+        assertEquals(4, coalescer.execute("type", "Broken", executions::incrementAndGet));
+    }
+
+    private static RequestCoalescer coalescer(long stalenessMs) {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        ReflectionTestUtils.setField(coalescer, "stalenessMs", stalenessMs);
+        return coalescer;
+    }
+
+    private static void waitForJoins(RequestCoalescer coalescer, long joins) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getStats().get(0).joinedInFlight() < joins && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.homecare.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.entity.Plant;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Concurrent stress tests for the watering and update endpoints.
+ * Not transactional on purpose: every request must commit on its own so real row contention happens.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PlantConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ExecutorService executor;
+
+    private Plant plant;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        plant = plantRepository.save(new Plant("Stress Plant", "tropical", "weekly", "medium"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        plantRepository.deleteById(plant.getId());
+    }
+
+    @Test
+    public void testConcurrentWateringLosesNoUpdates() throws Exception {
+        int wateringsPerThread = 25;
+        List<Integer> statuses = runConcurrently(() -> {
+            int failures = 0;
+            for (int i = 0; i < wateringsPerThread; i++) {
+                MvcResult result = mockMvc.perform(post("/api/plants/" + plant.getId() + "/water")).andReturn();
+                if (result.getResponse().getStatus() != 200) {
+                    failures++;
+                }
+            }
+            return failures;
+        });
+
+        statuses.forEach(failures -> assertEquals(0, failures));
+        Plant watered = plantRepository.findById(plant.getId()).orElseThrow();
+        assertEquals(plant.getVersion() + (long) THREADS * wateringsPerThread, watered.getVersion());
+        assertEquals("Stress Plant", watered.getName());
+    }
+
+    @Test
+    public void testConcurrentUpdatesWithSameVersionConflict() throws Exception {
+        Long startVersion = plant.getVersion();
+        List<Integer> statuses = runConcurrently(() -> {
+            Plant details = new Plant("Renamed " + Thread.currentThread().getId(), "tropical", "weekly", "medium");
+            details.setVersion(startVersion);
+            return mockMvc.perform(put("/api/plants/" + plant.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(details)))
+                    .andReturn().getResponse().getStatus();
+        });
+
+        assertEquals(1, statuses.stream().filter(status -> status == 200).count());
+        assertEquals(THREADS - 1, statuses.stream().filter(status -> status == 409).count());
+        assertEquals(startVersion + 1, plantRepository.findVersionById(plant.getId()).orElseThrow());
+    }
+
+    @Test
+    public void testStaleVersionReturnsCurrentVersion() throws Exception {
+        mockMvc.perform(post("/api/plants/" + plant.getId() + "/water"));
+
+        Plant details = new Plant("Stale Plant", "tropical", "weekly", "medium");
+        details.setVersion(plant.getVersion());
+        MvcResult result = mockMvc.perform(put("/api/plants/" + plant.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(details)))
+                .andReturn();
+
+        assertEquals(409, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString()
+                .contains("\"currentVersion\":" + (plant.getVersion() + 1)));
+    }
+
+    // Release all tasks at the same moment and collect their results
+    private List<Integer> runConcurrently(Callable<Integer> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
@@ -1,22 +1,34 @@
 package com.homecare.controller;
 
 import com.homecare.entity.Plant;
+import com.homecare.json.PlantJsonCache;
 import com.homecare.repository.PlantRepository;
+import com.homecare.service.WateringHistoryService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
-@AutoConfigureWebMvc
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 @Transactional
 public class PlantControllerTest {
@@ -30,6 +42,12 @@ public class PlantControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PlantJsonCache jsonCache;
+
+    @Autowired
+    private WateringHistoryService historyService;
+
     @Test
     public void testGetAllPlants() throws Exception {
         mockMvc.perform(get("/api/plants"))
@@ -142,6 +160,227 @@ public class PlantControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Test Plant"));
     }
 
+    @Test
+    public void testSuggestPlants() throws Exception {
+        for (String name : new String[]{"Xylo Fern", "Xylo Fern", "Xylophone Palm"}) {
+            Plant plant = new Plant();
+            plant.setName(name);
+            plant.setType("xylo-type");
+            plant.setWateringFrequency("weekly");
+            plant.setSunlightNeeds("medium");
+            mockMvc.perform(post("/api/plants")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(plant)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/plants/suggest?prefix=XYLO&k=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].text").value("xylo-type"))
+                .andExpect(jsonPath("$[0].kind").value("type"))
+                .andExpect(jsonPath("$[0].popularity").value(3))
+                .andExpect(jsonPath("$[1].text").value("Xylo Fern"))
+                .andExpect(jsonPath("$[1].popularity").value(2));
+
+        // Later words of a name match too
+        mockMvc.perform(get("/api/plants/suggest?prefix=palm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.text == 'Xylophone Palm')]").exists());
+
+        mockMvc.perform(get("/api/plants/suggest?prefix=xylo&k=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testFuzzySearchPlants() throws Exception {
+        for (String name : new String[]{"Fiddle Leaf Fig", "Fiddle Leaf", "Quokka Orchid"}) {
+            Plant plant = new Plant();
+            plant.setName(name);
+            plant.setType("tropical");
+            plant.setWateringFrequency("weekly");
+            plant.setSunlightNeeds("medium");
+            mockMvc.perform(post("/api/plants")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(plant)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/plants/search?name=fidle leaf&mode=fuzzy&k=2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Search-Complete", "true"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Fiddle Leaf"))
+                .andExpect(jsonPath("$[1].name").value("Fiddle Leaf Fig"));
+
+        mockMvc.perform(get("/api/plants/search?name=qokka&mode=fuzzy&fields=id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Quokka Orchid"))
+                .andExpect(jsonPath("$[0].type").doesNotExist());
+
+        mockMvc.perform(get("/api/plants/search?name=qokka"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/plants/search?name=qokka&mode=fuzzy&maxDistance=3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetSimilarPlants() throws Exception {
+        Long firstId = null;
+        for (String notes : new String[]{"Mist the fronds daily for humidity", "Mist fronds, high humidity"}) {
+            Plant plant = new Plant();
+            plant.setName("Similar Fern");
+            plant.setType("similar-fern");
+            plant.setWateringFrequency("daily");
+            plant.setSunlightNeeds("low");
+            plant.setCareNotes(notes);
+            String body = mockMvc.perform(post("/api/plants")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(plant)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            if (firstId == null) {
+                firstId = objectMapper.readTree(body).get("id").asLong();
+            }
+        }
+
+        mockMvc.perform(get("/api/plants/" + firstId + "/similar?k=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("similar-fern"));
+        mockMvc.perform(get("/api/plants/999999/similar"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/plants/" + firstId + "/similar?k=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testCborNegotiation() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+        // Request bodies may be CBOR as well, with dates as epoch days or ISO strings
+        byte[] body = cbor.writeValueAsBytes(Map.of("name", "Cbor Plant", "type", "tropical",
+                "wateringFrequency", "weekly", "sunlightNeeds", "medium",
+                "lastWatered", LocalDate.of(2026, 3, 1).toEpochDay()));
+        byte[] created = mockMvc.perform(post("/api/plants")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode createdNode = cbor.readTree(created);
+        assertEquals(LocalDate.of(2026, 3, 1).toEpochDay(), createdNode.get("lastWatered").asLong());
+        long id = createdNode.get("id").asLong();
+
+        byte[] single = mockMvc.perform(get("/api/plants/" + id).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Cbor Plant", cbor.readTree(single).get("name").asText());
+
+        byte[] list = mockMvc.perform(get("/api/plants/type/tropical").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertTrue(cbor.readTree(list).isArray());
+
+        // JSON stays the default and keeps ISO dates
+        mockMvc.perform(get("/api/plants/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.lastWatered").value("2026-03-01"));
+    }
+
+    @Test
+    public void testBatchGetPlants() throws Exception {
+        Long[] ids = new Long[3];
+        for (int i = 0; i < ids.length; i++) {
+            Plant plant = new Plant();
+            plant.setName("Batch Plant " + i);
+            plant.setType("tropical");
+            plant.setWateringFrequency("weekly");
+            plant.setSunlightNeeds("medium");
+            ids[i] = plantRepository.save(plant).getId();
+        }
+
+        mockMvc.perform(get("/api/plants?ids=" + ids[2] + ",999999," + ids[0] + "," + ids[2]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plants.length()").value(2))
+                .andExpect(jsonPath("$.plants[0].name").value("Batch Plant 2"))
+                .andExpect(jsonPath("$.plants[1].name").value("Batch Plant 0"))
+                .andExpect(jsonPath("$.missingIds[0]").value(999999));
+
+        mockMvc.perform(post("/api/plants/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [" + ids[1] + ", " + ids[0] + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plants[0].name").value("Batch Plant 1"))
+                .andExpect(jsonPath("$.plants[1].name").value("Batch Plant 0"))
+                .andExpect(jsonPath("$.missingIds.length()").value(0));
+
+        // Plants already serialized are spliced in from the JSON cache
+        long hits = (Long) jsonCache.getStats().get("hits");
+        mockMvc.perform(get("/api/plants?ids=" + ids[0] + "," + ids[1]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plants[1].name").value("Batch Plant 1"))
+                .andExpect(jsonPath("$.missingIds.length()").value(0));
+        assertEquals(hits + 2, (Long) jsonCache.getStats().get("hits"));
+        mockMvc.perform(get("/api/plants?ids=" + ids[0]).accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"));
+
+        mockMvc.perform(post("/api/plants/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/plants?ids=1,abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testWateringCalendarFeed() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("Calendar Palm");
+        plant.setType("calendar-type");
+        plant.setWateringFrequency("weekly");
+        plant.setSunlightNeeds("medium");
+        plant.setNextWatering(LocalDate.of(2026, 6, 1));
+        mockMvc.perform(post("/api/plants")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(plant)))
+                .andExpect(status().isCreated());
+
+        MvcResult result = mockMvc.perform(get("/api/plants/calendar.ics?type=calendar-type"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String eTag = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().string(containsString("SUMMARY:Water Calendar Palm\r\n")))
+                .andExpect(content().string(containsString("RRULE:FREQ=WEEKLY\r\n")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/plants/calendar.ics?type=calendar-type").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        // Tags a cache or proxy weakened, tag lists and "*" match too
+        mockMvc.perform(get("/api/plants/calendar.ics?type=calendar-type").header("If-None-Match", "W/" + eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/plants/calendar.ics?type=calendar-type")
+                        .header("If-None-Match", "\"stale\", W/" + eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/plants/calendar.ics?type=calendar-type").header("If-None-Match", "*"))
+                .andExpect(status().isNotModified());
+        MvcResult stale = mockMvc.perform(get("/api/plants/calendar.ics?type=calendar-type")
+                        .header("If-None-Match", "\"stale\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(stale))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void testGetPlantStats() throws Exception {
         Plant plant = new Plant();
@@ -156,4 +395,188 @@ public class PlantControllerTest {
                 .andExpect(jsonPath("$.totalPlants").exists())
                 .andExpect(jsonPath("$.plantsNeedingWatering").exists());
     }
+
+    @Test
+    public void testPatchPlant() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("Test Plant");
+        plant.setType("tropical");
+        plant.setWateringFrequency("weekly");
+        plant.setSunlightNeeds("medium");
+        plant.setImageUrl("data:image/png;base64,AAAA");
+        plant = plantRepository.save(plant);
+
+        mockMvc.perform(patch("/api/plants/" + plant.getId())
+                .contentType("application/merge-patch+json")
+                .content("{\"careNotes\": \"Patched notes\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.careNotes").value("Patched notes"))
+                .andExpect(jsonPath("$.name").value("Test Plant"))
+                .andExpect(jsonPath("$.imageUrl").value("data:image/png;base64,AAAA"));
+    }
+
+    @Test
+    public void testPatchPlantMinimalResponse() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("Test Plant");
+        plant.setType("tropical");
+        plant.setWateringFrequency("weekly");
+        plant.setSunlightNeeds("medium");
+        plant = plantRepository.save(plant);
+
+        mockMvc.perform(patch("/api/plants/" + plant.getId() + "?return=minimal")
+                .contentType("application/merge-patch+json")
+                .content("{\"name\": \"Patched Plant\", \"version\": " + plant.getVersion() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(plant.getVersion() + 1))
+                .andExpect(jsonPath("$.name").doesNotExist());
+
+        mockMvc.perform(patch("/api/plants/" + plant.getId())
+                .contentType("application/merge-patch+json")
+                .content("{\"name\": \"Stale Plant\", \"version\": " + plant.getVersion() + "}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.currentVersion").value(plant.getVersion() + 1));
+
+        // An empty patch changes nothing but is still checked against the version
+        mockMvc.perform(patch("/api/plants/" + plant.getId())
+                .contentType("application/merge-patch+json")
+                .content("{\"version\": " + plant.getVersion() + "}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.currentVersion").value(plant.getVersion() + 1));
+        mockMvc.perform(patch("/api/plants/" + plant.getId() + "?return=minimal")
+                .contentType("application/merge-patch+json")
+                .content("{\"version\": " + (plant.getVersion() + 1) + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(plant.getVersion() + 1));
+    }
+
+    @Test
+    public void testPatchPlantRejectsInvalidValues() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("Test Plant");
+        plant.setType("tropical");
+        plant.setWateringFrequency("weekly");
+        plant.setSunlightNeeds("medium");
+        plant = plantRepository.save(plant);
+
+        mockMvc.perform(patch("/api/plants/" + plant.getId())
+                .contentType("application/merge-patch+json")
+                .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.name").exists());
+    }
+
+    @Test
+    public void testGetPlantsWithSparseFields() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("Test Plant");
+        plant.setType("sparse-type");
+        plant.setWateringFrequency("weekly");
+        plant.setSunlightNeeds("medium");
+        plant.setCareNotes("Not in the summary");
+        plantRepository.save(plant);
+
+        mockMvc.perform(get("/api/plants/type/sparse-type?fields=id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Plant"))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].type").doesNotExist())
+                .andExpect(jsonPath("$[0].careNotes").doesNotExist());
+
+        mockMvc.perform(get("/api/plants/type/sparse-type?fields=name,careNotes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].careNotes").value("Not in the summary"));
+
+        mockMvc.perform(get("/api/plants?fields=name,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testFilterPlants() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("Filter Plant");
+        plant.setType("filter-type");
+        plant.setWateringFrequency("weekly");
+        plant.setSunlightNeeds("high");
+
+        mockMvc.perform(post("/api/plants")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(plant)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/plants/filter?type=filter-type&sunlightNeeds=high"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Filter Plant"));
+
+        mockMvc.perform(get("/api/plants/filter?type=filter-type&sunlightNeeds=low"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        mockMvc.perform(get("/api/plants/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plantsByType.filter-type").value(1));
+    }
+
+    @Test
+    public void testGetPlantAnalytics() throws Exception {
+        mockMvc.perform(get("/api/plants/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPlants").exists())
+                .andExpect(jsonPath("$.crossTab").isArray())
+                .andExpect(jsonPath("$.overdueDays.0").exists())
+                .andExpect(jsonPath("$.addedPerMonth").exists());
+    }
+
+    @Test
+    public void testWateringHistoryAndAdherence() throws Exception {
+        Plant plant = new Plant();
+        plant.setName("History Plant");
+        plant.setType("history-type");
+        plant.setWateringFrequency("daily");
+        plant.setSunlightNeeds("medium");
+        plant.setAddedDate(LocalDate.now());
+        plant = plantRepository.save(plant);
+
+        mockMvc.perform(post("/api/plants/" + plant.getId() + "/water").param("source", "sensor"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/plants/" + plant.getId() + "/water"))
+                .andExpect(status().isOk());
+        historyService.flush();
+
+        String today = LocalDate.now().toString();
+        mockMvc.perform(get("/api/plants/" + plant.getId() + "/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].periodStart").value(today))
+                .andExpect(jsonPath("$[0].waterings").value(2));
+        mockMvc.perform(get("/api/plants/" + plant.getId() + "/history").param("granularity", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].waterings").value(2));
+        mockMvc.perform(get("/api/plants/" + plant.getId() + "/history").param("granularity", "year"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/plants/" + plant.getId() + "/adherence").param("weeks", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.actualWaterings").value(2))
+                .andExpect(jsonPath("$.weekly[0].waterings").value(2));
+        // Added today and watered daily: one watering expected, however many weeks are asked for
+        mockMvc.perform(get("/api/plants/adherence").param("type", "history-type"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scope").value("type"))
+                .andExpect(jsonPath("$.expectedWaterings").value(1.0))
+                .andExpect(jsonPath("$.actualWaterings").value(2));
+
+        // The plant's history follows it to its new type
+        mockMvc.perform(patch("/api/plants/" + plant.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"type\": \"history-type-2\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/plants/adherence").param("type", "history-type"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expectedWaterings").value(0.0))
+                .andExpect(jsonPath("$.actualWaterings").value(0));
+        mockMvc.perform(get("/api/plants/adherence").param("type", "history-type-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.actualWaterings").value(2));
+    }
 }
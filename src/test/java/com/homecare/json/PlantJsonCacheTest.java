@@ -0,0 +1,86 @@
+package com.homecare.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.entity.Plant;
+import com.homecare.event.PlantChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PlantJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    public void testReusesFragmentsOnlyForUnchangedPlants() throws Exception {
+        PlantJsonCache cache = cache(1 << 20);
+        Plant plant = plant(1L, "Fern", 0L);
+
+        byte[] first = cache.fragment(plant);
+        assertArrayEquals(objectMapper.writeValueAsBytes(plant), first);
+        assertSame(first, cache.fragment(withTimestampsOf(plant(1L, "Fern", 0L), plant)));
+
+        // A newer version is never answered from the old fragment, even before the change event arrives
+        Plant renamed = withTimestampsOf(plant(1L, "Boston Fern", 1L), plant);
+        assertEquals("Boston Fern", objectMapper.readTree(cache.fragment(renamed)).get("name").asText());
+
+        byte[] cached = cache.fragment(renamed);
+        cache.onPlantChanged(PlantChangedEvent.saved(1L, 1L));
+        assertNotSame(cached, cache.fragment(renamed));
+        assertEquals(1, cache.getStats().get("cachedPlants"));
+    }
+
+    @Test
+    public void testSplicesListBodiesAndRespectsTheMemoryBound() throws Exception {
+        Plant fern = plant(1L, "Fern", 0L);
+        Plant palm = plant(2L, "Palm", 0L);
+        PlantJsonCache cache = cache(objectMapper.writeValueAsBytes(fern).length);
+
+        for (List<Plant> plants : List.of(List.<Plant>of(), List.of(fern), List.of(fern, palm))) {
+            JsonFragments body = cache.list(plants);
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            new JsonFragmentsHttpMessageConverter().write(body, MediaType.APPLICATION_JSON, output);
+            byte[] written = output.getBodyAsBytes();
+            assertEquals(body.length(), written.length);
+            assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(plants)), objectMapper.readTree(written));
+            assertEquals(String.valueOf(written.length), output.getHeaders().getFirst("Content-Length"));
+        }
+        // Only the fern fits
+        assertEquals(1, cache.getStats().get("cachedPlants"));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        new JsonFragmentsHttpMessageConverter().write(cache.single(palm), MediaType.APPLICATION_JSON, output);
+        JsonNode single = objectMapper.readTree(output.getBodyAsBytes());
+        assertEquals("Palm", single.get("name").asText());
+    }
+
+    private PlantJsonCache cache(long maxBytes) {
+        PlantJsonCache cache = new PlantJsonCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+        return cache;
+    }
+
+    private static Plant plant(Long id, String name, Long version) {
+        Plant plant = new Plant(name, "tropical", "weekly", "medium");
+        plant.setId(id);
+        plant.setVersion(version);
+        return plant;
+    }
+
+    private static Plant withTimestampsOf(Plant plant, Plant other) {
+        plant.setCreatedAt(other.getCreatedAt());
+        plant.setUpdatedAt(other.getUpdatedAt());
+        plant.setAddedDate(other.getAddedDate());
+        return plant;
+    }
+}
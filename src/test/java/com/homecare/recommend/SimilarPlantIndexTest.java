@@ -0,0 +1,112 @@
+package com.homecare.recommend;
+
+import com.homecare.dto.PlantCareProfile;
+import com.homecare.dto.SimilarPlant;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SimilarPlantIndexTest {
+
+    @Test
+    public void testRanksCareAlikePlantsFirstAndFollowsUpdates() {
+        SimilarPlantIndex index = index();
+        List<PlantCareProfile> plants = new ArrayList<>();
+        plants.add(plant(1, "Aloe", "succulent", "high", "monthly", "Gritty soil, let the soil dry out completely"));
+        plants.add(plant(2, "Haworthia", "succulent", "high", "monthly", "Gritty soil and bright light, let it dry out"));
+        plants.add(plant(3, "Maidenhair", "fern", "low", "daily", "Constant humidity, mist the fronds, never dry"));
+        plants.add(plant(4, "Boston Fern", "fern", "low", "daily", "Mist the fronds often for humidity"));
+        plants.add(plant(5, "Jade", "succulent", "high", "every-2-weeks", null));
+        index.rebuild(plants);
+
+        List<SimilarPlant> similar = index.findSimilar(1L, 3).orElseThrow();
+        assertEquals(3, similar.size());
+        assertEquals(2L, similar.get(0).id());
+        assertEquals(5L, similar.get(1).id());
+        assertTrue(similar.get(0).similarity() > similar.get(2).similarity());
+        assertEquals(4L, index.findSimilar(3L, 1).orElseThrow().get(0).id());
+
+        // Turning the Aloe into a fern-like plant moves it next to the ferns
+        index.upsert(plant(1, "Aloe", "fern", "low", "daily", "Mist the fronds, constant humidity"));
+        assertEquals(1L, index.findSimilar(4L, 3).orElseThrow().stream()
+                .filter(plant -> plant.id() != 3L).findFirst().orElseThrow().id());
+
+        index.remove(2L);
+        assertTrue(index.findSimilar(2L, 3).isEmpty());
+        assertTrue(index.findSimilar(5L, 10).orElseThrow().stream().noneMatch(plant -> plant.id() == 2L));
+        assertEquals(3, index.findSimilar(5L, 10).orElseThrow().size());
+    }
+
+    @Test
+    public void testParallelScanMatchesAcrossBlocks() {
+        SimilarPlantIndex index = index();
+        List<PlantCareProfile> plants = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            plants.add(plant(i, "Plant " + i, "type-" + (i % 40), "medium", "weekly", "notes " + word(i % 97)));
+        }
+        index.rebuild(plants);
+
+        // Plant 1 shares its type with every 40th plant and its notes with every 97th; 1 + 3880 shares both
+        List<SimilarPlant> similar = index.findSimilar(1L, 5).orElseThrow();
+        assertEquals(3881L, similar.get(0).id());
+        assertEquals(5, similar.size());
+        for (int i = 1; i < similar.size(); i++) {
+            assertTrue(similar.get(i - 1).similarity() >= similar.get(i).similarity());
+        }
+    }
+
+    @Test
+    public void testChangesDuringALoadSurviveIt() {
+        SimilarPlantIndex index = index();
+        PlantRepository repository = mock(PlantRepository.class);
+        ReflectionTestUtils.setField(index, "plantRepository", repository);
+        when(repository.findCareProfileById(1L)).thenReturn(
+                Optional.of(plant(1, "Aloe", "fern", "low", "daily", "Mist the fronds, constant humidity")));
+        when(repository.findCareProfileById(2L)).thenReturn(Optional.empty());
+
+        // A write lands while the reload reads the rows, which still show the plants as they were before
+        when(repository.findAllCareProfiles()).thenAnswer(invocation -> {
+            index.onPlantChanged(PlantChangedEvent.saved(1L, 1L));
+            index.onPlantChanged(PlantChangedEvent.deleted(2L, 0L));
+            return List.of(
+                    plant(1, "Aloe", "succulent", "high", "monthly", "Gritty soil, let the soil dry out completely"),
+                    plant(2, "Haworthia", "succulent", "high", "monthly", "Gritty soil, let it dry out"),
+                    plant(3, "Boston Fern", "fern", "low", "daily", "Mist the fronds often for humidity"));
+        });
+        index.onPlantChanged(PlantChangedEvent.bulk());
+
+        assertTrue(index.findSimilar(2L, 3).isEmpty());
+        List<SimilarPlant> similar = index.findSimilar(3L, 3).orElseThrow();
+        assertEquals(1, similar.size());
+        assertEquals("fern", similar.get(0).type());
+    }
+
+    // Letters only, since care notes are split into words on anything else
+    private static String word(int n) {
+        return "zz" + (char) ('a' + n / 26) + (char) ('a' + n % 26);
+    }
+
+    private static SimilarPlantIndex index() {
+        SimilarPlantIndex index = new SimilarPlantIndex();
+        ReflectionTestUtils.setField(index, "textDimensions", 256);
+        ReflectionTestUtils.setField(index, "categoricalDimensions", 64);
+        ReflectionTestUtils.setField(index, "textWeight", 0.5);
+        index.init();
+        return index;
+    }
+
+    private static PlantCareProfile plant(long id, String name, String type, String sunlight, String frequency,
+                                          String notes) {
+        return new PlantCareProfile(id, name, type, sunlight, frequency, notes);
+    }
+}
@@ -0,0 +1,155 @@
+package com.homecare.reminder;
+
+import com.homecare.dto.WateringReminder;
+import com.homecare.entity.Plant;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import com.homecare.service.ScheduleRecomputationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReminderSchedulerTest {
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        created.forEach(id -> plantRepository.deleteByIdReturningVersion(id)
+                .ifPresent(version -> eventPublisher.publishEvent(PlantChangedEvent.deleted(id, version))));
+    }
+
+    @Test
+    public void testRemindersFollowPlantChanges() {
+        LocalDate due = LocalDate.now().plusDays(400);
+        Plant watered = save("Reminder Fern", due);
+        Plant moved = save("Reminder Ivy", due);
+        Plant deleted = save("Reminder Palm", due);
+
+        // Ivy moves a day later, Palm goes away
+        moved.setNextWatering(due.plusDays(1));
+        moved = plantRepository.save(moved);
+        eventPublisher.publishEvent(PlantChangedEvent.saved(moved.getId(), moved.getVersion()));
+        plantRepository.deleteById(deleted.getId());
+        eventPublisher.publishEvent(PlantChangedEvent.deleted(deleted.getId(), deleted.getVersion()));
+        created.remove(deleted.getId());
+
+        List<Long> firstDay = plantIds(reminderScheduler.advance(millis(due)));
+        assertTrue(firstDay.contains(watered.getId()));
+        assertFalse(firstDay.contains(moved.getId()));
+        assertFalse(firstDay.contains(deleted.getId()));
+
+        List<Long> secondDay = plantIds(reminderScheduler.advance(millis(due.plusDays(1))));
+        assertEquals(List.of(moved.getId()), secondDay.stream().filter(created::contains).toList());
+    }
+
+    @Test
+    public void testRestartDoesNotRemindAgain() {
+        LocalDate overdue = LocalDate.now().minusDays(3);
+        Plant plant = save("Reminder Cactus", overdue);
+        long now = System.currentTimeMillis();
+        assertTrue(plantIds(reminderScheduler.advance(now)).contains(plant.getId()));
+
+        // A restart arms every plant again, the overdue one included
+        reminderScheduler.load();
+        assertFalse(plantIds(reminderScheduler.advance(now)).contains(plant.getId()));
+
+        // A new date is reminded of again
+        plant = plantRepository.findById(plant.getId()).orElseThrow();
+        plant.setNextWatering(overdue.plusDays(1));
+        plant = plantRepository.save(plant);
+        eventPublisher.publishEvent(PlantChangedEvent.saved(plant.getId(), plant.getVersion()));
+        assertTrue(plantIds(reminderScheduler.advance(now)).contains(plant.getId()));
+    }
+
+    @Test
+    public void testRecomputeRearmsMovedDates() {
+        Plant plant = new Plant("Reminder Monstera", "reminder-type", "weekly", "medium");
+        plant.setLastWatered(LocalDate.now().minusDays(1));
+        plant.setNextWatering(LocalDate.now().plusDays(400));
+        plant = plantRepository.save(plant);
+        eventPublisher.publishEvent(PlantChangedEvent.saved(plant.getId(), plant.getVersion()));
+        created.add(plant.getId());
+
+        recomputationService.recompute(LocalDate.now());
+        LocalDate recomputed = plantRepository.findById(plant.getId()).orElseThrow().getNextWatering();
+        assertTrue(recomputed.isBefore(LocalDate.now().plusDays(400)));
+        assertTrue(plantIds(reminderScheduler.advance(millis(recomputed))).contains(plant.getId()));
+    }
+
+    @Test
+    public void testRangedBulkChangeOnlyRearmsItsRanges() {
+        LocalDate due = LocalDate.now().plusDays(400);
+        Plant moved = save("Reminder Pothos", due);
+        Plant gone = save("Reminder Aloe", due);
+        ReminderScheduler scheduler = beanFactory.createBean(ReminderScheduler.class);
+        scheduler.load();
+        int armed = scheduler.getScheduledCount();
+
+        // Aloe goes away and Pothos moves, neither with an event; the bulk change only covers Pothos
+        plantRepository.deleteById(gone.getId());
+        created.remove(gone.getId());
+        jdbcTemplate.update("UPDATE plants SET next_watering = ? WHERE id = ?", due.plusDays(2), moved.getId());
+        scheduler.onPlantChanged(PlantChangedEvent.bulk(
+                List.of(new PlantChangedEvent.IdRange(moved.getId(), moved.getId()))));
+        assertEquals(armed, scheduler.getScheduledCount());
+        assertFalse(plantIds(scheduler.advance(millis(due))).contains(moved.getId()));
+        assertTrue(plantIds(scheduler.advance(millis(due.plusDays(2)))).contains(moved.getId()));
+
+        // Without ranges every plant is reloaded, which drops Aloe
+        scheduler.onPlantChanged(PlantChangedEvent.bulk());
+        assertEquals(armed - 1, scheduler.getScheduledCount());
+    }
+
+    private Plant save(String name, LocalDate nextWatering) {
+        Plant plant = new Plant(name, "reminder-type", "weekly", "medium");
+        plant.setNextWatering(nextWatering);
+        plant = plantRepository.save(plant);
+        eventPublisher.publishEvent(PlantChangedEvent.saved(plant.getId(), plant.getVersion()));
+        created.add(plant.getId());
+        return plant;
+    }
+
+    private static long millis(LocalDate day) {
+        return day.atTime(LocalTime.of(23, 0)).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static List<Long> plantIds(List<WateringReminder> reminders) {
+        return reminders.stream().map(WateringReminder::plantId).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.homecare.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void testFiresEachKeyOnItsDeadlineAcrossLevels() {
+        TimingWheel wheel = new TimingWheel(1_000);
+        // Deadlines landing on every level, plus one beyond the top level
+        long[] deadlines = {1_001, 1_063, 1_064, 1_000 + 4_095, 1_000 + 4_096, 1_000 + 300_000, 1_000 + (1L << 24) + 5};
+        for (int key = 0; key < deadlines.length; key++) {
+            wheel.schedule(key, deadlines[key]);
+        }
+
+        for (int key = 0; key < deadlines.length; key++) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(deadlines[key] - 1, fired::add);
+            assertTrue(fired.isEmpty(), "key " + key + " fired early");
+            wheel.advance(deadlines[key], fired::add);
+            assertEquals(List.of((long) key), fired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRescheduleCancelAndOverdue() {
+        TimingWheel wheel = new TimingWheel(0);
+        wheel.schedule(1, 10);
+        wheel.schedule(2, 10);
+        wheel.schedule(1, 5_000);
+        wheel.cancel(2);
+        wheel.schedule(3, -4);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(0, fired::add);
+        assertEquals(List.of(3L), fired);
+        wheel.advance(4_999, fired::add);
+        assertEquals(List.of(3L), fired);
+        wheel.advance(5_000, fired::add);
+        assertEquals(List.of(3L, 1L), fired);
+    }
+
+    @Test
+    public void testRandomDeadlinesFireInOrder() {
+        Random random = new Random(7);
+        TimingWheel wheel = new TimingWheel(50);
+        TreeMap<Long, List<Long>> expected = new TreeMap<>();
+        for (long key = 0; key < 20_000; key++) {
+            long deadline = 51 + random.nextInt(200_000);
+            wheel.schedule(key, deadline);
+            expected.computeIfAbsent(deadline, d -> new ArrayList<>()).add(key);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long tick = 50;
+        while (wheel.size() > 0) {
+            tick += 1 + random.nextInt(500);
+            int before = fired.size();
+            wheel.advance(tick, fired::add);
+            // Everything due by this tick, and nothing later
+            long dueNow = expected.headMap(tick, true).values().stream().mapToLong(List::size).sum();
+            assertEquals(dueNow, fired.size(), "at tick " + tick + " after " + before);
+        }
+        assertEquals(20_000, fired.size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.homecare.replica;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Primary and replica are two in-memory H2 databases; the replica applies changes 1.5 s late.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-primary;DB_CLOSE_DELAY=-1",
+        "plantcare.replica.url=jdbc:h2:mem:replica-copy;DB_CLOSE_DELAY=-1",
+        "plantcare.replica.apply-delay-ms=1500",
+        "plantcare.replica.max-lag-ms=60000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "replica"})
+public class ReadReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlantReplicator replicator;
+
+    @BeforeEach
+    public void waitForInitialCopy() throws InterruptedException {
+        awaitApplied(1);
+    }
+
+    @Test
+    public void testClientReadsItsOwnWriteBeforeTheReplicaHasIt() throws Exception {
+        MockHttpServletResponse created = createPlant("Replica Fern");
+        long id = objectMapper.readTree(created.getContentAsString()).get("id").asLong();
+        Cookie cookie = created.getCookie(ReplicaReadFilter.WRITE_POSITION_COOKIE);
+        String position = created.getHeader(ReplicaReadFilter.WRITE_POSITION_HEADER);
+        assertNotNull(cookie);
+        assertEquals(cookie.getValue(), position);
+
+        // Another client reads the lagging replica, the writer reads the primary
+        mockMvc.perform(get("/api/plants/" + id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/plants/" + id).cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica Fern"));
+        mockMvc.perform(get("/api/plants/" + id).header(ReplicaReadFilter.WRITE_POSITION_HEADER, position))
+                .andExpect(status().isOk());
+        // A position from an earlier run means nothing
+        mockMvc.perform(get("/api/plants/" + id).header(ReplicaReadFilter.WRITE_POSITION_HEADER, "0.999999"))
+                .andExpect(status().isNotFound());
+
+        awaitApplied(Long.parseLong(position.substring(position.indexOf('.') + 1)));
+        long replicaReads = (Long) replicator.getStats().get("replicaReads");
+        mockMvc.perform(get("/api/plants/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica Fern"));
+        mockMvc.perform(get("/api/plants/" + id).cookie(cookie))
+                .andExpect(status().isOk());
+        assertEquals(replicaReads + 2, (Long) replicator.getStats().get("replicaReads"));
+        assertTrue((Long) replicator.getStats().get("ownWriteFallbacks") >= 2);
+
+        JdbcTemplate primary = new JdbcTemplate(replicator.getPrimary());
+        JdbcTemplate replica = new JdbcTemplate(replicator.getReplica());
+        assertEquals(primary.queryForObject("SELECT COUNT(*) FROM plants", Long.class),
+                replica.queryForObject("SELECT COUNT(*) FROM plants", Long.class));
+    }
+
+    @Test
+    public void testWritesNeverReadTheReplica() throws Exception {
+        MockHttpServletResponse created = createPlant("Short-lived Cactus");
+        long id = objectMapper.readTree(created.getContentAsString()).get("id").asLong();
+
+        // No cookie: the existence check of the delete still sees the plant on the primary
+        mockMvc.perform(delete("/api/plants/" + id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/admin/replica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.synced").value(true))
+                .andExpect(jsonPath("$.epoch").value(replicator.getEpoch()));
+    }
+
+    private MockHttpServletResponse createPlant(String name) throws Exception {
+        Map<String, String> plant = Map.of("name", name, "type", "tropical", "wateringFrequency", "weekly",
+                "sunlightNeeds", "medium");
+        return mockMvc.perform(post("/api/plants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(plant)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+    }
+
+    private void awaitApplied(long position) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while ((Long) replicator.getStats().get("appliedPosition") < position) {
+            assertTrue(System.currentTimeMillis() < deadline, "Replica did not catch up");
+            Thread.sleep(50);
+        }
+    }
+}
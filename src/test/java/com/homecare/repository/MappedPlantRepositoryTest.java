@@ -0,0 +1,145 @@
+package com.homecare.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homecare.dto.ScheduleRecomputeReport;
+import com.homecare.dto.SeasonRule;
+import com.homecare.entity.Plant;
+import com.homecare.service.ScheduleRecomputationService;
+import com.homecare.sharding.HouseholdContext;
+import com.homecare.sharding.HouseholdFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The plant endpoints running on the memory-mapped store ("mapped" profile).
+ */
+@SpringBootTest(properties = "plantcare.storage.directory=target/mapped-profile-test/${random.uuid}")
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "mapped"})
+public class MappedPlantRepositoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+
+    @Test
+    public void testOtherHouseholdsAreRefused() throws Exception {
+        // The store has no households, so it must not hand out the default household's plants
+        mockMvc.perform(get("/api/plants").header(HouseholdFilter.HOUSEHOLD_HEADER, "mapped-household"))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get("/api/plants").header(HouseholdFilter.HOUSEHOLD_HEADER, HouseholdContext.DEFAULT_HOUSEHOLD))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testPlantLifecycleOnMappedStore() throws Exception {
+        assertInstanceOf(MappedPlantRepository.class, plantRepository);
+
+        Plant plant = new Plant();
+        plant.setName("Mapped Zebrina");
+        plant.setType("mapped-type");
+        plant.setWateringFrequency("daily");
+        plant.setSunlightNeeds("medium");
+        String created = mockMvc.perform(post("/api/plants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(plant)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+
+        mockMvc.perform(post("/api/plants/" + id + "/water"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastWatered").value(LocalDate.now().toString()))
+                .andExpect(jsonPath("$.nextWatering").value(LocalDate.now().plusDays(1).toString()))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // A PUT carrying the version from before the watering is a conflict
+        JsonNode stale = objectMapper.readTree(created);
+        ((ObjectNode) stale).put("name", "Stale");
+        mockMvc.perform(put("/api/plants/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(stale.toString()))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(patch("/api/plants/" + id)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"wateringFrequency\": \"weekly\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextWatering").value(LocalDate.now().plusWeeks(1).toString()));
+
+        mockMvc.perform(get("/api/plants/type/mapped-type"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Mapped Zebrina"));
+        mockMvc.perform(get("/api/plants/search").param("name", "zebrina").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(id));
+        mockMvc.perform(get("/api/plants/analytics"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/plants/" + id))
+                .andExpect(status().isNoContent());
+        assertFalse(plantRepository.existsById(id));
+    }
+
+    @Test
+    public void testSortingPagingAndRecomputeOnMappedStore() {
+        LocalDate lastWatered = LocalDate.of(2024, 1, 10);
+        Plant fern = plantRepository.save(new Plant("Mapped Fern", "mapped-recompute", "weekly", "low"));
+        Plant aloe = plantRepository.save(new Plant("Mapped Aloe", "mapped-recompute", "every-2-days", "high"));
+        plantRepository.waterPlant(fern.getId(), lastWatered);
+        plantRepository.waterPlant(aloe.getId(), lastWatered);
+
+        List<Plant> sorted = plantRepository.findAll(Sort.by("name")).stream()
+                .filter(plant -> plant.getType().equals("mapped-recompute"))
+                .toList();
+        assertEquals(List.of("Mapped Aloe", "Mapped Fern"), sorted.stream().map(Plant::getName).toList());
+        Page<Plant> page = plantRepository.findAll(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id")));
+        assertEquals(aloe.getId(), page.getContent().get(0).getId());
+        assertEquals(plantRepository.count(), page.getTotalElements());
+
+        // The nightly recomputation works on the store, not on the empty plants table
+        SeasonRule winter = recomputationService.addSeasonRule(new SeasonRule(null, "Mapped winter", 12, 2,
+                "mapped-recompute", new BigDecimal("1.5")));
+        try {
+            ScheduleRecomputeReport report = recomputationService.recompute(lastWatered);
+            assertTrue(report.rowsUpdated() >= 2);
+            assertEquals(lastWatered.plusDays(11), plantRepository.findById(fern.getId()).orElseThrow().getNextWatering());
+            assertEquals(lastWatered.plusDays(3), plantRepository.findById(aloe.getId()).orElseThrow().getNextWatering());
+            assertEquals(0, recomputationService.recompute(lastWatered).rowsUpdated());
+        } finally {
+            recomputationService.deleteSeasonRule(winter.id());
+            plantRepository.deleteById(fern.getId());
+            plantRepository.deleteById(aloe.getId());
+        }
+    }
+}
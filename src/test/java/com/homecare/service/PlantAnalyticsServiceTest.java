@@ -0,0 +1,121 @@
+package com.homecare.service;
+
+import com.homecare.catalog.PlantCatalogSnapshot;
+import com.homecare.dto.PlantAnalytics;
+import com.homecare.entity.Plant;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:analytics;DB_CLOSE_DELAY=-1",
+        "plantcare.seed.enabled=false"
+})
+@ActiveProfiles("test")
+public class PlantAnalyticsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Autowired
+    private PlantAnalyticsService analyticsService;
+
+    @Autowired
+    private PlantCatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    public void testSnapshotAndDatabaseAggregatesAgree() {
+        plantRepository.deleteAll();
+        plantRepository.saveAll(List.of(
+                plant("tropical", "medium", "weekly", LocalDate.of(2024, 5, 3), TODAY),
+                plant("tropical", "medium", "weekly", LocalDate.of(2024, 5, 20), TODAY.minusDays(5)),
+                plant("tropical", "low", "weekly", LocalDate.of(2024, 6, 1), TODAY.plusDays(5)),
+                plant("succulent", "high", "monthly", LocalDate.of(2023, 12, 31), TODAY.minusDays(45)),
+                plant("succulent", "high", "monthly", LocalDate.of(2024, 6, 14), null),
+                plant("fern", "low", "daily", TODAY, TODAY.minusDays(1))));
+        catalogSnapshot.load();
+        assertTrue(catalogSnapshot.isAvailable());
+
+        // A second service over a snapshot that was never loaded answers from the grouped queries
+        PlantAnalyticsService databaseOnly = beanFactory.createBean(PlantAnalyticsService.class);
+        PlantCatalogSnapshot unavailable = new PlantCatalogSnapshot();
+        ReflectionTestUtils.setField(databaseOnly, "catalogSnapshot", unavailable);
+        assertFalse(unavailable.isAvailable());
+
+        for (PlantAnalytics analytics : List.of(analyticsService.getAnalytics(TODAY), databaseOnly.getAnalytics(TODAY))) {
+            assertEquals(6, analytics.totalPlants());
+            assertEquals(Map.of(
+                    "tropical/medium/weekly", 2L,
+                    "tropical/low/weekly", 1L,
+                    "succulent/high/monthly", 2L,
+                    "fern/low/daily", 1L), crossTab(analytics));
+
+            Map<String, Long> overdue = new LinkedHashMap<>();
+            overdue.put("0", 1L);
+            overdue.put("1", 1L);
+            overdue.put("2", 0L);
+            overdue.put("3", 0L);
+            overdue.put("4-7", 1L);
+            overdue.put("8-14", 0L);
+            overdue.put("15-30", 0L);
+            overdue.put("31+", 1L);
+            assertEquals(List.copyOf(overdue.entrySet()), List.copyOf(analytics.overdueDays().entrySet()));
+
+            assertEquals(List.of(Map.entry("2023-12", 1L), Map.entry("2024-05", 2L), Map.entry("2024-06", 3L)),
+                    List.copyOf(analytics.addedPerMonth().entrySet()));
+        }
+    }
+
+    @Test
+    public void testMonthIndexMatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2101, 3, 1)); date = date.plusDays(1)) {
+            assertEquals(date.getYear() * 12 + date.getMonthValue() - 1,
+                    PlantAnalyticsService.monthIndex((int) date.toEpochDay()), date.toString());
+        }
+    }
+
+    @Test
+    public void testOverdueBuckets() {
+        assertEquals(0, PlantAnalyticsService.overdueBucket(0));
+        assertEquals(3, PlantAnalyticsService.overdueBucket(3));
+        assertEquals(4, PlantAnalyticsService.overdueBucket(7));
+        assertEquals(5, PlantAnalyticsService.overdueBucket(8));
+        assertEquals(6, PlantAnalyticsService.overdueBucket(30));
+        assertEquals(7, PlantAnalyticsService.overdueBucket(31));
+    }
+
+    private static Plant plant(String type, String sunlight, String frequency, LocalDate added, LocalDate nextWatering) {
+        Plant plant = new Plant(type + " plant", type, frequency, sunlight);
+        plant.setAddedDate(added);
+        plant.setNextWatering(nextWatering);
+        return plant;
+    }
+
+    // Cross-tab cells keyed by type/sunlight/frequency; the two paths list them in different orders
+    private static Map<String, Long> crossTab(PlantAnalytics analytics) {
+        Map<String, Long> cells = new TreeMap<>();
+        for (PlantAnalytics.CrossTabCell cell : analytics.crossTab()) {
+            cells.put(cell.type() + "/" + cell.sunlightNeeds() + "/" + cell.wateringFrequency(), cell.count());
+        }
+        return cells;
+    }
+}
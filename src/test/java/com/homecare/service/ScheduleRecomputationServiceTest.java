@@ -0,0 +1,164 @@
+package com.homecare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.dto.ScheduleRecomputeReport;
+import com.homecare.dto.SeasonRule;
+import com.homecare.entity.Plant;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ScheduleRecomputationServiceTest {
+
+    @Autowired
+    private ScheduleRecomputationService recomputationService;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> createdPlants = new ArrayList<>();
+    private final List<Long> createdRules = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        createdRules.forEach(recomputationService::deleteSeasonRule);
+        createdPlants.forEach(plantRepository::deleteById);
+    }
+
+    @Test
+    public void testRecomputeAppliesIntervalAndSeasonRules() {
+        LocalDate lastWatered = LocalDate.of(2026, 1, 10);
+        LocalDate runDate = LocalDate.of(2026, 1, 15);
+        Plant weekly = save("Schedule Fern", "schedule-type", "weekly", lastWatered, lastWatered);
+        Plant monthly = save("Schedule Cactus", "schedule-other", "Monthly", lastWatered, null);
+
+        ScheduleRecomputeReport report = recomputationService.recompute(runDate);
+        assertNotNull(report);
+        assertTrue(report.rowsUpdated() >= 2);
+        assertEquals(lastWatered.plusDays(7), nextWatering(weekly));
+        assertEquals(lastWatered.plusMonths(1), nextWatering(monthly));
+
+        // Dormant season for one type, wrapping over the new year; the largest matching multiplier wins
+        SeasonRule winter = recomputationService.addSeasonRule(
+                new SeasonRule(null, "Schedule winter", 11, 2, "schedule-type", new BigDecimal("1.50")));
+        createdRules.add(winter.id());
+        SeasonRule slower = recomputationService.addSeasonRule(
+                new SeasonRule(null, "Schedule slower", 1, 1, null, new BigDecimal("2.00")));
+        createdRules.add(slower.id());
+        SeasonRule summer = recomputationService.addSeasonRule(
+                new SeasonRule(null, "Schedule summer", 6, 8, null, new BigDecimal("0.50")));
+        createdRules.add(summer.id());
+
+        report = recomputationService.recompute(runDate);
+        assertEquals(List.of("Schedule winter", "Schedule slower"), report.seasonRulesApplied().stream()
+                .filter(name -> name.startsWith("Schedule ")).toList());
+        assertEquals(lastWatered.plusDays(14), nextWatering(weekly));
+        // A month from January 10th is 31 days
+        assertEquals(lastWatered.plusDays(62), nextWatering(monthly));
+
+        // Nothing changed since, so a second run leaves the rows alone
+        long versionBefore = plantRepository.findById(weekly.getId()).orElseThrow().getVersion();
+        recomputationService.recompute(runDate);
+        assertEquals(versionBefore, plantRepository.findById(weekly.getId()).orElseThrow().getVersion());
+        assertEquals(runDate, recomputationService.getLastReport().runDate());
+    }
+
+    @Test
+    public void testRecomputeKeepsDatesSetByClients() throws Exception {
+        LocalDate lastWatered = LocalDate.of(2026, 1, 10);
+        LocalDate chosen = LocalDate.of(2026, 3, 1);
+        Plant patched = save("Schedule Ivy", "schedule-manual", "weekly", lastWatered, null);
+        mockMvc.perform(patch("/api/plants/" + patched.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"nextWatering\": \"" + chosen + "\"}"))
+                .andExpect(status().isOk());
+        Plant created = save("Schedule Palm", "schedule-manual", "weekly", lastWatered, chosen);
+        created.setNextWateringManual(true);
+        plantRepository.save(created);
+
+        recomputationService.recompute(LocalDate.of(2026, 1, 15));
+        assertEquals(chosen, nextWatering(patched));
+        assertEquals(chosen, nextWatering(created));
+
+        // Watering hands the plant back to the schedule
+        plantRepository.waterPlant(patched.getId(), lastWatered);
+        Plant watered = plantRepository.findById(patched.getId()).orElseThrow();
+        assertFalse(watered.isNextWateringManual());
+        assertEquals(lastWatered.plusDays(7), watered.getNextWatering());
+    }
+
+    @Test
+    public void testWritesBetweenRunsFollowSeasonRules() throws Exception {
+        SeasonRule allYear = recomputationService.addSeasonRule(
+                new SeasonRule(null, "Schedule all year", 1, 12, "schedule-season", new BigDecimal("1.50")));
+        createdRules.add(allYear.id());
+        LocalDate today = LocalDate.now();
+
+        // Created without a date: a week stretched by half, rounded up
+        String body = mockMvc.perform(post("/api/plants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("name", "Schedule Aloe",
+                                "type", "schedule-season", "wateringFrequency", "weekly", "sunlightNeeds", "high"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Plant aloe = objectMapper.readValue(body, Plant.class);
+        createdPlants.add(aloe.getId());
+        assertEquals(today.plusDays(11), nextWatering(aloe));
+
+        mockMvc.perform(patch("/api/plants/" + aloe.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"wateringFrequency\": \"every-2-weeks\"}"))
+                .andExpect(status().isOk());
+        assertEquals(today.plusDays(21), nextWatering(aloe));
+
+        // Watering computes the date in its UPDATE; plants of other types keep the plain interval
+        LocalDate day = LocalDate.of(2026, 1, 10);
+        plantRepository.waterPlant(aloe.getId(), day);
+        assertEquals(day.plusDays(21), nextWatering(aloe));
+        Plant moss = save("Schedule Moss", "schedule-other", "monthly", null, null);
+        plantRepository.waterPlantIfNotWateredSince(moss.getId(), day);
+        assertEquals(day.plusMonths(1), nextWatering(moss));
+    }
+
+    private Plant save(String name, String type, String frequency, LocalDate lastWatered, LocalDate nextWatering) {
+        Plant plant = new Plant(name, type, frequency, "medium");
+        plant.setLastWatered(lastWatered);
+        plant.setNextWatering(nextWatering);
+        plant = plantRepository.save(plant);
+        createdPlants.add(plant.getId());
+        return plant;
+    }
+
+    private LocalDate nextWatering(Plant plant) {
+        return plantRepository.findById(plant.getId()).orElseThrow().getNextWatering();
+    }
+}
@@ -0,0 +1,87 @@
+package com.homecare.service;
+
+import com.homecare.entity.Plant;
+import com.homecare.repository.PlantRepository;
+import com.homecare.repository.WateringHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WateringHistoryServiceTest {
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    // Event log that fails every write while the database is "down"; set through a method, as the bean is proxied
+    static class FlakyHistoryRepository extends WateringHistoryRepository {
+        private volatile boolean down;
+
+        public void setDown(boolean down) {
+            this.down = down;
+        }
+
+        @Override
+        public void insertEvents(List<WateringEvent> events) {
+            if (down) {
+                throw new DataAccessResourceFailureException("Database unavailable");
+            }
+            super.insertEvents(events);
+        }
+    }
+
+    @Test
+    public void testFailedWritesAreKeptUntilTheDatabaseIsBack() {
+        Plant plant = plantRepository.save(new Plant("Outage Plant", "tropical", "daily", "medium"));
+        FlakyHistoryRepository repository = beanFactory.createBean(FlakyHistoryRepository.class);
+        WateringHistoryService service = beanFactory.createBean(WateringHistoryService.class);
+        ReflectionTestUtils.setField(service, "historyRepository", repository);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 2);
+        service.init();
+        try {
+            repository.setDown(true);
+            LocalDateTime now = LocalDateTime.now();
+            service.record(plant.getId(), now, "manual");
+            service.record(plant.getId(), now, "manual");
+            service.flush();
+            service.record(plant.getId(), now, "manual");
+            service.record(plant.getId(), now, "manual");
+            assertEquals(0, events(plant));
+
+            // Queue full and nothing can be written: the caller hears about it instead of history being dropped
+            assertThrows(IllegalStateException.class, () -> service.record(plant.getId(), now, "manual"));
+
+            repository.setDown(false);
+            service.flush();
+            assertEquals(4, events(plant));
+            assertEquals(4, jdbcTemplate.queryForObject("SELECT waterings FROM plant_watering_rollups "
+                    + "WHERE plant_id = ? AND granularity = 'DAY'", Integer.class, plant.getId()));
+        } finally {
+            plantRepository.deleteById(plant.getId());
+        }
+    }
+
+    private int events(Plant plant) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM watering_events WHERE plant_id = ?", Integer.class,
+                plant.getId());
+    }
+}
@@ -0,0 +1,256 @@
+package com.homecare.sharding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homecare.service.WateringHistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Two shards, each its own H2 database file.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "sharded"})
+public class ShardedHouseholdTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private WateringHistoryService historyService;
+
+    @DynamicPropertySource
+    static void shardDatabases(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("plantcare-shards");
+        directory.toFile().deleteOnExit();
+        registry.add("plantcare.shards.urls", () -> "jdbc:h2:file:" + directory.resolve("shard0") + ";DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:file:" + directory.resolve("shard1") + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    public void testHouseholdIndexesFollowTheirOwnWrites() throws Exception {
+        List<String> shardOne = households("indexes", 1, 2);
+        String dave = shardOne.get(0);
+        String erin = shardOne.get(1);
+        long davePlant = createPlant(dave, "Dave Monstera");
+        createPlant(erin, "Erin Monstera");
+
+        mockMvc.perform(get("/api/plants/search").param("name", "monstra").param("mode", "fuzzy")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, dave))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Dave Monstera"));
+
+        // Writes after the household's indexes were built show up in them, and only in them
+        long daveOrchid = createPlant(dave, "Dave Orchid");
+        mockMvc.perform(get("/api/plants/search").param("name", "orchd").param("mode", "fuzzy")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, dave))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(daveOrchid));
+        mockMvc.perform(get("/api/plants/search").param("name", "orchd").param("mode", "fuzzy")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, erin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/plants/suggest").param("prefix", "dave o")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, dave))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Dave Orchid"));
+        mockMvc.perform(get("/api/plants/" + davePlant + "/similar").header(HouseholdFilter.HOUSEHOLD_HEADER, dave))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(daveOrchid));
+
+        mockMvc.perform(delete("/api/plants/" + daveOrchid).header(HouseholdFilter.HOUSEHOLD_HEADER, dave))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/plants/suggest").param("prefix", "dave o")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, dave))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void testTypeAdherenceOnlyCountsTheHouseholdsWaterings() throws Exception {
+        String frank = households("adherence", 0, 1).get(0);
+        String grace = households("adherence", 1, 1).get(0);
+        long frankPlant = createPlant(frank, "Frank Calathea");
+        long gracePlant = createPlant(grace, "Grace Calathea");
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/plants/" + gracePlant + "/water").header(HouseholdFilter.HOUSEHOLD_HEADER, grace))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/plants/" + frankPlant + "/water").header(HouseholdFilter.HOUSEHOLD_HEADER, frank))
+                .andExpect(status().isOk());
+        historyService.flush();
+
+        // Both households have tropical plants; each only sees its own waterings of them
+        mockMvc.perform(get("/api/plants/adherence").param("type", "tropical").param("weeks", "1")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, frank))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.actualWaterings").value(1));
+        mockMvc.perform(get("/api/plants/adherence").param("type", "tropical").param("weeks", "1")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, grace))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.actualWaterings").value(3));
+    }
+
+    @Test
+    public void testHouseholdsOnlySeeTheirOwnPlants() throws Exception {
+        List<String> shardOne = households("isolation", 1, 2);
+        String alice = shardOne.get(0);
+        String bob = shardOne.get(1);
+        String carol = households("isolation", 0, 1).get(0);
+
+        long alicePlant = createPlant(alice, "Alice Fern");
+        long bobPlant = createPlant(bob, "Bob Cactus");
+        long carolPlant = createPlant(carol, "Carol Palm");
+
+        mockMvc.perform(get("/api/plants").header(HouseholdFilter.HOUSEHOLD_HEADER, alice))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Alice Fern"));
+        mockMvc.perform(get("/api/plants/stats").header(HouseholdFilter.HOUSEHOLD_HEADER, alice))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPlants").value(1))
+                .andExpect(jsonPath("$.plantsByType.tropical").value(1));
+
+        // Same shard, other household, and another shard altogether
+        mockMvc.perform(get("/api/plants/" + bobPlant).header(HouseholdFilter.HOUSEHOLD_HEADER, alice))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/plants/" + carolPlant).header(HouseholdFilter.HOUSEHOLD_HEADER, alice))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/plants/" + alicePlant))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/plants/" + bobPlant)
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, alice)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Taken\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/plants/" + bobPlant + "/water").header(HouseholdFilter.HOUSEHOLD_HEADER, alice))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/plants/" + bobPlant).header(HouseholdFilter.HOUSEHOLD_HEADER, alice))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/plants/" + bobPlant).header(HouseholdFilter.HOUSEHOLD_HEADER, bob))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Bob Cactus"))
+                .andExpect(jsonPath("$.version").value(0));
+
+        assertTrue(alicePlant > ShardRouter.SHARD_ID_BLOCK);
+        assertTrue(carolPlant < ShardRouter.SHARD_ID_BLOCK);
+        assertEquals(1, countOn(1, alice));
+        assertEquals(0, countOn(0, alice));
+        assertEquals(1, countOn(0, carol));
+
+        mockMvc.perform(get("/api/plants").header(HouseholdFilter.HOUSEHOLD_HEADER, "not a household"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testAdminStatsGatherEveryShard() throws Exception {
+        createPlant(households("stats", 0, 1).get(0), "Stats Ivy");
+        createPlant(households("stats", 1, 1).get(0), "Stats Aloe");
+
+        long expected = shard(0).queryForObject("SELECT COUNT(*) FROM plants", Long.class)
+                + shard(1).queryForObject("SELECT COUNT(*) FROM plants", Long.class);
+        mockMvc.perform(get("/api/admin/shards/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complete").value(true))
+                .andExpect(jsonPath("$.totalPlants").value(expected))
+                .andExpect(jsonPath("$.shards.length()").value(2))
+                .andExpect(jsonPath("$.shards[1].available").value(true));
+    }
+
+    @Test
+    public void testMoveHouseholdToAnotherShard() throws Exception {
+        String household = households("move", 1, 1).get(0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(createPlant(household, "Moving Plant " + i));
+        }
+
+        mockMvc.perform(post("/api/admin/shards/households/" + household + "/move").param("toShard", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromShard").value(1))
+                .andExpect(jsonPath("$.toShard").value(0))
+                .andExpect(jsonPath("$.plantsCopied").value(3));
+
+        assertEquals(0, countOn(1, household));
+        assertEquals(3, countOn(0, household));
+        mockMvc.perform(get("/api/admin/shards/households/" + household))
+                .andExpect(jsonPath("$.shard").value(0));
+
+        // Same ids, and the household keeps writing on its new shard
+        mockMvc.perform(get("/api/plants/" + ids.get(0)).header(HouseholdFilter.HOUSEHOLD_HEADER, household))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Moving Plant 0"));
+        mockMvc.perform(post("/api/plants/" + ids.get(1) + "/water").header(HouseholdFilter.HOUSEHOLD_HEADER, household))
+                .andExpect(status().isOk());
+        long plantOnNewShard = createPlant(household, "Arrived Plant");
+        assertTrue(plantOnNewShard < ShardRouter.SHARD_ID_BLOCK);
+        assertEquals(4, countOn(0, household));
+
+        mockMvc.perform(post("/api/admin/shards/households/" + household + "/move").param("toShard", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/admin/shards/households/default/move").param("toShard", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long createPlant(String household, String name) throws Exception {
+        Map<String, String> plant = Map.of("name", name, "type", "tropical", "wateringFrequency", "weekly",
+                "sunlightNeeds", "medium");
+        String body = mockMvc.perform(post("/api/plants")
+                        .header(HouseholdFilter.HOUSEHOLD_HEADER, household)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(plant)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode created = objectMapper.readTree(body);
+        return created.get("id").asLong();
+    }
+
+    // New household ids that the router places on the given shard
+    private static List<String> households(String prefix, int shard, int count) {
+        List<String> households = new ArrayList<>();
+        for (int i = 0; households.size() < count; i++) {
+            String household = prefix + "-" + i;
+            if (Math.floorMod(household.hashCode(), 2) == shard) {
+                households.add(household);
+            }
+        }
+        return households;
+    }
+
+    private long countOn(int shard, String household) {
+        return shard(shard).queryForObject("SELECT COUNT(*) FROM plants WHERE household_id = ?", Long.class, household);
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shardRouter.getShard(shard));
+    }
+}
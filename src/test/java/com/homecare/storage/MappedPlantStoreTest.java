@@ -0,0 +1,135 @@
+package com.homecare.storage;
+
+import com.homecare.entity.Plant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedPlantStoreTest {
+
+    private Path directory;
+    private MappedPlantStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createDirectories(Path.of("target", "mapped-store-test", String.valueOf(System.nanoTime())));
+        store = open();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void testWritesSurviveReopen() throws IOException {
+        Plant fern = store.insert(plant("Fern", "tropical"));
+        Plant cactus = store.insert(plant("Cactus", "succulent"));
+        store.update(fern.getId(), plant -> {
+            plant.setLastWatered(LocalDate.of(2024, 5, 1));
+            plant.setCareNotes(null);
+            return plant;
+        });
+        store.delete(cactus.getId());
+
+        store.close();
+        store = open();
+
+        assertEquals(1, store.size());
+        Plant reopened = store.get(fern.getId()).orElseThrow();
+        assertEquals("Fern", reopened.getName());
+        assertEquals(LocalDate.of(2024, 5, 1), reopened.getLastWatered());
+        assertNull(reopened.getCareNotes());
+        assertEquals(LocalDateTime.of(2024, 4, 1, 9, 30, 0, 500), reopened.getCreatedAt());
+        assertFalse(store.get(cactus.getId()).isPresent());
+        // Deleted ids are not handed out again
+        assertEquals(cactus.getId() + 1, store.insert(plant("Ivy", "vine")).getId());
+    }
+
+    @Test
+    public void testTornRecordIsDiscardedOnRecovery() throws IOException {
+        Plant fern = store.insert(plant("Fern", "tropical"));
+        int end = store.getLogBytes();
+        store.close();
+
+        // A crash halfway through the next record: a length and a few body bytes, no checksum
+        try (FileChannel channel = FileChannel.open(directory.resolve("plants-1.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(13).putInt(200).put((byte) 1).putLong(fern.getId() + 1).flip(), end);
+        }
+
+        store = open();
+        assertEquals(1, store.size());
+        assertEquals(end, store.getLogBytes());
+        Plant ivy = store.insert(plant("Ivy", "vine"));
+
+        store.close();
+        store = open();
+        assertEquals(List.of("Fern", "Ivy"), store.find(plant -> true).stream().map(Plant::getName).toList());
+        assertEquals(ivy.getId(), store.get(ivy.getId()).orElseThrow().getId());
+    }
+
+    @Test
+    public void testCompactionKeepsLivePlantsAndStartsNewLog() throws IOException {
+        Plant fern = store.insert(plant("Fern", "tropical"));
+        for (int i = 0; i < 100; i++) {
+            int round = i;
+            store.update(fern.getId(), plant -> {
+                plant.setCareNotes("Round " + round);
+                return plant;
+            });
+        }
+        Plant cactus = store.insert(plant("Cactus", "succulent"));
+        store.delete(store.insert(plant("Gone", "vine")).getId());
+
+        store.compact();
+        assertTrue(Files.exists(directory.resolve("plants.snapshot")));
+        assertTrue(Files.exists(directory.resolve("plants-2.log")));
+        assertFalse(Files.exists(directory.resolve("plants-1.log")));
+        assertEquals("Round 99", store.get(fern.getId()).orElseThrow().getCareNotes());
+
+        // Writes after the snapshot go to the new log and both are read back on reopen
+        store.update(cactus.getId(), plant -> {
+            plant.setType("desert");
+            return plant;
+        });
+        store.close();
+        store = open();
+
+        assertEquals(2, store.size());
+        assertEquals("Round 99", store.get(fern.getId()).orElseThrow().getCareNotes());
+        assertEquals("desert", store.get(cactus.getId()).orElseThrow().getType());
+        assertEquals(cactus.getId() + 2, store.insert(plant("Ivy", "vine")).getId());
+    }
+
+    private MappedPlantStore open() throws IOException {
+        MappedPlantStore opened = new MappedPlantStore();
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "compactionMinLogBytes", 1 << 20);
+        opened.open();
+        return opened;
+    }
+
+    private static Plant plant(String name, String type) {
+        Plant plant = new Plant(name, type, "weekly", "medium");
+        plant.setCareNotes("Keep the soil moist");
+        plant.setCreatedAt(LocalDateTime.of(2024, 4, 1, 9, 30, 0, 500));
+        plant.setVersion(0L);
+        return plant;
+    }
+}
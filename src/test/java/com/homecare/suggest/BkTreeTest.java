@@ -0,0 +1,78 @@
+package com.homecare.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class BkTreeTest {
+
+    @Test
+    public void testSearchMatchesBruteForce() {
+        Random random = new Random(7);
+        List<String> words = IntStream.range(0, 2000)
+                .mapToObj(i -> randomWord(random))
+                .distinct()
+                .toList();
+        BkTree tree = new BkTree();
+        words.forEach(tree::add);
+        assertEquals(words.size(), tree.size());
+
+        for (int q = 0; q < 50; q++) {
+            String query = randomWord(random);
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                Map<String, Integer> expected = new TreeMap<>();
+                for (String word : words) {
+                    int distance = BkTree.distance(query, word);
+                    if (distance <= maxDistance) {
+                        expected.put(word, distance);
+                    }
+                }
+                Map<String, Integer> found = new TreeMap<>();
+                tree.search(query, maxDistance, later(), (word, distance) -> {
+                    found.put(word, distance);
+                    return true;
+                });
+                assertEquals(expected, found, query + " within " + maxDistance);
+            }
+        }
+    }
+
+    @Test
+    public void testDistanceAndEarlyStop() {
+        assertEquals(1, BkTree.distance("monstra", "monstera"));
+        assertEquals(1, BkTree.distance("fidle", "fiddle"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "fern"));
+
+        BkTree tree = new BkTree();
+        List.of("fern", "fend", "feed", "fernery").forEach(tree::add);
+        int[] visits = new int[1];
+        assertFalse(tree.search("fern", 3, later(), (word, distance) -> ++visits[0] < 2));
+        assertEquals(2, visits[0]);
+
+        // The deadline is checked at every node, not only when a word matches
+        visits[0] = 0;
+        assertFalse(tree.search("zzzz", 0, System.nanoTime() - 1, (word, distance) -> ++visits[0] > 0));
+        assertEquals(0, visits[0]);
+    }
+
+    private static long later() {
+        return System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[3 + random.nextInt(6)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(word);
+    }
+}
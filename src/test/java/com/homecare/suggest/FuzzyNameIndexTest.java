@@ -0,0 +1,64 @@
+package com.homecare.suggest;
+
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FuzzyNameIndexTest {
+
+    @Test
+    public void testSearchOutOfBudgetStillReturnsExactMatches() {
+        FuzzyNameIndex index = new FuzzyNameIndex();
+        index.rebuild(List.of(plant(1L, "Boston Fern"), plant(2L, "Bird's Nest Fern"), plant(3L, "Boston Ivy")));
+
+        ReflectionTestUtils.setField(index, "budgetMs", 1000L);
+        FuzzyNameIndex.Result typo = index.search("bostn fern", FuzzyNameIndex.MAX_DISTANCE, 10);
+        assertTrue(typo.complete());
+        assertEquals(List.of(1L), typo.plantIds());
+
+        // No time to search the tree at all: the typo is missed, the exact words still match
+        ReflectionTestUtils.setField(index, "budgetMs", 0L);
+        FuzzyNameIndex.Result exact = index.search("boston fern", FuzzyNameIndex.MAX_DISTANCE, 10);
+        assertFalse(exact.complete());
+        assertEquals(List.of(1L), exact.plantIds());
+        assertEquals(List.of(), index.search("bostn fern", FuzzyNameIndex.MAX_DISTANCE, 10).plantIds());
+    }
+
+    @Test
+    public void testChangesDuringALoadSurviveIt() {
+        FuzzyNameIndex index = new FuzzyNameIndex();
+        ReflectionTestUtils.setField(index, "budgetMs", 1000L);
+        PlantRepository repository = mock(PlantRepository.class);
+        ReflectionTestUtils.setField(index, "plantRepository", repository);
+        when(repository.findSummaryById(2L)).thenReturn(Optional.of(plant(2L, "Maidenhair Fern")));
+        when(repository.findSummaryById(3L)).thenReturn(Optional.empty());
+
+        // A write lands while the reload reads the rows, which still show the plants as they were before
+        when(repository.findAllSummaries()).thenAnswer(invocation -> {
+            index.onPlantChanged(PlantChangedEvent.saved(2L, 1L));
+            index.onPlantChanged(PlantChangedEvent.deleted(3L, 0L));
+            return List.of(plant(1L, "Boston Fern"), plant(2L, "Calathea"), plant(3L, "Mint"));
+        });
+        index.onPlantChanged(PlantChangedEvent.bulk());
+
+        assertEquals(List.of(2L), index.search("maidenhair", FuzzyNameIndex.MAX_DISTANCE, 10).plantIds());
+        assertEquals(List.of(), index.search("calathea", FuzzyNameIndex.MAX_DISTANCE, 10).plantIds());
+        assertEquals(List.of(), index.search("mint", FuzzyNameIndex.MAX_DISTANCE, 10).plantIds());
+    }
+
+    private static PlantSummary plant(Long id, String name) {
+        return new PlantSummary(id, name, "tropical", "weekly", "medium", null, LocalDate.now(), null, 0L);
+    }
+}
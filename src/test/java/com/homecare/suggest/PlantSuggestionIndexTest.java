@@ -0,0 +1,46 @@
+package com.homecare.suggest;
+
+import com.homecare.dto.PlantSuggestion;
+import com.homecare.dto.PlantSummary;
+import com.homecare.event.PlantChangedEvent;
+import com.homecare.repository.PlantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PlantSuggestionIndexTest {
+
+    @Test
+    public void testChangesDuringALoadSurviveIt() {
+        PlantSuggestionIndex index = new PlantSuggestionIndex();
+        PlantRepository repository = mock(PlantRepository.class);
+        ReflectionTestUtils.setField(index, "plantRepository", repository);
+        when(repository.findSummaryById(2L)).thenReturn(Optional.of(plant(2L, "Maidenhair Fern", "fern")));
+        when(repository.findSummaryById(3L)).thenReturn(Optional.empty());
+
+        // A write lands while the reload reads the rows, which still show the plants as they were before
+        when(repository.findAllSummaries()).thenAnswer(invocation -> {
+            index.onPlantChanged(PlantChangedEvent.saved(2L, 1L));
+            index.onPlantChanged(PlantChangedEvent.deleted(3L, 0L));
+            return List.of(plant(1L, "Monstera", "tropical"), plant(2L, "Calathea", "tropical"),
+                    plant(3L, "Mint", "herb"));
+        });
+        index.onPlantChanged(PlantChangedEvent.bulk());
+
+        assertEquals(List.of(new PlantSuggestion("Maidenhair Fern", PlantSuggestion.NAME, 1)), index.suggest("maid", 10));
+        assertEquals(List.of(), index.suggest("cala", 10));
+        assertEquals(List.of(), index.suggest("mint", 10));
+        assertEquals(List.of(new PlantSuggestion("tropical", PlantSuggestion.TYPE, 1)), index.suggest("trop", 10));
+    }
+
+    private static PlantSummary plant(Long id, String name, String type) {
+        return new PlantSummary(id, name, type, "weekly", "medium", null, LocalDate.now(), null, 0L);
+    }
+}
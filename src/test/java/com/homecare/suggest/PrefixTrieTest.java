@@ -0,0 +1,53 @@
+package com.homecare.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrefixTrieTest {
+
+    @Test
+    public void testRanksByCountAndFollowsRemovals() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Snake Plant", "name");
+        trie.add("Spider Plant", "name");
+        trie.add("Spider Plant", "name");
+        trie.add("succulent", "type");
+        trie.add("Succulent", "type");
+        trie.add("Succulent", "type");
+
+        assertEquals(List.of("succulent", "Spider Plant", "Snake Plant"), texts(trie.top("s", 5)));
+        assertEquals(List.of("Spider Plant", "Snake Plant"), texts(trie.top("PLA", 5)));
+        assertEquals(List.of("succulent"), texts(trie.top("s", 1)));
+        assertEquals(3, trie.top("suc", 5).get(0).count);
+
+        // Dropping below another term re-ranks it; dropping to zero removes it and its empty branch
+        trie.remove("Spider Plant", "name");
+        trie.remove("Spider Plant", "name");
+        assertEquals(List.of("succulent", "Snake Plant"), texts(trie.top("s", 5)));
+        assertTrue(trie.top("spi", 5).isEmpty());
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    public void testKeepsTheBestTermsOfLargeSubtrees() {
+        PrefixTrie trie = new PrefixTrie();
+        for (int i = 0; i < 50; i++) {
+            for (int n = 0; n <= i; n++) {
+                trie.add("Fern " + i, "name");
+            }
+        }
+        List<PrefixTrie.Term> top = trie.top("fe", PrefixTrie.MAX_SUGGESTIONS);
+        assertEquals(PrefixTrie.MAX_SUGGESTIONS, top.size());
+        assertEquals("Fern 49", top.get(0).text);
+        assertEquals("Fern 40", top.get(PrefixTrie.MAX_SUGGESTIONS - 1).text);
+        assertEquals(List.of("Fern 7"), texts(trie.top("7", 5)));
+    }
+
+    private static List<String> texts(List<PrefixTrie.Term> terms) {
+        return terms.stream().map(term -> term.text).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.homecare.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+        "plantcare.warmup.enabled=true",
+        "plantcare.warmup.iterations=2"
+})
+@ActiveProfiles("test")
+public class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup warmup;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testInstanceIsReadyOnceWarmedUp() {
+        // The context only finishes starting after the warm-up
+        ResponseEntity<JsonNode> health = rest.getForEntity("/api/health", JsonNode.class);
+        assertEquals(HttpStatus.OK, health.getStatusCode());
+        assertEquals("UP", health.getBody().get("status").asText());
+        assertEquals("ACCEPTING_TRAFFIC", health.getBody().get("readiness").asText());
+        JsonNode stats = health.getBody().get("warmup");
+        assertEquals("COMPLETE", stats.get("state").asText());
+        assertTrue(stats.get("preloadedPlants").asInt() > 0);
+        assertEquals(2 * 29, stats.get("queries").asLong());
+        assertEquals(2, stats.get("careGuides").asLong());
+        assertTrue(stats.get("requests").asLong() >= 2 * 7);
+        assertEquals(HttpStatus.OK, rest.getForEntity("/api/health/liveness", String.class).getStatusCode());
+
+        // The warm-up's cold requests leave no latency baseline behind for admission control
+        JsonNode admission = rest.getForObject("/api/admission/stats", JsonNode.class);
+        assertTrue(admission.size() > 0);
+        for (JsonNode endpoint : admission) {
+            assertTrue(endpoint.get("accepted").asLong() > 0);
+            assertEquals(0.0, endpoint.get("baselineLatencyMs").asDouble());
+        }
+
+        // Out of budget the warm-up gives up instead of holding the instance back
+        warmup.warmUp(port, 0);
+        assertEquals(StartupWarmup.State.BUDGET_EXCEEDED, warmup.getState());
+        assertEquals(2 * 29, (Long) warmup.getStats().get("queries"));
+    }
+}
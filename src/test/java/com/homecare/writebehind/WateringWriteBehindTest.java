@@ -0,0 +1,195 @@
+package com.homecare.writebehind;
+
+import com.homecare.entity.Plant;
+import com.homecare.repository.PlantRepository;
+import com.homecare.repository.WateringHistoryRepository;
+import com.homecare.writebehind.WateringWal.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Write-behind watering: group-committed WAL, per-plant coalescing and replay after a restart.
+ */
+@SpringBootTest(properties = {
+        "plantcare.watering.write-behind.enabled=true",
+        "plantcare.watering.write-behind.wal-path=target/write-behind-test/watering.wal",
+        "plantcare.watering.write-behind.flush-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class WateringWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private WateringWriteBehind writeBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WateringHistoryRepository historyRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private Plant plant;
+
+    @BeforeEach
+    public void setUp() {
+        plant = plantRepository.save(new Plant("Sensor Plant", "tropical", "daily", "medium"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        plantRepository.deleteById(plant.getId());
+    }
+
+    @Test
+    public void testBurstIsLoggedCoalescedAndApplied() throws Exception {
+        mockMvc.perform(post("/api/plants/" + plant.getId() + "/water").param("source", "sensor"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(plant.getId()));
+        mockMvc.perform(post("/api/plants/999999/water"))
+                .andExpect(status().isNotFound());
+
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        for (int i = 0; i < 99; i++) {
+            acks.add(writeBehind.submit(plant.getId(), LocalDateTime.now(), "sensor", 1000));
+        }
+        CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Acknowledged but not applied yet: the flusher is effectively off in this test
+        assertEquals(null, plantRepository.findById(plant.getId()).orElseThrow().getLastWatered());
+        assertEquals(100, writeBehind.getBacklog());
+
+        // The history is written with the plant, not queued behind it
+        writeBehind.flush();
+
+        Plant watered = plantRepository.findById(plant.getId()).orElseThrow();
+        assertEquals(LocalDate.now(), watered.getLastWatered());
+        assertEquals(LocalDate.now().plusDays(1), watered.getNextWatering());
+        // One UPDATE for the whole burst, but every tap is in the history
+        assertEquals(1L, watered.getVersion());
+        assertEquals(100, historyRepository.findPlantRollups(plant.getId(), WateringHistoryRepository.DAY,
+                LocalDate.now(), LocalDate.now()).get(0).waterings());
+        assertEquals(0, writeBehind.getBacklog());
+    }
+
+    @Test
+    public void testReplayAppliesLoggedWateringsAndSkipsTornTail() throws Exception {
+        Path walPath = Path.of("target", "write-behind-test", "replay-" + System.nanoTime() + ".wal");
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        try (WateringWal wal = new WateringWal(walPath)) {
+            wal.append(List.of(new Entry(1, plant.getId(), yesterday.minusHours(2), "sensor"),
+                    new Entry(2, plant.getId(), yesterday, "manual")));
+        }
+        // A record cut off by the crash
+        try (FileChannel channel = FileChannel.open(walPath, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        restart(walPath);
+
+        Plant replayed = plantRepository.findById(plant.getId()).orElseThrow();
+        assertEquals(yesterday.toLocalDate(), replayed.getLastWatered());
+        assertEquals(yesterday.toLocalDate().plusDays(1), replayed.getNextWatering());
+        assertEquals(0, Files.size(walPath));
+    }
+
+    @Test
+    public void testReplaySkipsEntriesAlreadyApplied() throws Exception {
+        Path walPath = Path.of("target", "write-behind-test", "checkpoint-" + System.nanoTime() + ".wal");
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        try (WateringWal wal = new WateringWal(walPath)) {
+            wal.append(List.of(new Entry(1, plant.getId(), yesterday, "sensor"),
+                    new Entry(2, plant.getId(), yesterday, "sensor")));
+        }
+        // The crash came after the batch was committed but before the WAL was truncated
+        jdbcTemplate.update("INSERT INTO watering_wal_checkpoints (wal_id, applied_sequence) VALUES (?, 2)",
+                walPath.toAbsolutePath().normalize().toString());
+
+        restart(walPath);
+
+        Plant replayed = plantRepository.findById(plant.getId()).orElseThrow();
+        assertEquals(null, replayed.getLastWatered());
+        assertEquals(0L, replayed.getVersion());
+        assertEquals(List.of(), historyRepository.findPlantRollups(plant.getId(), WateringHistoryRepository.DAY,
+                yesterday.toLocalDate(), yesterday.toLocalDate()));
+        assertEquals(0, Files.size(walPath));
+    }
+
+    @Test
+    public void testReplayDoesNotMoveLastWateredBack() throws Exception {
+        Path walPath = Path.of("target", "write-behind-test", "forward-" + System.nanoTime() + ".wal");
+        LocalDateTime lastWeek = LocalDateTime.now().minusWeeks(1);
+        try (WateringWal wal = new WateringWal(walPath)) {
+            wal.append(List.of(new Entry(1, plant.getId(), lastWeek, "sensor")));
+        }
+        // Watered by hand since the logged tap
+        plantRepository.waterPlant(plant.getId(), LocalDate.now());
+
+        restart(walPath);
+
+        Plant replayed = plantRepository.findById(plant.getId()).orElseThrow();
+        assertEquals(LocalDate.now(), replayed.getLastWatered());
+        assertEquals(1L, replayed.getVersion());
+        // The tap still counts in the history of its own day
+        assertEquals(1, historyRepository.findPlantRollups(plant.getId(), WateringHistoryRepository.DAY,
+                lastWeek.toLocalDate(), lastWeek.toLocalDate()).get(0).waterings());
+    }
+
+    private void restart(Path walPath) throws Exception {
+        WateringWriteBehind restarted = new WateringWriteBehind();
+        beanFactory.autowireBean(restarted);
+        ReflectionTestUtils.setField(restarted, "walPath", walPath.toString());
+        restarted.start();
+        restarted.stop();
+    }
+
+    @Test
+    public void testWalReadsBackAppendedGroups() throws IOException {
+        Path walPath = Path.of("target", "write-behind-test", "groups-" + System.nanoTime() + ".wal");
+        LocalDateTime wateredAt = LocalDateTime.of(2024, 5, 1, 8, 30, 15, 123_000_000);
+        try (WateringWal wal = new WateringWal(walPath)) {
+            wal.append(List.of(new Entry(1, 10, wateredAt, "manual")));
+            wal.append(List.of(new Entry(2, 11, wateredAt, "sensor"), new Entry(3, 10, wateredAt, "app")));
+        }
+        try (WateringWal wal = new WateringWal(walPath)) {
+            List<Entry> entries = wal.readAll();
+            assertEquals(3, entries.size());
+            assertEquals(new Entry(3, 10, wateredAt, "app"), entries.get(2));
+        }
+    }
+}